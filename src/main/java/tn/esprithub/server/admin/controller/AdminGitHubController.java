@@ -0,0 +1,164 @@
+package tn.esprithub.server.admin.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tn.esprithub.server.github.scheduler.AdaptiveSyncScheduler;
+import tn.esprithub.server.github.service.GitHubGraphQLService;
+import tn.esprithub.server.github.service.GitHubRateLimitGovernor;
+import tn.esprithub.server.github.service.GitHubResponseCache;
+import tn.esprithub.server.github.service.GitHubSingleFlightInterceptor;
+import tn.esprithub.server.github.service.GitHubSyncExecutor;
+import tn.esprithub.server.github.webhook.WebhookDeliveryDispatcher;
+import tn.esprithub.server.github.webhook.WebhookDeliveryService;
+import tn.esprithub.server.github.webhook.WebhookSyncCoalescer;
+import tn.esprithub.server.repository.entity.WebhookDeadLetter;
+import tn.esprithub.server.repository.entity.WebhookDelivery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/github")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"${app.cors.allowed-origins}"})
+public class AdminGitHubController {
+
+    private final GitHubResponseCache responseCache;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+    private final GitHubGraphQLService gitHubGraphQLService;
+    private final GitHubSingleFlightInterceptor singleFlightInterceptor;
+    private final GitHubSyncExecutor gitHubSyncExecutor;
+    private final AdaptiveSyncScheduler adaptiveSyncScheduler;
+    private final WebhookDeliveryService webhookDeliveryService;
+    private final WebhookDeliveryDispatcher webhookDeliveryDispatcher;
+    private final WebhookSyncCoalescer webhookSyncCoalescer;
+
+    /**
+     * Hit/miss statistics of the GitHub conditional-request cache
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+
+    /**
+     * Drop every cached GitHub response
+     */
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> clearCache() {
+        log.info("🧹 Clearing GitHub response cache on admin request");
+        responseCache.clear();
+        return ResponseEntity.ok(Map.of("message", "GitHub response cache cleared"));
+    }
+
+    /**
+     * Remaining GitHub rate-limit budget per tracked token
+     */
+    @GetMapping("/rate-limit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimitGovernor.getStats());
+    }
+
+    /**
+     * Query count and cumulative point cost of the GitHub GraphQL backend
+     */
+    @GetMapping("/graphql/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getGraphQLStats() {
+        return ResponseEntity.ok(gitHubGraphQLService.getStats());
+    }
+
+    /**
+     * Upstream vs. coalesced GitHub GET counts
+     */
+    @GetMapping("/single-flight/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSingleFlightStats() {
+        return ResponseEntity.ok(singleFlightInterceptor.getStats());
+    }
+
+    /**
+     * Progress and throughput of the current (or last) scheduled repository sync
+     */
+    @GetMapping("/sync/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSyncStats() {
+        return ResponseEntity.ok(gitHubSyncExecutor.getStats());
+    }
+
+    /**
+     * Last round of the activity-weighted sync scheduler and the repositories it queued
+     */
+    @GetMapping("/sync/schedule")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSyncSchedule() {
+        return ResponseEntity.ok(adaptiveSyncScheduler.getStats());
+    }
+
+    /**
+     * Webhook processing lanes of this node and delivery counts per status
+     */
+    @GetMapping("/webhooks/deliveries/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWebhookDeliveryStats() {
+        return ResponseEntity.ok(webhookDeliveryDispatcher.getStats());
+    }
+
+    /**
+     * Push/create/delete bursts buffered on this node before their coalesced sync
+     */
+    @GetMapping("/webhooks/coalescing/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWebhookCoalescingStats() {
+        return ResponseEntity.ok(webhookSyncCoalescer.getStats());
+    }
+
+    /**
+     * Most recent webhook deliveries that used up their processing attempts
+     */
+    @GetMapping("/webhooks/dead-letters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<WebhookDeadLetter>> getWebhookDeadLetters() {
+        return ResponseEntity.ok(webhookDeliveryService.getDeadLetters());
+    }
+
+    /**
+     * Put a dead-lettered webhook delivery back in processing
+     */
+    @PostMapping("/webhooks/dead-letters/{deadLetterId}/requeue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> requeueWebhookDeadLetter(@PathVariable UUID deadLetterId) {
+        WebhookDelivery delivery = webhookDeliveryService.requeueDeadLetter(deadLetterId);
+        webhookDeliveryDispatcher.dispatch(delivery);
+        return ResponseEntity.ok(Map.of("deliveryId", delivery.getDeliveryId(), "status", delivery.getStatus()));
+    }
+
+    /**
+     * Stored webhook delivery by its GitHub delivery id (X-GitHub-Delivery)
+     */
+    @GetMapping("/webhooks/deliveries/{deliveryId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<WebhookDelivery> getWebhookDelivery(@PathVariable String deliveryId) {
+        return ResponseEntity.ok(webhookDeliveryService.getDeliveryByGitHubId(deliveryId));
+    }
+
+    /**
+     * Process a stored webhook delivery again
+     */
+    @PostMapping("/webhooks/deliveries/{deliveryId}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> replayWebhookDelivery(@PathVariable String deliveryId) {
+        WebhookDelivery delivery = webhookDeliveryService.replay(deliveryId);
+        webhookDeliveryDispatcher.dispatch(delivery);
+        return ResponseEntity.ok(Map.of("deliveryId", delivery.getDeliveryId(), "status", delivery.getStatus(),
+                "replayCount", delivery.getReplayCount()));
+    }
+}
@@ -0,0 +1,66 @@
+package tn.esprithub.server.admin.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/jobs")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"${app.cors.allowed-origins}"})
+public class AdminJobController {
+
+    private final BackgroundJobService jobService;
+
+    /**
+     * Background job counts per type and status, across all nodes
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getJobStats() {
+        return ResponseEntity.ok(jobService.getStats());
+    }
+
+    /**
+     * Latest jobs of one type
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BackgroundJob>> getRecentJobs(@RequestParam BackgroundJob.JobType type) {
+        return ResponseEntity.ok(jobService.getRecentJobs(type));
+    }
+
+    /**
+     * Jobs that used up their attempts
+     */
+    @GetMapping("/failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BackgroundJob>> getFailedJobs() {
+        return ResponseEntity.ok(jobService.getFailedJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BackgroundJob> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(jobService.getJob(jobId));
+    }
+
+    /**
+     * Queue a failed job again
+     */
+    @PostMapping("/{jobId}/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BackgroundJob> retryJob(@PathVariable UUID jobId) {
+        log.info("🔁 Retrying background job {} on admin request", jobId);
+        return ResponseEntity.ok(jobService.retry(jobId));
+    }
+}
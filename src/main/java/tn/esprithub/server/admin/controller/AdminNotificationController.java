@@ -0,0 +1,79 @@
+package tn.esprithub.server.admin.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import tn.esprithub.server.notification.NotificationDigestService;
+import tn.esprithub.server.notification.NotificationOutboxService;
+import tn.esprithub.server.notification.NotificationOutboxWorker;
+import tn.esprithub.server.notification.entity.NotificationOutbox;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/admin/notifications")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"${app.cors.allowed-origins}"})
+public class AdminNotificationController {
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationOutboxWorker notificationOutboxWorker;
+    private final NotificationDigestService notificationDigestService;
+
+    /**
+     * Outbox messages per channel and status, and the delivery lanes of this node
+     */
+    @GetMapping("/outbox")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("messages", notificationOutboxService.getStats());
+        stats.put("worker", notificationOutboxWorker.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Outbox messages that used up their attempts
+     */
+    @GetMapping("/outbox/failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<NotificationOutbox>> getFailedOutboxMessages() {
+        return ResponseEntity.ok(notificationOutboxService.getFailedMessages());
+    }
+
+    /**
+     * Queue a failed outbox message again
+     */
+    @PostMapping("/outbox/{messageId}/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NotificationOutbox> retryOutboxMessage(@PathVariable UUID messageId) {
+        log.info("🔁 Retrying outbox message {} on admin request", messageId);
+        return ResponseEntity.ok(notificationOutboxService.retry(messageId));
+    }
+
+    /**
+     * GitHub event digests waiting to be sent
+     */
+    @GetMapping("/digest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDigestStats() {
+        return ResponseEntity.ok(notificationDigestService.getStats());
+    }
+
+    /**
+     * Send every pending GitHub event digest now
+     */
+    @PostMapping("/digest/flush")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> flushDigests() {
+        log.info("📨 Flushing notification digests on admin request");
+        notificationDigestService.flushAll();
+        return ResponseEntity.ok(notificationDigestService.getStats());
+    }
+}
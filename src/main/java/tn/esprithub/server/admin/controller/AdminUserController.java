@@ -9,7 +9,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import tn.esprithub.server.common.entity.BackgroundJob;
 import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.job.BackgroundJobService;
 import tn.esprithub.server.github.service.GitHubRepositoryFetchService;
 import tn.esprithub.server.github.service.GitHubRepositoryScheduler;
 import tn.esprithub.server.github.service.GitHubWebhookService;
@@ -27,7 +29,6 @@ import java.io.PrintWriter;
 // ...existing code...
 import org.springframework.http.ContentDisposition;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,10 +48,7 @@ public class AdminUserController {
     private final GitHubWebhookService gitHubWebhookService;
     private final GitHubRepositoryScheduler gitHubRepositoryScheduler;
     private final AdminUserDataService adminUserDataService;
-
-    // Track bulk fetch status
-    private volatile boolean bulkFetchInProgress = false;
-    private volatile String bulkFetchStatus = "IDLE";
+    private final BackgroundJobService jobService;
 
     /**
      * Test endpoint to check if CORS and routing are working
@@ -355,14 +353,6 @@ public class AdminUserController {
         log.info("🧠 SMART BULK FETCH: Starting smart repository fetch for ALL users");
 
         try {
-            // Check if bulk fetch is already in progress
-            if (bulkFetchInProgress) {
-                return ResponseEntity.ok(Map.of(
-                    "message", "Bulk fetch is already in progress",
-                    "status", bulkFetchStatus
-                ));
-            }
-
             // Get all users with GitHub tokens
             List<User> usersWithTokens = userRepository.findUsersWithGitHubTokens();
             log.info("Found {} users with GitHub tokens", usersWithTokens.size());
@@ -375,76 +365,15 @@ public class AdminUserController {
                 ));
             }
 
-            // Start bulk processing in background
-            bulkFetchInProgress = true;
-            bulkFetchStatus = "STARTING";
-
-            new Thread(() -> {
-                int totalUsers = usersWithTokens.size();
-                int processedUsers = 0;
-                int fetchedUsers = 0;
-                int skippedUsers = 0;
-                int totalRepositories = 0;
-                int errorCount = 0;
-
-                log.info("🧠 Starting SMART bulk repository fetch for {} users", totalUsers);
-                bulkFetchStatus = "PROCESSING";
-
-                for (User user : usersWithTokens) {
-                    try {
-                        processedUsers++;
-                        bulkFetchStatus = String.format("Processing user %d/%d: %s", processedUsers, totalUsers, user.getEmail());
-
-                        // Get existing repositories to check if we need to fetch
-                        List<Repository> existingRepos = repositoryRepository.findByOwnerIdAndIsActiveTrue(user.getId());
-                        boolean needsFetch = existingRepos.isEmpty();
-
-                        // If repos exist, check if they're stale (no sync in last 24 hours)
-                        if (!needsFetch && !existingRepos.isEmpty()) {
-                            LocalDateTime oneDayAgo = LocalDateTime.now().minusHours(24);
-                            needsFetch = existingRepos.stream()
-                                    .allMatch(repo -> repo.getLastSyncAt() == null || repo.getLastSyncAt().isBefore(oneDayAgo));
-                        }
-
-                        if (needsFetch) {
-                            log.info("📥 Fetching repositories for user {}/{}: {} ({})",
-                                   processedUsers, totalUsers, user.getEmail(), user.getGithubUsername());
-
-                            List<Repository> repositories = gitHubRepositoryFetchService.fetchAndSaveUserRepositories(user, true);
-                            totalRepositories += repositories.size();
-                            fetchedUsers++;
-
-                            log.info("✅ User {}/{}: Found {} repositories for {}",
-                                   processedUsers, totalUsers, repositories.size(), user.getEmail());
-                        } else {
-                            skippedUsers++;
-                            log.info("⏭️ Skipping user {}/{}: {} - repositories already synced recently",
-                                   processedUsers, totalUsers, user.getEmail());
-                        }
-
-                        // Small delay to avoid rate limiting
-                        Thread.sleep(1000);
-
-                    } catch (Exception e) {
-                        errorCount++;
-                        log.error("❌ Error processing user: {} ({})", user.getEmail(), user.getGithubUsername(), e);
-                    }
-                }
-
-                bulkFetchStatus = String.format("COMPLETED - Processed: %d users, Fetched: %d, Skipped: %d, Repositories: %d, Errors: %d",
-                                               processedUsers, fetchedUsers, skippedUsers, totalRepositories, errorCount);
-                bulkFetchInProgress = false;
-
-                log.info("🎉 SMART BULK FETCH COMPLETED! Processed: {} users, Fetched: {}, Skipped: {}, Repositories: {}, Errors: {}",
-                       processedUsers, fetchedUsers, skippedUsers, totalRepositories, errorCount);
-
-            }).start();
+            // Queued as a durable job: survives restarts, runs on one node, and a second request joins the queued one
+            UUID jobId = gitHubRepositoryScheduler.enqueueSyncAll(false);
 
             return ResponseEntity.ok(Map.of(
-                "message", "Bulk repository fetch started for all users with GitHub tokens",
+                "message", "Bulk repository fetch queued for all users with GitHub tokens",
                 "usersToProcess", usersWithTokens.size(),
-                "status", "PROCESSING",
-                "note", "Check server logs for progress. This will take several minutes."
+                "jobId", jobId,
+                "status", "PENDING",
+                "note", "Check /fetch-all-repositories/status for progress. This will take several minutes."
             ));
 
         } catch (Exception e) {
@@ -461,11 +390,25 @@ public class AdminUserController {
     @GetMapping("/fetch-all-repositories/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getBulkFetchStatus() {
-        return ResponseEntity.ok(Map.of(
-            "inProgress", bulkFetchInProgress,
-            "status", bulkFetchStatus,
-            "timestamp", java.time.LocalDateTime.now().toString()
-        ));
+        List<BackgroundJob> jobs = jobService.getRecentJobs(BackgroundJob.JobType.REPOSITORY_SYNC_ALL);
+        if (jobs.isEmpty()) {
+            return ResponseEntity.ok(Map.of(
+                "inProgress", false,
+                "status", "IDLE",
+                "timestamp", java.time.LocalDateTime.now().toString()
+            ));
+        }
+
+        BackgroundJob latest = jobs.get(0);
+        boolean inProgress = latest.getStatus() == BackgroundJob.JobStatus.PENDING
+                || latest.getStatus() == BackgroundJob.JobStatus.RUNNING;
+        Map<String, Object> status = new HashMap<>();
+        status.put("inProgress", inProgress);
+        status.put("status", latest.getProgress() != null ? latest.getStatus() + " - " + latest.getProgress() : latest.getStatus().name());
+        status.put("jobId", latest.getId());
+        status.put("lastError", latest.getLastError());
+        status.put("timestamp", java.time.LocalDateTime.now().toString());
+        return ResponseEntity.ok(status);
     }
 
     /**
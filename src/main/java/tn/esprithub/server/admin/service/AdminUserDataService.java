@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.blob.ContentBlobService;
 import tn.esprithub.server.repository.entity.*;
 import tn.esprithub.server.repository.repository.*;
 import tn.esprithub.server.project.entity.Task;
@@ -27,6 +28,7 @@ public class AdminUserDataService {
     private final RepositoryCollaboratorRepository collaboratorRepository;
     private final TaskRepository taskRepository;
     private final GitHubRepositoryService gitHubRepositoryService;
+    private final ContentBlobService contentBlobService;
     
     /**
      * Get comprehensive user data with summary information only (no large content)
@@ -230,14 +232,14 @@ public class AdminUserDataService {
         repoData.put("collaboratorCount", collaborators.size());
 
         // Get ALL files (without content for performance, but with metadata)
-        List<RepositoryFile> files = fileRepository.findByRepositoryIdOrderByFilePathAsc(repo.getId());
+        List<RepositoryFileSummary> files = fileRepository.findSummariesByRepositoryIdOrderByFilePathAsc(repo.getId());
         repoData.put("files", files.stream().map(this::mapFileToDataWithoutContent).collect(Collectors.toList()));
         repoData.put("fileCount", files.size());
 
         // Get file statistics by language
         Map<String, Long> languageStats = files.stream()
             .filter(file -> file.getLanguage() != null && !file.getLanguage().isEmpty())
-            .collect(Collectors.groupingBy(RepositoryFile::getLanguage, Collectors.counting()));
+            .collect(Collectors.groupingBy(RepositoryFileSummary::getLanguage, Collectors.counting()));
         repoData.put("languageStatistics", languageStats);
 
         // Get repository statistics
@@ -258,13 +260,13 @@ public class AdminUserDataService {
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getRepositoryFiles(UUID repositoryId, String branchName) {
-        List<RepositoryFile> files;
+        List<RepositoryFileSummary> files;
 
         if (branchName != null && !branchName.isEmpty()) {
-            files = fileRepository.findByRepositoryIdAndBranchNameOrderByFilePathAsc(repositoryId, branchName);
+            files = fileRepository.findSummariesByRepositoryIdAndBranchNameOrderByFilePathAsc(repositoryId, branchName);
         } else {
             // Get files from default branch
-            files = fileRepository.findByRepositoryIdOrderByFilePathAsc(repositoryId);
+            files = fileRepository.findSummariesByRepositoryIdOrderByFilePathAsc(repositoryId);
         }
 
         return files.stream().map(this::mapFileToDataWithoutContent).collect(Collectors.toList());
@@ -396,7 +398,7 @@ public class AdminUserDataService {
         return data;
     }
     
-    private Map<String, Object> mapFileToDataWithoutContent(RepositoryFile file) {
+    private Map<String, Object> mapFileToDataWithoutContent(RepositoryFileSummary file) {
         Map<String, Object> data = new HashMap<>();
         data.put("id", file.getId());
         data.put("filePath", file.getFilePath());
@@ -414,8 +416,19 @@ public class AdminUserDataService {
     }
 
     private Map<String, Object> mapFileToDataWithContent(RepositoryFile file) {
-        Map<String, Object> data = mapFileToDataWithoutContent(file);
-        data.put("content", file.getContent()); // Include content for viewing
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", file.getId());
+        data.put("filePath", file.getFilePath());
+        data.put("fileName", file.getFileName());
+        data.put("branchName", file.getBranchName());
+        data.put("fileType", file.getFileType());
+        data.put("fileExtension", file.getFileExtension());
+        data.put("fileSize", file.getFileSize());
+        data.put("language", file.getLanguage());
+        data.put("isBinary", file.getIsBinary());
+        data.put("linesCount", file.getLinesCount());
+        data.put("lastModified", file.getLastModified());
+        data.put("content", contentBlobService.resolve(file.getContentHash(), file.getContent())); // Include content for viewing
         return data;
     }
     
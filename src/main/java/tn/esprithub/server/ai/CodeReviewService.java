@@ -3,17 +3,20 @@ package tn.esprithub.server.ai;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import tn.esprithub.server.ai.dto.CodeReviewResult;
+import tn.esprithub.server.common.resilience.DependencyGuards;
 
 @Service
 @RequiredArgsConstructor
@@ -29,8 +32,13 @@ public class CodeReviewService {
     @Value("${app.ai.code-review.test-mode:false}")
     private boolean testMode;
 
+    private static final Duration OPENAI_TIMEOUT = Duration.ofSeconds(60);
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final DependencyGuards dependencyGuards;
+
+    private volatile long openAiRateLimitedUntil;
 
     /**
      * Analyse le code et fournit des suggestions d'amélioration
@@ -127,11 +135,9 @@ public class CodeReviewService {
     }
 
     private String callOpenAI(String prompt) {
-        // Ajouter un délai pour éviter les rate limits
-        try {
-            Thread.sleep(2000); // 2 secondes de délai
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        // Respect the back-off requested by OpenAI on the last 429 instead of a fixed delay
+        if (System.currentTimeMillis() < openAiRateLimitedUntil) {
+            throw new RuntimeException("Rate limit exceeded - please wait a moment and try again");
         }
 
         Map<String, Object> requestBody = new HashMap<>();
@@ -146,7 +152,7 @@ public class CodeReviewService {
         requestBody.put("temperature", 0.3);
         requestBody.put("max_tokens", 2000);
 
-        Map<String, Object> response = webClient.post()
+        Map<String, Object> response = dependencyGuards.openAi().call(() -> webClient.post()
                 .uri("https://api.openai.com/v1/chat/completions")
                 .header("Authorization", "Bearer " + openaiApiKey)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -154,11 +160,14 @@ public class CodeReviewService {
                 .retrieve()
                 .onStatus(status -> status.value() == 429, 
                     error -> {
+                        openAiRateLimitedUntil = System.currentTimeMillis() + retryAfterMillis(error.headers().asHttpHeaders());
                         log.warn("Rate limit exceeded, falling back to test mode");
-                        return Mono.error(new RuntimeException("Rate limit exceeded - please wait a moment and try again"));
+                        return Mono.error(new RateLimitedException());
                     })
                 .bodyToMono(Map.class)
-                .block();
+                .block(OPENAI_TIMEOUT),
+                // Throttling is already backed off via Retry-After; it must not open the breaker
+                RateLimitedException.class::isInstance);
 
         if (response != null && response.containsKey("choices")) {
             @SuppressWarnings("unchecked")
@@ -173,6 +182,24 @@ public class CodeReviewService {
         throw new RuntimeException("Invalid response from OpenAI API");
     }
 
+    /**
+     * OpenAI answered 429
+     */
+    private static class RateLimitedException extends RuntimeException {
+        RateLimitedException() {
+            super("Rate limit exceeded - please wait a moment and try again");
+        }
+    }
+
+    private long retryAfterMillis(HttpHeaders headers) {
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        try {
+            return retryAfter != null ? (long) (Double.parseDouble(retryAfter) * 1000) : 20000L;
+        } catch (NumberFormatException e) {
+            return 20000L;
+        }
+    }
+
     private String buildCodeReviewPrompt(String code, String language, String context) {
         return String.format("""
             Analyze the following %s code and provide a comprehensive code review in JSON format.
@@ -7,11 +7,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import tn.esprithub.server.ai.CodeReviewService;
 import tn.esprithub.server.ai.dto.CodeReviewResult;
-import tn.esprithub.server.notification.CodeReviewNotificationService;
-import tn.esprithub.server.user.entity.User;
-import tn.esprithub.server.user.dto.UserDto;
-import tn.esprithub.server.user.service.UserService;
+import tn.esprithub.server.ai.job.CodeReviewNotificationJobHandler;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -23,8 +23,7 @@ import java.util.UUID;
 public class CodeReviewController {
 
     private final CodeReviewService codeReviewService;
-    private final CodeReviewNotificationService notificationService;
-    private final UserService userService;
+    private final BackgroundJobService jobService;
 
     /**
      * Analyse un bloc de code
@@ -84,41 +83,31 @@ public class CodeReviewController {
     public ResponseEntity<Map<String, Object>> analyzeAndNotify(@RequestBody CodeAnalysisNotificationRequest request) {
         log.info("Code analysis with notification request received");
         
-        // Récupérer les destinataires
-        List<UserDto> userDtos = userService.getUsersByIds(request.getRecipientIds());
-        // Convertir DTOs vers entités (temporaire - à améliorer)
-        List<User> recipients = userDtos.stream()
-            .map(dto -> {
-                User user = new User();
-                user.setId(dto.getId());
-                user.setEmail(dto.getEmail());
-                user.setFirstName(dto.getFirstName());
-                user.setLastName(dto.getLastName());
-                return user;
-            })
-            .toList();
-        
         // Analyser le code
+        long startTime = System.currentTimeMillis();
         CodeReviewResult result = codeReviewService.analyzeCode(
             request.getCode(), 
             request.getLanguage(), 
             request.getContext()
         );
-        
-        // Envoyer la notification
-        notificationService.analyzeAndNotify(
-            request.getCode(),
-            request.getLanguage(),
-            request.getContext(),
-            recipients,
-            request.getRepositoryName(),
-            request.getFileName()
-        );
+        result.setAnalysisTimeMs(System.currentTimeMillis() - startTime);
+        result.setAnalyzedLanguage(request.getLanguage());
+        result.setAnalyzedFile(request.getFileName());
+        
+        // Seul l'envoi de la notification passe par la file de jobs, avec le résultat déjà calculé
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("mode", CodeReviewNotificationJobHandler.MODE_CODE);
+        payload.put("result", result);
+        payload.put("recipientIds", request.getRecipientIds());
+        payload.put("repositoryName", request.getRepositoryName());
+        payload.put("fileName", request.getFileName());
+        UUID jobId = jobService.enqueue(BackgroundJob.JobType.AI_CODE_REVIEW, null, payload, 20);
         
         return ResponseEntity.ok(Map.of(
             "success", true,
-            "message", "Code analysis completed and notification sent",
-            "analysisResult", result
+            "message", "Code analysis completed and notification queued",
+            "analysisResult", result,
+            "notificationJobId", jobId
         ));
     }
 
@@ -130,39 +119,29 @@ public class CodeReviewController {
     public ResponseEntity<Map<String, Object>> analyzeDiffAndNotify(@RequestBody DiffAnalysisNotificationRequest request) {
         log.info("Diff analysis with notification request received");
         
-        // Récupérer les destinataires
-        List<UserDto> userDtos = userService.getUsersByIds(request.getRecipientIds());
-        // Convertir DTOs vers entités (temporaire - à améliorer)
-        List<User> recipients = userDtos.stream()
-            .map(dto -> {
-                User user = new User();
-                user.setId(dto.getId());
-                user.setEmail(dto.getEmail());
-                user.setFirstName(dto.getFirstName());
-                user.setLastName(dto.getLastName());
-                return user;
-            })
-            .toList();
-        
         // Analyser le diff
+        long startTime = System.currentTimeMillis();
         CodeReviewResult result = codeReviewService.analyzeDiff(
             request.getDiff(), 
             request.getLanguage()
         );
-        
-        // Envoyer la notification
-        notificationService.analyzeDiffAndNotify(
-            request.getDiff(),
-            request.getLanguage(),
-            recipients,
-            request.getRepositoryName(),
-            request.getPullRequestTitle()
-        );
+        result.setAnalysisTimeMs(System.currentTimeMillis() - startTime);
+        result.setAnalyzedLanguage(request.getLanguage());
+        
+        // Seul l'envoi de la notification passe par la file de jobs, avec le résultat déjà calculé
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("mode", CodeReviewNotificationJobHandler.MODE_DIFF);
+        payload.put("result", result);
+        payload.put("recipientIds", request.getRecipientIds());
+        payload.put("repositoryName", request.getRepositoryName());
+        payload.put("pullRequestTitle", request.getPullRequestTitle());
+        UUID jobId = jobService.enqueue(BackgroundJob.JobType.AI_CODE_REVIEW, null, payload, 20);
         
         return ResponseEntity.ok(Map.of(
             "success", true,
-            "message", "Diff analysis completed and notification sent",
-            "analysisResult", result
+            "message", "Diff analysis completed and notification queued",
+            "analysisResult", result,
+            "notificationJobId", jobId
         ));
     }
 
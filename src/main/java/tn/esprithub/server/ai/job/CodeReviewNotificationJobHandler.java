@@ -0,0 +1,78 @@
+package tn.esprithub.server.ai.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.ai.dto.CodeReviewResult;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.job.BackgroundJobHandler;
+import tn.esprithub.server.notification.CodeReviewNotificationService;
+import tn.esprithub.server.user.dto.UserDto;
+import tn.esprithub.server.user.entity.User;
+import tn.esprithub.server.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notifies the requested recipients of an AI review of a code block or diff. The review is computed by
+ * the caller and carried in the payload, so a retry only resends the notification.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CodeReviewNotificationJobHandler implements BackgroundJobHandler {
+
+    public static final String MODE_CODE = "code";
+    public static final String MODE_DIFF = "diff";
+
+    private final CodeReviewNotificationService notificationService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public BackgroundJob.JobType getJobType() {
+        return BackgroundJob.JobType.AI_CODE_REVIEW;
+    }
+
+    @Override
+    public void handle(BackgroundJob job, JsonNode payload) {
+        List<UUID> recipientIds = new ArrayList<>();
+        payload.path("recipientIds").forEach(id -> recipientIds.add(UUID.fromString(id.asText())));
+
+        List<User> recipients = userService.getUsersByIds(recipientIds).stream()
+                .map(this::toRecipient)
+                .toList();
+
+        JsonNode result = payload.get("result");
+        if (result == null || result.isNull()) {
+            throw new BusinessException("Code review job " + job.getId() + " has no review result");
+        }
+        CodeReviewResult review = objectMapper.convertValue(result, CodeReviewResult.class);
+        if (MODE_DIFF.equals(payload.path("mode").asText())) {
+            notificationService.notifyDiffReview(review, recipients,
+                    text(payload, "repositoryName"), text(payload, "pullRequestTitle"));
+        } else {
+            notificationService.notifyCodeReview(review, recipients,
+                    text(payload, "repositoryName"), text(payload, "fileName"));
+        }
+    }
+
+    private User toRecipient(UserDto dto) {
+        User user = new User();
+        user.setId(dto.getId());
+        user.setEmail(dto.getEmail());
+        user.setFirstName(dto.getFirstName());
+        user.setLastName(dto.getLastName());
+        return user;
+    }
+
+    private String text(JsonNode payload, String field) {
+        JsonNode value = payload.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
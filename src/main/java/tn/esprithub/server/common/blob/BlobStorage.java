@@ -0,0 +1,21 @@
+package tn.esprithub.server.common.blob;
+
+/**
+ * Backend holding the (possibly compressed) bytes of content blobs, addressed by content hash
+ */
+public interface BlobStorage {
+
+    String getType();
+
+    /**
+     * Store the bytes of a blob; writing a hash that is already stored is harmless
+     */
+    void write(String contentHash, byte[] data);
+
+    /**
+     * @return the stored bytes, or {@code null} when the blob is missing
+     */
+    byte[] read(String contentHash);
+
+    void delete(String contentHash);
+}
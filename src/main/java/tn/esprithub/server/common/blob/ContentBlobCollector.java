@@ -0,0 +1,78 @@
+package tn.esprithub.server.common.blob;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.BlobStoreProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background maintenance of the content blob store: moves inline content of existing rows into the store,
+ * and deletes blobs no row references any more.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContentBlobCollector {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final ContentBlobService contentBlobService;
+    private final BlobStoreProperties properties;
+    private final Set<String> migratedTables = ConcurrentHashMap.newKeySet();
+
+    /**
+     * New rows are written through the store, so once a table has no inline content left it is not scanned again
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void migrateInlineContent() {
+        for (ContentBlobService.ContentReference reference : ContentBlobService.REFERENCES) {
+            if (migratedTables.contains(reference.table())) {
+                continue;
+            }
+            try {
+                int migrated = contentBlobService.migrateInlineContent(reference);
+                if (migrated == 0) {
+                    migratedTables.add(reference.table());
+                    log.info("✅ All inline content of {} moved to the blob store", reference.table());
+                } else {
+                    log.debug("📦 Moved {} inline contents of {} to the blob store", migrated, reference.table());
+                }
+            } catch (Exception e) {
+                log.warn("Could not migrate inline content of {}: {}", reference.table(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recount references and delete unreferenced blobs, daily at 3:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void collectGarbage() {
+        try {
+            int recounted = contentBlobService.recountReferences();
+            LocalDateTime unusedSince = LocalDateTime.now().minus(Duration.ofMillis(properties.getGcGracePeriod()));
+
+            int deleted = 0;
+            List<String> candidates;
+            do {
+                candidates = contentBlobService.findCollectable(unusedSince, DELETE_BATCH_SIZE);
+                for (String contentHash : candidates) {
+                    if (contentBlobService.deleteIfUnreferenced(contentHash, unusedSince)) {
+                        deleted++;
+                    }
+                }
+            } while (candidates.size() == DELETE_BATCH_SIZE);
+
+            log.info("🧹 Content blob collection done: {} reference counts updated, {} blobs deleted", recounted, deleted);
+        } catch (Exception e) {
+            log.error("Content blob collection failed", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package tn.esprithub.server.common.blob;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.BlobStoreProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for file contents shared by repository files, submission files and code versions.
+ * Content is keyed by the SHA-256 of its UTF-8 bytes, deflate-compressed with a source code dictionary when
+ * that saves space, and written once no matter how many rows reference it. Content is only decompressed by
+ * {@link #load(String)}, i.e. on an explicit content read. Entities keep only the {@code content_hash}; unreferenced blobs
+ * are removed by {@link ContentBlobCollector}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentBlobService {
+
+    /**
+     * Tables whose rows point into the store, with their legacy inline content column
+     */
+    static final List<ContentReference> REFERENCES = List.of(
+            new ContentReference("repository_files", "content"),
+            new ContentReference("submission_files", "content"),
+            new ContentReference("code_versions", "file_content"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStorage storage;
+    private final BlobStoreProperties properties;
+
+    /**
+     * Store content and return its hash. Storing content that is already present only marks the blob
+     * as recently used, which keeps it away from the garbage collector.
+     */
+    @Transactional
+    public String store(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String contentHash = hash(bytes);
+        byte[] compressed = deflate(bytes);
+        boolean useCompressed = compressed.length < bytes.length;
+        byte[] stored = useCompressed ? compressed : bytes;
+
+        LocalDateTime now = LocalDateTime.now();
+        // The row lock taken here also serializes against a concurrent collection of the same blob
+        Boolean inserted = jdbcTemplate.queryForObject(
+                "INSERT INTO content_blobs (id, created_at, updated_at, content_hash, size, stored_size, compressed, storage, ref_count) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0) "
+                        + "ON CONFLICT (content_hash) DO UPDATE SET updated_at = EXCLUDED.updated_at RETURNING (xmax = 0)",
+                Boolean.class,
+                UUID.randomUUID(), now, now, contentHash, (long) bytes.length, (long) stored.length, useCompressed, storage.getType());
+        if (Boolean.TRUE.equals(inserted)) {
+            storage.write(contentHash, stored);
+        }
+        return contentHash;
+    }
+
+    /**
+     * @return the content of a blob, or {@code null} when it is unknown or its bytes are missing
+     */
+    @Transactional(readOnly = true)
+    public String load(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        List<Boolean> compressed = jdbcTemplate.queryForList(
+                "SELECT compressed FROM content_blobs WHERE content_hash = ?", Boolean.class, contentHash);
+        byte[] stored = compressed.isEmpty() ? null : storage.read(contentHash);
+        if (stored == null) {
+            log.warn("Content blob {} is missing", contentHash);
+            return null;
+        }
+        byte[] bytes = Boolean.TRUE.equals(compressed.get(0)) ? inflate(stored) : stored;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Content of an entity that points into the store, falling back to the inline column of rows not yet migrated
+     */
+    public String resolve(String contentHash, String inlineContent) {
+        return contentHash != null ? load(contentHash) : inlineContent;
+    }
+
+    /**
+     * Move one batch of inline content of {@code reference} into the store
+     *
+     * @return the number of rows migrated
+     */
+    @Transactional
+    public int migrateInlineContent(ContentReference reference) {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT id, " + reference.contentColumn() + " FROM " + reference.table()
+                        + " WHERE " + reference.contentColumn() + " IS NOT NULL AND content_hash IS NULL LIMIT ?",
+                (rs, rowNum) -> new Object[]{rs.getObject("id", UUID.class), rs.getString(reference.contentColumn())},
+                Math.max(1, properties.getMigrationBatchSize()));
+        for (Object[] row : rows) {
+            jdbcTemplate.update("UPDATE " + reference.table() + " SET content_hash = ?, " + reference.contentColumn()
+                    + " = NULL WHERE id = ?", store((String) row[1]), row[0]);
+        }
+        return rows.size();
+    }
+
+    /**
+     * Recount the references of every blob from the referencing tables; only changed counts are written
+     */
+    @Transactional
+    public int recountReferences() {
+        StringBuilder references = new StringBuilder();
+        for (ContentReference reference : REFERENCES) {
+            references.append(references.isEmpty() ? "" : " UNION ALL ")
+                    .append("SELECT content_hash FROM ").append(reference.table()).append(" WHERE content_hash IS NOT NULL");
+        }
+        return jdbcTemplate.update("UPDATE content_blobs b SET ref_count = COALESCE(r.refs, 0) "
+                + "FROM content_blobs b2 LEFT JOIN (SELECT content_hash, COUNT(*) AS refs FROM (" + references + ") refs "
+                + "GROUP BY content_hash) r ON r.content_hash = b2.content_hash "
+                + "WHERE b2.id = b.id AND b.ref_count <> COALESCE(r.refs, 0)");
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findCollectable(LocalDateTime unusedSince, int limit) {
+        return jdbcTemplate.queryForList("SELECT content_hash FROM content_blobs WHERE ref_count = 0 AND updated_at < ? LIMIT ?",
+                String.class, unusedSince, limit);
+    }
+
+    /**
+     * Delete a blob that is still unreferenced and has not been stored again since {@code unusedSince}
+     */
+    @Transactional
+    public boolean deleteIfUnreferenced(String contentHash, LocalDateTime unusedSince) {
+        int deleted = jdbcTemplate.update("DELETE FROM content_blobs WHERE content_hash = ? AND ref_count = 0 AND updated_at < ?",
+                contentHash, unusedSince);
+        if (deleted > 0) {
+            storage.delete(contentHash);
+        }
+        return deleted > 0;
+    }
+
+    private String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(properties.getCompressionLevel());
+        try {
+            deflater.setDictionary(SourceCodeDictionary.V1);
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsDictionary()) {
+                    // Blobs stored without a dictionary never get here
+                    byte[] dictionary = SourceCodeDictionary.forAdler(inflater.getAdler());
+                    if (dictionary == null) {
+                        throw new BusinessException("Content blob needs an unknown dictionary");
+                    }
+                    inflater.setDictionary(dictionary);
+                    continue;
+                }
+                if (count == 0 && inflater.needsInput()) {
+                    throw new BusinessException("Truncated content blob");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new BusinessException("Corrupted content blob: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * A table holding {@code content_hash} references, and its former inline content column
+     */
+    public record ContentReference(String table, String contentColumn) {
+    }
+}
@@ -0,0 +1,42 @@
+package tn.esprithub.server.common.blob;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps blob bytes in the content_blob_data table
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.blobs", name = "storage", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseBlobStorage implements BlobStorage {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getType() {
+        return "DATABASE";
+    }
+
+    @Override
+    public void write(String contentHash, byte[] data) {
+        jdbcTemplate.update("INSERT INTO content_blob_data (content_hash, data) VALUES (?, ?) "
+                + "ON CONFLICT (content_hash) DO UPDATE SET data = EXCLUDED.data", contentHash, data);
+    }
+
+    @Override
+    public byte[] read(String contentHash) {
+        List<byte[]> rows = jdbcTemplate.query("SELECT data FROM content_blob_data WHERE content_hash = ?",
+                (rs, rowNum) -> rs.getBytes("data"), contentHash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public void delete(String contentHash) {
+        jdbcTemplate.update("DELETE FROM content_blob_data WHERE content_hash = ?", contentHash);
+    }
+}
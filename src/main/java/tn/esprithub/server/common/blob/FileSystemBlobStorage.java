@@ -0,0 +1,77 @@
+package tn.esprithub.server.common.blob;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.BlobStoreProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps blob bytes as files under a local directory, fanned out by the first two hash characters
+ * (e.g. {@code ab/ab3f...}). Files are written to a temporary name and moved in place, so readers
+ * never see a partial blob.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.blobs", name = "storage", havingValue = "filesystem")
+@Slf4j
+public class FileSystemBlobStorage implements BlobStorage {
+
+    private final Path root;
+
+    public FileSystemBlobStorage(BlobStoreProperties properties) {
+        this.root = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        log.info("Content blobs stored under {}", root);
+    }
+
+    @Override
+    public String getType() {
+        return "FILESYSTEM";
+    }
+
+    @Override
+    public void write(String contentHash, byte[] data) {
+        Path target = pathOf(contentHash);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), contentHash, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new BusinessException("Could not write blob " + contentHash + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] read(String contentHash) {
+        try {
+            return Files.readAllBytes(pathOf(contentHash));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new BusinessException("Could not read blob " + contentHash + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void delete(String contentHash) {
+        try {
+            Files.deleteIfExists(pathOf(contentHash));
+        } catch (IOException e) {
+            log.warn("Could not delete blob {}: {}", contentHash, e.getMessage());
+        }
+    }
+
+    private Path pathOf(String contentHash) {
+        if (!contentHash.matches("[0-9a-f]{64}")) {
+            throw new BusinessException("Invalid blob hash: " + contentHash);
+        }
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+}
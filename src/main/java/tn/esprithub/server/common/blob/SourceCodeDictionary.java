@@ -0,0 +1,73 @@
+package tn.esprithub.server.common.blob;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Adler32;
+
+/**
+ * Preset deflate dictionary of tokens frequent in student projects (Java/Spring, TypeScript/Angular,
+ * JavaScript, Python, HTML/CSS, JSON, XML and Markdown). Small files barely compress on their own;
+ * seeding the window with these strings lets even a short class or component reference them.
+ * Deflate favours close matches, so the most common strings come last.
+ * <p>
+ * Compressed streams carry the Adler-32 of the dictionary they need, so the text below must never change:
+ * add a new dictionary instead and keep this one for reading.
+ */
+final class SourceCodeDictionary {
+
+    static final byte[] V1 = String.join("",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project xmlns=\"http://maven.apache.org/POM/4.0.0\"\n",
+            "<modelVersion>4.0.0</modelVersion>\n<dependencies>\n<dependency>\n<groupId>org.springframework.boot</groupId>\n",
+            "<artifactId>spring-boot-starter-</artifactId>\n<version></version>\n<scope>test</scope>\n</dependency>\n",
+            "<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n",
+            "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n<title></title>\n",
+            "<link rel=\"stylesheet\" href=\"\n<script src=\"\"></script>\n</head>\n<body>\n</body>\n</html>\n",
+            "<div class=\"container\">\n<div class=\"row\">\n<button type=\"submit\" class=\"btn btn-primary\" (click)=\"\n",
+            "<input type=\"text\" [(ngModel)]=\"\n*ngIf=\"\n*ngFor=\"let item of \n</div>\n<span></span>\n<p></p>\n",
+            "display: flex;\njustify-content: center;\nalign-items: center;\nmargin: 0;\npadding: 0;\n",
+            "background-color: #fff;\ncolor: #333;\nfont-size: 14px;\nborder-radius: 4px;\nwidth: 100%;\n",
+            "# Getting Started\n## Installation\n```bash\nnpm install\nnpm start\n```\n",
+            "\"name\": \"\n\"version\": \"\n\"scripts\": {\n\"dependencies\": {\n\"devDependencies\": {\n",
+            "def __init__(self, \nif __name__ == \"__main__\":\n    return \nimport numpy as np\nimport pandas as pd\n",
+            "from typing import List\nself.\nelif \nprint(f\"\nraise ValueError(\n",
+            "import { Component, OnInit } from '@angular/core';\nimport { Injectable } from '@angular/core';\n",
+            "import { HttpClient } from '@angular/common/http';\nimport { Observable } from 'rxjs';\n",
+            "@Component({\n  selector: 'app-\n  templateUrl: './\n  styleUrls: ['./\n})\n",
+            "@Injectable({\n  providedIn: 'root'\n})\n",
+            "export class \nexport default \nexport interface \nconstructor(private \nngOnInit(): void {\n",
+            "subscribe(\n.pipe(\nthis.http.get<\nconst \nlet \n=> {\nasync \nawait \nfunction \nrequire('\nmodule.exports = \n",
+            "console.log(\ndocument.getElementById(\naddEventListener('click', \nundefined\n=== \n!== \n",
+            "package \nimport java.util.List;\nimport java.util.ArrayList;\nimport java.util.Map;\nimport java.util.Optional;\n",
+            "import org.springframework.beans.factory.annotation.Autowired;\nimport org.springframework.stereotype.Service;\n",
+            "import org.springframework.web.bind.annotation.*;\nimport org.springframework.http.ResponseEntity;\n",
+            "import org.springframework.data.jpa.repository.JpaRepository;\nimport jakarta.persistence.*;\nimport lombok.\n",
+            "@RestController\n@RequestMapping(\"/api/\n@GetMapping(\"/{id}\")\n@PostMapping\n@PutMapping\n@DeleteMapping\n",
+            "@PathVariable \n@RequestBody \n@Service\n@Repository\n@Entity\n@Table(name = \"\n@Id\n",
+            "@GeneratedValue(strategy = GenerationType.IDENTITY)\n@Column(name = \"\n@ManyToOne\n@OneToMany(mappedBy = \"\n",
+            "@Data\n@NoArgsConstructor\n@AllArgsConstructor\n@Autowired\nprivate \n@Override\n",
+            "public static void main(String[] args) {\nSystem.out.println(\n",
+            "throw new IllegalArgumentException(\n} catch (Exception e) {\ne.printStackTrace();\n",
+            "try {\nfinally {\nnew ArrayList<>();\nnew HashMap<>();\n.stream()\n.map(\n.filter(\n.collect(Collectors.toList());\n",
+            "public class \npublic interface \npublic enum \nextends \nimplements \nprotected \nfinal \nstatic \n",
+            "return null;\nreturn true;\nreturn false;\nString \nint \nboolean \nLong \nInteger \nvoid \n",
+            "public \nprivate \nreturn \nthis.\nimport \nfor (int i = 0; i < \n.length; i++) {\n",
+            "if (\n} else {\nwhile (\nnull\ntrue\nfalse\nnew \n\n    }\n}\n")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final long V1_ADLER = adler32(V1);
+
+    private SourceCodeDictionary() {
+    }
+
+    /**
+     * @return the dictionary a compressed stream asks for, or {@code null} when unknown
+     */
+    static byte[] forAdler(long adler) {
+        return adler == V1_ADLER ? V1 : null;
+    }
+
+    private static long adler32(byte[] bytes) {
+        Adler32 adler = new Adler32();
+        adler.update(bytes);
+        return adler.getValue();
+    }
+}
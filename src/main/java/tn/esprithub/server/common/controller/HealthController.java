@@ -1,6 +1,7 @@
 package tn.esprithub.server.common.controller;
 
 import lombok.RequiredArgsConstructor;
+import tn.esprithub.server.common.resilience.DependencyGuards;
 import tn.esprithub.server.user.repository.UserRepository;
 
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ import java.util.Map;
 public class HealthController {
 
     private final UserRepository userRepository;
+    private final DependencyGuards dependencyGuards;
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
@@ -28,4 +30,12 @@ public class HealthController {
                 "userCount", userRepository.count()
         ));
     }
+
+    /**
+     * Circuit breaker state (CLOSED / OPEN / HALF_OPEN) and bulkhead usage per external dependency
+     */
+    @GetMapping("/health/dependencies")
+    public ResponseEntity<Map<String, Object>> dependencies() {
+        return ResponseEntity.ok(dependencyGuards.getStats());
+    }
 }
@@ -0,0 +1,87 @@
+package tn.esprithub.server.common.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable unit of background work, shared by every application node through PostgreSQL.
+ * Pending jobs are leased with {@code FOR UPDATE SKIP LOCKED}; at most one job per dedup key
+ * is pending or running at any time (see {@code BackgroundJobService}).
+ */
+@Entity
+@Table(name = "background_jobs",
+       indexes = {
+           @Index(name = "idx_background_jobs_poll", columnList = "status, priority, run_at"),
+           @Index(name = "idx_background_jobs_dedup_key", columnList = "dedup_key")
+       })
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundJob extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 50)
+    private JobType jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private JobStatus status = JobStatus.PENDING;
+
+    @Column(name = "priority", nullable = false)
+    @Builder.Default
+    private Integer priority = 0; // Higher runs first
+
+    @Column(name = "dedup_key", length = 255)
+    private String dedupKey;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "max_attempts", nullable = false)
+    private Integer maxAttempts;
+
+    @Column(name = "run_at", nullable = false)
+    private LocalDateTime runAt; // Not leased before this time (retry backoff)
+
+    @Column(name = "locked_by", length = 255)
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "progress", length = 500)
+    private String progress;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    public enum JobType {
+        REPOSITORY_SYNC_ALL,
+        REPOSITORY_SYNC,
+        WEBHOOK_SUBSCRIPTION,
+        AI_CODE_REVIEW
+    }
+
+    public enum JobStatus {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
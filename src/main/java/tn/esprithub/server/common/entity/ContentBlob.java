@@ -0,0 +1,41 @@
+package tn.esprithub.server.common.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Metadata of one stored content blob, keyed by the SHA-256 of its UTF-8 bytes.
+ * The bytes themselves live in the configured {@code BlobStorage}; identical content
+ * referenced from several files, submissions or versions is stored once.
+ */
+@Entity
+@Table(name = "content_blobs",
+       indexes = @Index(name = "idx_content_blobs_gc", columnList = "ref_count, updated_at"))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlob extends BaseEntity {
+
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(name = "size", nullable = false)
+    private Long size; // Uncompressed bytes
+
+    @Column(name = "stored_size", nullable = false)
+    private Long storedSize;
+
+    @Column(name = "compressed", nullable = false)
+    @Builder.Default
+    private Boolean compressed = false;
+
+    @Column(name = "storage", nullable = false, length = 20)
+    private String storage;
+
+    @Column(name = "ref_count", nullable = false)
+    @Builder.Default
+    private Integer refCount = 0; // Recounted by the garbage collector
+}
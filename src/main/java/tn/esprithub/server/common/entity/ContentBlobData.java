@@ -0,0 +1,25 @@
+package tn.esprithub.server.common.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bytes of a content blob when the database storage is used. Kept apart from
+ * {@link ContentBlob} so metadata queries never read blob bytes.
+ */
+@Entity
+@Table(name = "content_blob_data")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlobData {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+}
@@ -0,0 +1,13 @@
+package tn.esprithub.server.common.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when an external dependency (GitHub, OpenAI) is short-circuited or its bulkhead is full.
+ */
+public class DependencyUnavailableException extends BusinessException {
+
+    public DependencyUnavailableException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE, "DEPENDENCY_UNAVAILABLE");
+    }
+}
@@ -0,0 +1,14 @@
+package tn.esprithub.server.common.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import tn.esprithub.server.common.entity.BackgroundJob;
+
+/**
+ * Runs the jobs of one {@link BackgroundJob.JobType}. Throwing makes the job retry with backoff.
+ */
+public interface BackgroundJobHandler {
+
+    BackgroundJob.JobType getJobType();
+
+    void handle(BackgroundJob job, JsonNode payload);
+}
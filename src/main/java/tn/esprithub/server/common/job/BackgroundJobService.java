@@ -0,0 +1,298 @@
+package tn.esprithub.server.common.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.repository.BackgroundJobRepository;
+import tn.esprithub.server.config.properties.JobQueueProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PostgreSQL-backed job queue shared by all application nodes.
+ * Jobs are leased with {@code FOR UPDATE SKIP LOCKED} so concurrent pollers never pick the same row,
+ * failed jobs are retried with exponential backoff, and a dedup key keeps at most one pending or
+ * running job per unit of work (e.g. per repository).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BackgroundJobService {
+
+    private static final List<BackgroundJob.JobStatus> ACTIVE_STATUSES =
+            List.of(BackgroundJob.JobStatus.PENDING, BackgroundJob.JobStatus.RUNNING);
+
+    private final BackgroundJobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final JobQueueProperties properties;
+
+    /**
+     * Partial unique index backing the dedup key; not expressible through JPA annotations.
+     * Created while the bean initializes (the schema is updated before, as this bean needs the JPA
+     * repository), so it exists before any scheduled task can enqueue; {@link #enqueue} cannot work
+     * without it, hence startup fails when it cannot be created.
+     */
+    @PostConstruct
+    public void createDedupIndex() {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_background_jobs_active_dedup "
+                    + "ON background_jobs (dedup_key) WHERE status IN ('PENDING', 'RUNNING')");
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create background job dedup index", e);
+        }
+    }
+
+    /**
+     * Queue a job. When a job with the same dedup key is already pending or running,
+     * nothing is queued and the existing job's id is returned.
+     */
+    @Transactional
+    public UUID enqueue(BackgroundJob.JobType jobType, String dedupKey, Map<String, Object> payload, int priority) {
+        List<UUID> inserted = insert(jobType, dedupKey, payload, priority, LocalDateTime.now());
+        if (!inserted.isEmpty()) {
+            log.debug("📥 Queued {} job {} (key: {})", jobType, inserted.get(0), dedupKey);
+            return inserted.get(0);
+        }
+        log.debug("⏭️ {} job already queued for key: {}", jobType, dedupKey);
+        return jobRepository.findFirstByDedupKeyAndStatusIn(dedupKey, ACTIVE_STATUSES)
+                .map(BackgroundJob::getId)
+                .orElse(null);
+    }
+
+    /**
+     * Queue a job that is not leased before {@code delay} has passed, typically a fallback cancelled
+     * with {@link #cancelPending} once the work was done another way
+     *
+     * @return the id of the new job, or {@code null} when a job with the same dedup key is already pending or running
+     */
+    @Transactional
+    public UUID enqueueDeferred(BackgroundJob.JobType jobType, String dedupKey, Map<String, Object> payload, int priority,
+                                Duration delay) {
+        List<UUID> inserted = insert(jobType, dedupKey, payload, priority, LocalDateTime.now().plus(delay));
+        return inserted.isEmpty() ? null : inserted.get(0);
+    }
+
+    /**
+     * Drop a job that has not been leased yet
+     *
+     * @return false when it is running, finished or gone
+     */
+    @Transactional
+    public boolean cancelPending(UUID jobId) {
+        return jdbcTemplate.update("DELETE FROM background_jobs WHERE id = ? AND status = 'PENDING'", jobId) == 1;
+    }
+
+    /**
+     * Lease up to {@code limit} due jobs for {@code workerId}, highest priority first
+     */
+    @Transactional
+    public List<BackgroundJob> lease(String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> ids = jdbcTemplate.queryForList(
+                "UPDATE background_jobs SET status = 'RUNNING', locked_by = ?, locked_until = ?, started_at = ?, "
+                        + "updated_at = ?, attempts = attempts + 1 "
+                        + "WHERE id IN (SELECT id FROM background_jobs WHERE status = 'PENDING' AND run_at <= ? "
+                        + "ORDER BY priority DESC, run_at LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id",
+                UUID.class,
+                workerId, now.plus(Duration.ofMillis(properties.getLeaseDuration())), now, now, now, limit);
+        return ids.isEmpty() ? List.of() : jobRepository.findAllById(ids);
+    }
+
+    /**
+     * Extend the lease of jobs still running on {@code workerId}
+     */
+    @Transactional
+    public void renewLeases(String workerId, Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime lockedUntil = LocalDateTime.now().plus(Duration.ofMillis(properties.getLeaseDuration()));
+        for (UUID jobId : jobIds) {
+            jdbcTemplate.update("UPDATE background_jobs SET locked_until = ? WHERE id = ? AND locked_by = ? AND status = 'RUNNING'",
+                    lockedUntil, jobId, workerId);
+        }
+    }
+
+    /**
+     * Put back jobs whose lease ran out (their node died or lost the database) so another node picks them up
+     */
+    @Transactional
+    public int reclaimExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        int reclaimed = jdbcTemplate.update(
+                "UPDATE background_jobs SET status = CASE WHEN attempts >= max_attempts THEN 'FAILED' ELSE 'PENDING' END, "
+                        + "finished_at = CASE WHEN attempts >= max_attempts THEN ? ELSE NULL END, "
+                        + "last_error = 'Lease expired on ' || locked_by, locked_by = NULL, locked_until = NULL, updated_at = ? "
+                        + "WHERE status = 'RUNNING' AND locked_until < ?",
+                now, now, now);
+        if (reclaimed > 0) {
+            log.warn("♻️ Reclaimed {} background jobs with an expired lease", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Hand the jobs of a stopping node back to the queue without waiting for their lease to expire
+     */
+    @Transactional
+    public void releaseLeases(String workerId) {
+        jdbcTemplate.update("UPDATE background_jobs SET status = 'PENDING', locked_by = NULL, locked_until = NULL, "
+                + "updated_at = ? WHERE status = 'RUNNING' AND locked_by = ?", LocalDateTime.now(), workerId);
+    }
+
+    @Transactional
+    public void complete(UUID jobId, String workerId) {
+        jobRepository.findById(jobId)
+                .filter(job -> workerId.equals(job.getLockedBy()))
+                .ifPresent(job -> {
+                    job.setStatus(BackgroundJob.JobStatus.SUCCEEDED);
+                    job.setFinishedAt(LocalDateTime.now());
+                    job.setLockedBy(null);
+                    job.setLockedUntil(null);
+                    job.setLastError(null);
+                    jobRepository.save(job);
+                });
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or mark the job FAILED once its attempts are used up
+     */
+    @Transactional
+    public void fail(UUID jobId, String workerId, Exception error) {
+        jobRepository.findById(jobId)
+                .filter(job -> workerId.equals(job.getLockedBy()))
+                .ifPresent(job -> {
+                    job.setLockedBy(null);
+                    job.setLockedUntil(null);
+                    job.setLastError(truncate(error.getClass().getSimpleName() + ": " + error.getMessage(), 2000));
+
+                    if (job.getAttempts() >= job.getMaxAttempts()) {
+                        job.setStatus(BackgroundJob.JobStatus.FAILED);
+                        job.setFinishedAt(LocalDateTime.now());
+                        log.error("❌ {} job {} failed after {} attempts: {}", job.getJobType(), jobId, job.getAttempts(), error.getMessage());
+                    } else {
+                        long backoff = Math.min(properties.getMaxRetryBackoff(),
+                                properties.getRetryBackoff() << Math.min(job.getAttempts() - 1, 20));
+                        job.setStatus(BackgroundJob.JobStatus.PENDING);
+                        job.setRunAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+                        log.warn("🔁 {} job {} failed (attempt {}/{}), retrying in {}s: {}", job.getJobType(), jobId,
+                                job.getAttempts(), job.getMaxAttempts(), backoff / 1000, error.getMessage());
+                    }
+                    jobRepository.save(job);
+                });
+    }
+
+    /**
+     * Record a human-readable progress line on a running job
+     */
+    @Transactional
+    public void updateProgress(UUID jobId, String progress) {
+        jdbcTemplate.update("UPDATE background_jobs SET progress = ?, updated_at = ? WHERE id = ?",
+                truncate(progress, 500), LocalDateTime.now(), jobId);
+    }
+
+    /**
+     * Queue a FAILED job again with a fresh set of attempts
+     */
+    @Transactional
+    public BackgroundJob retry(UUID jobId) {
+        BackgroundJob job = getJob(jobId);
+        if (job.getStatus() != BackgroundJob.JobStatus.FAILED) {
+            throw new BusinessException("Only failed jobs can be retried");
+        }
+        job.setStatus(BackgroundJob.JobStatus.PENDING);
+        job.setAttempts(0);
+        job.setRunAt(LocalDateTime.now());
+        job.setFinishedAt(null);
+        try {
+            return jobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("Another job with the same key is already queued");
+        }
+    }
+
+    @Transactional
+    public int deleteFinishedJobs() {
+        return jobRepository.deleteFinishedBefore(
+                List.of(BackgroundJob.JobStatus.SUCCEEDED, BackgroundJob.JobStatus.FAILED),
+                LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    @Transactional(readOnly = true)
+    public BackgroundJob getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new BusinessException("Job not found: " + jobId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BackgroundJob> getRecentJobs(BackgroundJob.JobType jobType) {
+        return jobRepository.findTop20ByJobTypeOrderByCreatedAtDesc(jobType);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BackgroundJob> getFailedJobs() {
+        return jobRepository.findTop50ByStatusOrderByUpdatedAtDesc(BackgroundJob.JobStatus.FAILED);
+    }
+
+    /**
+     * Job counts per type and status
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Object[] row : jobRepository.countByTypeAndStatus()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> byStatus = (Map<String, Object>) stats.computeIfAbsent(row[0].toString(), type -> new HashMap<>());
+            byStatus.put(row[1].toString(), row[2]);
+        }
+        return stats;
+    }
+
+    public JsonNode readPayload(BackgroundJob job) {
+        try {
+            return objectMapper.readTree(job.getPayload() != null ? job.getPayload() : "{}");
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Invalid payload for job " + job.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private List<UUID> insert(BackgroundJob.JobType jobType, String dedupKey, Map<String, Object> payload, int priority,
+                              LocalDateTime runAt) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.queryForList(
+                "INSERT INTO background_jobs (id, created_at, updated_at, job_type, status, priority, dedup_key, payload, "
+                        + "attempts, max_attempts, run_at) VALUES (?, ?, ?, ?, 'PENDING', ?, ?, ?, 0, ?, ?) "
+                        + "ON CONFLICT (dedup_key) WHERE status IN ('PENDING', 'RUNNING') DO NOTHING RETURNING id",
+                UUID.class,
+                UUID.randomUUID(), now, now, jobType.name(), priority, dedupKey, writePayload(payload),
+                properties.getMaxAttempts(), runAt);
+    }
+
+    private String writePayload(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload != null ? payload : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Could not serialize job payload: " + e.getMessage());
+        }
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
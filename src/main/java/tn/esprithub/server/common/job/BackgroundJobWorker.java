@@ -0,0 +1,139 @@
+package tn.esprithub.server.common.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.JobQueueProperties;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the job table and runs leased jobs on a local pool. Every node runs one worker; leases of
+ * running jobs are renewed on the worker's own thread, four times per lease, so a slow scheduled task
+ * cannot let them expire while a crashed node's jobs still come back after one lease.
+ */
+@Component
+@Slf4j
+public class BackgroundJobWorker {
+
+    private final BackgroundJobService jobService;
+    private final JobQueueProperties properties;
+    private final Map<BackgroundJob.JobType, BackgroundJobHandler> handlers = new EnumMap<>(BackgroundJob.JobType.class);
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService leaseRenewer;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName(); // pid@hostname
+
+    public BackgroundJobWorker(BackgroundJobService jobService, JobQueueProperties properties, List<BackgroundJobHandler> jobHandlers) {
+        this.jobService = jobService;
+        this.properties = properties;
+        jobHandlers.forEach(handler -> handlers.put(handler.getJobType(), handler));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getWorkerThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewInterval = Math.max(1000, properties.getLeaseDuration() / 4);
+        leaseRenewer.scheduleWithFixedDelay(this::renewLeases, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+        log.info("Background job worker {} ready for {}", workerId, handlers.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval:2000}")
+    public void poll() {
+        if (!properties.isWorkerEnabled()) {
+            return;
+        }
+        try {
+            jobService.reclaimExpiredLeases();
+
+            int freeSlots = Math.max(1, properties.getWorkerThreads()) - runningJobs.size();
+            if (freeSlots <= 0) {
+                return;
+            }
+            for (BackgroundJob job : jobService.lease(workerId, freeSlots)) {
+                runningJobs.add(job.getId());
+                executor.execute(() -> run(job));
+            }
+        } catch (Exception e) {
+            log.warn("Background job poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void renewLeases() {
+        try {
+            jobService.renewLeases(workerId, Set.copyOf(runningJobs));
+        } catch (Exception e) {
+            log.warn("Background job lease renewal failed: {}", e.getMessage());
+        }
+    }
+
+    private void run(BackgroundJob job) {
+        try {
+            BackgroundJobHandler handler = handlers.get(job.getJobType());
+            if (handler == null) {
+                throw new BusinessException("No handler for job type " + job.getJobType());
+            }
+            log.debug("▶️ Running {} job {} (attempt {})", job.getJobType(), job.getId(), job.getAttempts());
+            handler.handle(job, jobService.readPayload(job));
+            jobService.complete(job.getId(), workerId);
+        } catch (Exception e) {
+            jobService.fail(job.getId(), workerId, e);
+        } finally {
+            runningJobs.remove(job.getId());
+        }
+    }
+
+    /**
+     * Purge finished jobs past their retention, daily at 3 AM
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void purgeFinishedJobs() {
+        int deleted = jobService.deleteFinishedJobs();
+        if (deleted > 0) {
+            log.info("🧹 Purged {} finished background jobs", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (!runningJobs.isEmpty()) {
+            try {
+                jobService.releaseLeases(workerId);
+            } catch (Exception e) {
+                log.warn("Could not release background job leases: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package tn.esprithub.server.common.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprithub.server.common.entity.BackgroundJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, UUID> {
+
+    Optional<BackgroundJob> findFirstByDedupKeyAndStatusIn(String dedupKey, List<BackgroundJob.JobStatus> statuses);
+
+    List<BackgroundJob> findTop50ByStatusOrderByUpdatedAtDesc(BackgroundJob.JobStatus status);
+
+    List<BackgroundJob> findTop20ByJobTypeOrderByCreatedAtDesc(BackgroundJob.JobType jobType);
+
+    @Query("SELECT j.jobType, j.status, COUNT(j) FROM BackgroundJob j GROUP BY j.jobType, j.status")
+    List<Object[]> countByTypeAndStatus();
+
+    @Modifying
+    @Query("DELETE FROM BackgroundJob j WHERE j.status IN :statuses AND j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("statuses") List<BackgroundJob.JobStatus> statuses, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,211 @@
+package tn.esprithub.server.common.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import tn.esprithub.server.common.exception.DependencyUnavailableException;
+import tn.esprithub.server.config.properties.ResilienceProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead plus count-based circuit breaker for one external dependency.
+ * The bulkhead bounds how many request threads can be blocked on the dependency at once;
+ * the breaker opens once the failure rate over the last calls crosses the threshold, fails fast
+ * while open, and lets a few trial calls through (half-open) after the open duration.
+ */
+@Slf4j
+public class DependencyGuard {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final ResilienceProperties.Dependency config;
+    private final Semaphore bulkhead;
+
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+
+    private final LongAdder rejectedByBreaker = new LongAdder();
+    private final LongAdder rejectedByBulkhead = new LongAdder();
+
+    public DependencyGuard(String name, ResilienceProperties.Dependency config) {
+        this.name = name;
+        this.config = config;
+        this.bulkhead = new Semaphore(config.getMaxConcurrentCalls());
+        this.outcomes = new boolean[config.getSlidingWindowSize()];
+    }
+
+    /**
+     * Run the call through the bulkhead and breaker; any exception counts as a failure.
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, e -> false);
+    }
+
+    /**
+     * Same as {@link #call(Supplier)}, except that exceptions matching {@code neutral} (e.g. a rate-limit
+     * answer, which says nothing about the dependency's health) are neither a success nor a failure.
+     */
+    public <T> T call(Supplier<T> call, Predicate<RuntimeException> neutral) {
+        acquire();
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (neutral.test(e)) {
+                onNeutral();
+            } else {
+                onFailure();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Take a permit; every successful acquire must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onNeutral()}.
+     */
+    public void acquire() {
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < config.getOpenDuration()) {
+                    rejectedByBreaker.increment();
+                    throw new DependencyUnavailableException(name + " is temporarily unavailable - please try again later");
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= config.getHalfOpenCalls()) {
+                    rejectedByBreaker.increment();
+                    throw new DependencyUnavailableException(name + " is recovering - please try again shortly");
+                }
+                halfOpenInFlight++;
+            }
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(config.getMaxWaitTime(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            synchronized (this) {
+                if (state == State.HALF_OPEN) {
+                    halfOpenInFlight--;
+                }
+            }
+            rejectedByBulkhead.increment();
+            throw new DependencyUnavailableException(name + " is overloaded - please try again later");
+        }
+    }
+
+    public void onSuccess() {
+        bulkhead.release();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+                transitionTo(State.CLOSED);
+                return;
+            }
+            record(false);
+        }
+    }
+
+    public void onFailure() {
+        bulkhead.release();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+                transitionTo(State.OPEN);
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && recordedCalls >= config.getMinimumCalls()
+                    && failedCalls * 100 >= config.getFailureRateThreshold() * recordedCalls) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Release the permit without recording an outcome; a half-open breaker stays half-open
+     */
+    public void onNeutral() {
+        bulkhead.release();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight--;
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= config.getOpenDuration()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", getState().name());
+        stats.put("failureRate", recordedCalls == 0 ? 0.0 : failedCalls * 100.0 / recordedCalls);
+        stats.put("recordedCalls", recordedCalls);
+        stats.put("activeCalls", config.getMaxConcurrentCalls() - bulkhead.availablePermits());
+        stats.put("maxConcurrentCalls", config.getMaxConcurrentCalls());
+        stats.put("rejectedByBreaker", rejectedByBreaker.sum());
+        stats.put("rejectedByBulkhead", rejectedByBulkhead.sum());
+        return stats;
+    }
+
+    private void record(boolean failure) {
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[outcomeIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failure;
+        if (failure) {
+            failedCalls++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State newState) {
+        if (state == newState) {
+            return;
+        }
+        log.warn("🔌 Circuit for {} changed from {} to {}", name, state, newState);
+        state = newState;
+        if (newState == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+        } else if (newState == State.CLOSED) {
+            recordedCalls = 0;
+            failedCalls = 0;
+            outcomeIndex = 0;
+        }
+        if (newState != State.HALF_OPEN) {
+            halfOpenInFlight = 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package tn.esprithub.server.common.resilience;
+
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.ResilienceProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registry of the guards protecting each external dependency.
+ */
+@Component
+public class DependencyGuards {
+
+    private final DependencyGuard github;
+    private final DependencyGuard openAi;
+
+    public DependencyGuards(ResilienceProperties properties) {
+        this.github = new DependencyGuard("GitHub", properties.getGithub());
+        this.openAi = new DependencyGuard("OpenAI", properties.getOpenai());
+    }
+
+    public DependencyGuard github() {
+        return github;
+    }
+
+    public DependencyGuard openAi() {
+        return openAi;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("github", github.getStats());
+        stats.put("openai", openAi.getStats());
+        return stats;
+    }
+}
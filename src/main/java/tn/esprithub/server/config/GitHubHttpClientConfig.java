@@ -0,0 +1,55 @@
+package tn.esprithub.server.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import tn.esprithub.server.config.properties.GitHubHttpProperties;
+
+import java.time.Duration;
+
+/**
+ * Shared HTTP transport for outbound calls to api.github.com (and the other external APIs).
+ * Connections are pooled per remote host and kept alive, and HTTP/2 is negotiated when enabled,
+ * so repeated calls reuse the same TLS session instead of paying a new handshake each time.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubHttpClientConfig {
+
+    private final GitHubHttpProperties properties;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gitHubConnectionProvider() {
+        return ConnectionProvider.builder("github")
+                .maxConnections(properties.getMaxConnectionsPerHost())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(properties.getPendingAcquireTimeout()))
+                .maxIdleTime(Duration.ofMillis(properties.getMaxIdleTime()))
+                .maxLifeTime(Duration.ofMillis(properties.getMaxLifeTime()))
+                .evictInBackground(Duration.ofSeconds(60))
+                .build();
+    }
+
+    @Bean
+    public HttpClient gitHubHttpClient(ConnectionProvider gitHubConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(gitHubConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeout())
+                .responseTimeout(Duration.ofMillis(properties.getReadTimeout()))
+                .keepAlive(true)
+                .compress(true);
+
+        if (properties.isHttp2Enabled()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        log.info("GitHub HTTP transport configured: maxConnectionsPerHost={}, http2={}",
+                properties.getMaxConnectionsPerHost(), properties.isHttp2Enabled());
+        return httpClient;
+    }
+}
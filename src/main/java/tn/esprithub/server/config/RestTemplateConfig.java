@@ -2,12 +2,31 @@ package tn.esprithub.server.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.client.HttpClient;
+import tn.esprithub.server.config.properties.GitHubHttpProperties;
+import tn.esprithub.server.github.service.GitHubCircuitBreakerInterceptor;
+import tn.esprithub.server.github.service.GitHubRateLimitInterceptor;
+import tn.esprithub.server.github.service.GitHubSingleFlightInterceptor;
+
+import java.time.Duration;
 
 @Configuration
 public class RestTemplateConfig {
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClient gitHubHttpClient, GitHubHttpProperties properties,
+                                     GitHubSingleFlightInterceptor singleFlightInterceptor,
+                                     GitHubRateLimitInterceptor rateLimitInterceptor,
+                                     GitHubCircuitBreakerInterceptor circuitBreakerInterceptor) {
+        ReactorClientHttpRequestFactory requestFactory = new ReactorClientHttpRequestFactory(gitHubHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(properties.getReadTimeout()));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        // Coalesce identical GETs first so that waiters do not consume rate-limit budget
+        restTemplate.getInterceptors().add(singleFlightInterceptor);
+        restTemplate.getInterceptors().add(rateLimitInterceptor);
+        // Innermost, so that only real upstream calls hold a bulkhead slot
+        restTemplate.getInterceptors().add(circuitBreakerInterceptor);
+        return restTemplate;
     }
 }
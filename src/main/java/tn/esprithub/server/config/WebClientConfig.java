@@ -3,16 +3,36 @@ package tn.esprithub.server.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import tn.esprithub.server.github.service.GitHubRateLimitGovernor;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(HttpClient gitHubHttpClient, GitHubRateLimitGovernor rateLimitGovernor) {
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(gitHubHttpClient))
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(10 * 1024 * 1024)) // 10MB
+                .filter(recordGitHubRateLimit(rateLimitGovernor))
                 .build();
     }
+
+    /**
+     * Feed GitHub rate-limit headers seen on reactive calls back into the governor.
+     * Reactive calls are never parked here, since that would block an event-loop thread.
+     */
+    private ExchangeFilterFunction recordGitHubRateLimit(GitHubRateLimitGovernor rateLimitGovernor) {
+        return (request, next) -> {
+            if (!"api.github.com".equalsIgnoreCase(request.url().getHost())) {
+                return next.exchange(request);
+            }
+            String authorization = request.headers().getFirst(HttpHeaders.AUTHORIZATION);
+            return next.exchange(request).doOnNext(response -> rateLimitGovernor.record(
+                    authorization, response.statusCode().value(), response.headers().asHttpHeaders()));
+        };
+    }
 }
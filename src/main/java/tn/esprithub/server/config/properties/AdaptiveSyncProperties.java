@@ -0,0 +1,66 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.adaptive-sync")
+public class AdaptiveSyncProperties {
+
+    /**
+     * Rank repositories by activity and sync the most overdue ones; when off, the daily run syncs everything
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time (ms) between two scheduling rounds
+     */
+    private long interval = 5 * 60 * 1000L;
+
+    /**
+     * GitHub requests per hour the scheduled syncs may spend, across all tokens
+     */
+    private int requestBudgetPerHour = 2000;
+
+    /**
+     * Average GitHub requests one incremental repository sync costs, used to turn the budget into repositories
+     */
+    private int estimatedRequestsPerSync = 25;
+
+    /**
+     * Sync interval (ms) of a repository pushed to within the last day
+     */
+    private long hotInterval = 30 * 60 * 1000L;
+
+    /**
+     * Sync interval (ms) of a repository pushed to within the last week
+     */
+    private long warmInterval = 3 * 60 * 60 * 1000L;
+
+    /**
+     * Sync interval (ms) of a repository pushed to within the last month
+     */
+    private long coolInterval = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Sync interval (ms) of a dormant repository
+     */
+    private long dormantInterval = 7 * 24 * 60 * 60 * 1000L;
+
+    /**
+     * Shortest sync interval (ms) any repository gets
+     */
+    private long minInterval = 10 * 60 * 1000L;
+
+    /**
+     * Repositories of groups with a task due within this window (ms) are synced four times as often
+     */
+    private long deadlineWindow = 72 * 60 * 60 * 1000L;
+
+    /**
+     * Interval multiplier for repositories whose webhook delivers successfully; polling is then only a safety net
+     */
+    private int healthyWebhookFactor = 4;
+}
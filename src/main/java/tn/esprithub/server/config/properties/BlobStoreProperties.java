@@ -0,0 +1,36 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.blobs")
+public class BlobStoreProperties {
+
+    /**
+     * Where blob bytes are kept: "database" (content_blob_data table) or "filesystem"
+     */
+    private String storage = "database";
+
+    /**
+     * Root directory of the filesystem storage
+     */
+    private String directory = "./data/blobs";
+
+    /**
+     * Deflate level (1-9) used when storing new blobs
+     */
+    private int compressionLevel = 6;
+
+    /**
+     * Minimum age (ms) of an unreferenced blob before the collector deletes it
+     */
+    private long gcGracePeriod = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Rows whose inline content is moved into the blob store per table and per migration run
+     */
+    private int migrationBatchSize = 200;
+}
@@ -0,0 +1,46 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.cache")
+public class GitHubCacheProperties {
+
+    /**
+     * Revalidate GET requests with If-None-Match / If-Modified-Since and reuse cached bodies on 304
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached responses kept in memory before least-recently-used entries are evicted
+     */
+    private int maxEntries = 2000;
+
+    /**
+     * Responses with a body larger than this (in characters) are not cached
+     */
+    private int maxBodySize = 1024 * 1024;
+
+    /**
+     * Upper bound of all cached bodies together (in characters); least-recently-used entries are evicted past it
+     */
+    private long maxTotalSize = 64L * 1024 * 1024;
+
+    /**
+     * How long (in milliseconds) a token's confirmed access to a repository is trusted before it is checked again
+     */
+    private long accessTtl = 600000;
+
+    /**
+     * How long (in milliseconds) a denied repository access is remembered
+     */
+    private long deniedAccessTtl = 60000;
+
+    /**
+     * Maximum number of remembered (token, repository) access checks
+     */
+    private int maxAccessEntries = 10000;
+}
@@ -0,0 +1,26 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.graphql")
+public class GitHubGraphQLProperties {
+
+    /**
+     * Use the GitHub GraphQL v4 API for repository metadata instead of several REST calls
+     */
+    private boolean enabled = false;
+
+    /**
+     * GraphQL endpoint
+     */
+    private String endpoint = "https://api.github.com/graphql";
+
+    /**
+     * Maximum number of repositories fetched in a single GraphQL query
+     */
+    private int batchSize = 20;
+}
@@ -0,0 +1,71 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.http")
+public class GitHubHttpProperties {
+
+    /**
+     * TCP connect timeout (in milliseconds)
+     */
+    private int connectTimeout = 5000;
+
+    /**
+     * Maximum time to wait for a response once the request is sent (in milliseconds)
+     */
+    private int readTimeout = 30000;
+
+    /**
+     * Maximum number of pooled connections per remote host
+     */
+    private int maxConnectionsPerHost = 50;
+
+    /**
+     * Maximum number of requests allowed to wait for a pooled connection
+     */
+    private int pendingAcquireMaxCount = 500;
+
+    /**
+     * Maximum time a request waits for a pooled connection (in milliseconds)
+     */
+    private int pendingAcquireTimeout = 10000;
+
+    /**
+     * Idle time after which a pooled connection is closed (in milliseconds)
+     */
+    private int maxIdleTime = 30000;
+
+    /**
+     * Maximum lifetime of a pooled connection (in milliseconds)
+     */
+    private int maxLifeTime = 300000;
+
+    /**
+     * Negotiate HTTP/2 (via ALPN) with hosts that support it, falling back to HTTP/1.1
+     */
+    private boolean http2Enabled = true;
+
+    /**
+     * Number of worker threads used to fan out independent GitHub calls
+     */
+    private int fanOutPoolSize = 16;
+
+    /**
+     * Maximum number of fanned-out calls waiting for a worker (callers run the call themselves beyond that)
+     */
+    private int fanOutQueueCapacity = 200;
+
+    /**
+     * Per-call timeout for fanned-out GitHub calls (in milliseconds)
+     */
+    private long fanOutCallTimeout = 15000;
+
+    /**
+     * Safety limit on the number of pages followed for a single paginated list
+     */
+    private int maxPages = 100;
+}
@@ -0,0 +1,36 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.rate-limit")
+public class GitHubRateLimitProperties {
+
+    /**
+     * Track X-RateLimit-* headers and throttle GitHub calls per token
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests per token kept for interactive calls; background work parks until reset below this
+     */
+    private int interactiveReserve = 500;
+
+    /**
+     * Upper bound on the background request rate per token (requests per second)
+     */
+    private double backgroundMaxRequestsPerSecond = 10.0;
+
+    /**
+     * Number of background requests a token may burst before pacing kicks in
+     */
+    private int backgroundBurst = 20;
+
+    /**
+     * Longest time a background caller is parked waiting for a rate-limit reset (in milliseconds)
+     */
+    private long maxParkTime = 3600000;
+}
@@ -0,0 +1,36 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.github.sync")
+public class GitHubSyncProperties {
+
+    /**
+     * Largest blob (in bytes) whose content is downloaded and stored; bigger files are stored without content
+     */
+    private long maxBlobSize = 1024 * 1024;
+
+    /**
+     * Number of blobs downloaded at the same time per repository; larger diffs are fetched window by window
+     */
+    private int blobFetchWindow = 16;
+
+    /**
+     * Number of rows written per multi-row INSERT ... ON CONFLICT statement
+     */
+    private int upsertBatchSize = 500;
+
+    /**
+     * Number of GitHub tokens (users) whose repositories are fetched and synced in parallel by the scheduled run
+     */
+    private int parallelTokens = 4;
+
+    /**
+     * Worker threads that page through independent listings of a single repository sync concurrently
+     */
+    private int phasePoolSize = 8;
+}
@@ -0,0 +1,46 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.git.mirror")
+public class GitMirrorProperties {
+
+    /**
+     * Serve tree, blob and history reads from local bare mirrors; when off every read goes to the GitHub API
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding one bare mirror per repository ({owner}/{repo}.git)
+     */
+    private String directory = "./data/git-mirrors";
+
+    /**
+     * Base URL mirrors are cloned from; a file:// URL serves local repositories (e.g. in tests)
+     */
+    private String remoteBaseUrl = "https://github.com";
+
+    /**
+     * Age (ms) after which a read schedules a background fetch of the mirror it used
+     */
+    private long maxStaleness = 10 * 60 * 1000L;
+
+    /**
+     * Threads cloning and fetching mirrors in the background
+     */
+    private int fetchThreads = 2;
+
+    /**
+     * Network timeout (seconds) of a clone or fetch
+     */
+    private int fetchTimeout = 120;
+
+    /**
+     * Most commits walked when looking for the last commit touching a set of paths
+     */
+    private int maxHistoryWalk = 5000;
+}
@@ -0,0 +1,52 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jobs")
+public class JobQueueProperties {
+
+    /**
+     * Lease and run background jobs on this node
+     */
+    private boolean workerEnabled = true;
+
+    /**
+     * Number of jobs this node runs concurrently
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Delay between two polls of the job table (in milliseconds)
+     */
+    private long pollInterval = 2000;
+
+    /**
+     * Lease length (in milliseconds); running jobs are renewed four times per lease on a dedicated
+     * thread, so this only bounds how long the jobs of a crashed node stay blocked
+     */
+    private long leaseDuration = 300000;
+
+    /**
+     * Default number of attempts before a job is marked FAILED
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry (in milliseconds), doubled on each further attempt
+     */
+    private long retryBackoff = 30000;
+
+    /**
+     * Upper bound of the retry delay (in milliseconds)
+     */
+    private long maxRetryBackoff = 3600000;
+
+    /**
+     * Days finished jobs are kept for the status API
+     */
+    private int retentionDays = 7;
+}
@@ -0,0 +1,33 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.notifications.digest")
+public class NotificationDigestProperties {
+
+    /**
+     * Group GitHub event notifications per recipient; when off, every event is sent on its own
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time (in milliseconds) events are collected before a recipient's digest is sent
+     */
+    private long window = 300000;
+
+    /**
+     * Number of buffered events that sends a digest before the window is over
+     */
+    private int maxEvents = 25;
+
+    /**
+     * Event types sent right away, together with whatever is already buffered for the recipient
+     */
+    private List<String> urgentEventTypes = List.of("release");
+}
@@ -0,0 +1,83 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.notifications.outbox")
+public class NotificationOutboxProperties {
+
+    /**
+     * Lease and send queued emails and Teams posts on this node
+     */
+    private boolean workerEnabled = true;
+
+    /**
+     * Delay between two polls of the outbox table (in milliseconds)
+     */
+    private long pollInterval = 2000;
+
+    /**
+     * Lease length (in milliseconds); bounds how long the messages of a crashed node stay blocked
+     */
+    private long leaseDuration = 300000;
+
+    /**
+     * Number of attempts before a message is marked FAILED
+     */
+    private int maxAttempts = 8;
+
+    /**
+     * Delay before the first retry (in milliseconds), doubled on each further attempt
+     */
+    private long retryBackoff = 60000;
+
+    /**
+     * Upper bound of the retry delay (in milliseconds)
+     */
+    private long maxRetryBackoff = 3600000;
+
+    /**
+     * Days sent messages are kept for the status API
+     */
+    private int retentionDays = 7;
+
+    /**
+     * SMTP delivery lane
+     */
+    private Lane email = new Lane(2, 20, 120);
+
+    /**
+     * Teams webhook delivery lane
+     */
+    private Lane teams = new Lane(1, 10, 30);
+
+    @Data
+    public static class Lane {
+        /**
+         * Number of batches of this channel sent at the same time
+         */
+        private int threads;
+
+        /**
+         * Messages leased and sent together; one SMTP connection is opened per email batch
+         */
+        private int batchSize;
+
+        /**
+         * Messages this node sends per minute on this channel
+         */
+        private int perMinute;
+
+        public Lane() {
+        }
+
+        public Lane(int threads, int batchSize, int perMinute) {
+            this.threads = threads;
+            this.batchSize = batchSize;
+            this.perMinute = perMinute;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package tn.esprithub.server.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.resilience")
+public class ResilienceProperties {
+
+    private Dependency github = new Dependency(40, 2000);
+    private Dependency openai = new Dependency(4, 500);
+
+    @Data
+    public static class Dependency {
+
+        /**
+         * Maximum number of concurrent calls to the dependency (bulkhead size)
+         */
+        private int maxConcurrentCalls;
+
+        /**
+         * Maximum time to wait for a free bulkhead slot before failing fast (in milliseconds)
+         */
+        private long maxWaitTime;
+
+        /**
+         * Number of most recent calls used to compute the failure rate
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Minimum number of recorded calls before the circuit may open
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Failure rate (in percent) at which the circuit opens
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * How long the circuit stays open before letting trial calls through (in milliseconds)
+         */
+        private long openDuration = 30000;
+
+        /**
+         * Number of trial calls allowed while half-open
+         */
+        private int halfOpenCalls = 3;
+
+        public Dependency() {
+        }
+
+        public Dependency(int maxConcurrentCalls, long maxWaitTime) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxWaitTime = maxWaitTime;
+        }
+    }
+}
@@ -49,6 +49,16 @@ public class WebhookProperties {
      * Retry configuration
      */
     private Retry retry = new Retry();
+
+    /**
+     * Asynchronous delivery processing configuration
+     */
+    private Ingestion ingestion = new Ingestion();
+
+    /**
+     * Per-repository coalescing of push/create/delete events
+     */
+    private Coalescing coalescing = new Coalescing();
     
     @Data
     public static class Scheduling {
@@ -86,6 +96,89 @@ public class WebhookProperties {
         private int retryDelay = 15;
     }
     
+    @Data
+    public static class Ingestion {
+        /**
+         * Number of processing lanes; deliveries of one repository always go to the same lane of a node
+         * (best-effort ordering, retries go to the back of the lane)
+         */
+        private int workerThreads = 4;
+
+        /**
+         * Deliveries waiting in memory per lane; beyond that they wait in the database for the poller
+         */
+        private int laneCapacity = 100;
+
+        /**
+         * Processing attempts before a delivery goes to the dead-letter table
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first retry (in milliseconds), doubled on each further attempt
+         */
+        private long retryBackoff = 30000;
+
+        /**
+         * Upper bound of the retry delay (in milliseconds)
+         */
+        private long maxRetryBackoff = 1800000;
+
+        /**
+         * Delay between two polls for deliveries no lane picked up: retries, overflow, other nodes' leftovers (in milliseconds)
+         */
+        private long pollInterval = 10000;
+
+        /**
+         * Time a received delivery is left to the receiving node before the poller takes it over (in milliseconds)
+         */
+        private long handOffDelay = 30000;
+
+        /**
+         * Time (in milliseconds) after which a delivery stuck in PROCESSING (crashed node) is processed again
+         */
+        private long processingTimeout = 600000;
+
+        /**
+         * Days processed deliveries are kept; redeliveries are recognized as duplicates within that window
+         */
+        private int retentionDays = 14;
+
+        /**
+         * Delivery ids remembered in memory to reject redeliveries without a database round trip
+         */
+        private int recentDeliveryCacheSize = 10000;
+    }
+    
+    @Data
+    public static class Coalescing {
+        /**
+         * Merge bursts of push/create/delete events of one repository into one sync
+         */
+        private boolean enabled = true;
+
+        /**
+         * Quiet time (in milliseconds) after the last event of a repository before its sync runs
+         */
+        private long window = 10000;
+
+        /**
+         * Longest time (in milliseconds) the first event of a burst may wait, however busy the repository stays
+         */
+        private long maxDelay = 60000;
+
+        /**
+         * Number of coalesced syncs running at the same time
+         */
+        private int flushThreads = 4;
+
+        /**
+         * Delay (in milliseconds) of the full repository sync queued when a burst starts, cancelled once the
+         * burst is synced; runs only if the node stopped before that. Keep it above max-delay.
+         */
+        private long fallbackDelay = 300000;
+    }
+    
     /**
      * Get the full webhook URL
      */
@@ -4,12 +4,20 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,6 +37,12 @@ public class EmailService {
     @Value("${app.mail.from:noreply@esprithub.com}")
     private String mailFrom;
 
+    /**
+     * Email de notification à envoyer
+     */
+    public record NotificationEmail(String to, String subject, String htmlContent) {
+    }
+
     @Async
     public void sendCredentialsEmail(String to, String username, String password) {
         if (!canSendEmails()) {
@@ -54,33 +68,54 @@ public class EmailService {
     }
 
     /**
-     * Envoie une notification par email avec contenu HTML personnalisé
+     * Envoie un lot d'emails de notification sur une seule connexion SMTP, de façon synchrone.
+     * Used by the notification outbox, which retries what could not be sent.
+     *
+     * @return the error of every email that could not be sent, keyed by its index in {@code emails}
+     * @throws MailException when the SMTP server could not be reached at all
      */
-    @Async
-    public void sendNotificationEmail(String to, String subject, String htmlContent) {
-        if (!canSendEmails()) {
-            log.warn("Skipping notification email for {} because SMTP is disabled or not configured", to);
-            return;
+    public Map<Integer, Exception> deliverNotificationEmails(List<NotificationEmail> emails) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Integer> indexes = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>();
+
+        for (int i = 0; i < emails.size(); i++) {
+            NotificationEmail email = emails.get(i);
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+                helper.setFrom(mailFrom);
+                helper.setTo(email.to());
+                helper.setSubject(email.subject());
+                helper.setText(email.htmlContent(), true); // true = contenu HTML
+
+                indexes.put(message, i);
+                messages.add(message);
+            } catch (Exception e) {
+                failures.put(i, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
         }
 
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(mailFrom);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true); // true = contenu HTML
-
-            mailSender.send(message);
-            log.info("Notification email sent successfully to {}", to);
-        } catch (Exception e) {
-            log.error("Error sending notification email to {}. Error: {}", to, e.getMessage());
-            // Don't throw exception - we don't want to interrupt the notification process
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Messages missing from the failed map were accepted by the server
+            e.getFailedMessages().forEach((message, error) -> {
+                Integer index = indexes.get(message);
+                if (index != null) {
+                    failures.put(index, error);
+                }
+            });
         }
+        log.info("Notification emails sent: {}/{}", emails.size() - failures.size(), emails.size());
+        return failures;
     }
 
-    private boolean canSendEmails() {
+    public boolean canSendEmails() {
         return mailEnabled && StringUtils.hasText(mailUsername) && StringUtils.hasText(mailPassword);
     }
 
@@ -0,0 +1,76 @@
+package tn.esprithub.server.github.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository metadata assembled from a single GitHub GraphQL query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GitHubRepositoryMetadataDto {
+    private String fullName;
+    private String name;
+    private String description;
+    private Boolean isPrivate;
+    private Boolean archived;
+    private Boolean disabled;
+    private Boolean fork;
+    private Boolean hasIssues;
+    private Boolean hasProjects;
+    private Boolean hasWiki;
+    private String defaultBranch;
+    private String primaryLanguage;
+    private Long sizeKb;
+    private Integer stargazersCount;
+    private Integer forksCount;
+    private Integer watchersCount;
+    private Integer openIssuesCount;
+    private String licenseName;
+    private List<String> topics;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime pushedAt;
+
+    // Language name -> bytes, same shape as the REST /languages endpoint
+    private Map<String, Long> languages;
+
+    private List<BranchHeadDto> branches;
+
+    // history.totalCount of the default branch
+    private Integer totalCommits;
+
+    // Null when the token cannot list collaborators
+    private Integer collaboratorCount;
+
+    private ReleaseDto latestRelease;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BranchHeadDto {
+        private String name;
+        private String sha;
+        private Boolean isProtected;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReleaseDto {
+        private String name;
+        private String tagName;
+        private String url;
+        private LocalDateTime publishedAt;
+    }
+}
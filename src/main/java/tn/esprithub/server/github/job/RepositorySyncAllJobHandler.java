@@ -0,0 +1,45 @@
+package tn.esprithub.server.github.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobHandler;
+import tn.esprithub.server.common.job.BackgroundJobService;
+import tn.esprithub.server.github.service.GitHubSyncExecutor;
+import tn.esprithub.server.user.entity.User;
+import tn.esprithub.server.user.repository.UserRepository;
+
+import java.util.List;
+
+/**
+ * Fetch and sync the repositories of every user with a GitHub token (scheduled run and admin bulk fetch).
+ * Being a single deduplicated job, only one node runs it at a time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RepositorySyncAllJobHandler implements BackgroundJobHandler {
+
+    public static final String DEDUP_KEY = "repository-sync-all";
+
+    private final UserRepository userRepository;
+    private final GitHubSyncExecutor gitHubSyncExecutor;
+    private final BackgroundJobService jobService;
+
+    @Override
+    public BackgroundJob.JobType getJobType() {
+        return BackgroundJob.JobType.REPOSITORY_SYNC_ALL;
+    }
+
+    @Override
+    public void handle(BackgroundJob job, JsonNode payload) {
+        boolean forceRefresh = payload.path("forceRefresh").asBoolean(false);
+        List<User> usersWithTokens = userRepository.findUsersWithGitHubTokens();
+        log.info("Found {} users with GitHub tokens", usersWithTokens.size());
+
+        gitHubSyncExecutor.syncUsers(usersWithTokens, forceRefresh,
+                progress -> jobService.updateProgress(job.getId(), progress));
+    }
+}
@@ -0,0 +1,63 @@
+package tn.esprithub.server.github.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.job.BackgroundJobHandler;
+import tn.esprithub.server.github.service.GitHubRateLimitGovernor;
+import tn.esprithub.server.github.service.GitHubRepositoryFetchService;
+import tn.esprithub.server.repository.entity.Repository;
+import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
+import tn.esprithub.server.user.entity.User;
+import tn.esprithub.server.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Comprehensive sync of one repository with the token of the user who fetched it
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RepositorySyncJobHandler implements BackgroundJobHandler {
+
+    private final RepositoryEntityRepository repositoryRepository;
+    private final UserRepository userRepository;
+    private final GitHubRepositoryFetchService gitHubRepositoryFetchService;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+
+    public static final String DEDUP_KEY_PREFIX = "repository-sync:";
+
+    public static String dedupKey(UUID repositoryId) {
+        return DEDUP_KEY_PREFIX + repositoryId;
+    }
+
+    @Override
+    public BackgroundJob.JobType getJobType() {
+        return BackgroundJob.JobType.REPOSITORY_SYNC;
+    }
+
+    @Override
+    public void handle(BackgroundJob job, JsonNode payload) {
+        UUID repositoryId = UUID.fromString(payload.path("repositoryId").asText());
+        Repository repository = repositoryRepository.findById(repositoryId).orElse(null);
+        User user = userRepository.findById(UUID.fromString(payload.path("userId").asText())).orElse(null);
+        if (repository == null || user == null) {
+            log.debug("Skipping sync job {}: repository or user no longer exists", job.getId());
+            return;
+        }
+
+        rateLimitGovernor.runInBackground(() -> gitHubRepositoryFetchService.syncRepositoriesData(List.of(repository), user));
+
+        // The sync records its own failure on the repository; surface it so the job is retried
+        repositoryRepository.findById(repositoryId)
+                .filter(synced -> "FAILED".equals(synced.getSyncStatus()))
+                .ifPresent(synced -> {
+                    throw new BusinessException("Sync failed for " + synced.getFullName() + ": " + synced.getSyncError());
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package tn.esprithub.server.github.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobHandler;
+import tn.esprithub.server.github.service.GitHubRateLimitGovernor;
+import tn.esprithub.server.github.service.GitHubWebhookService;
+import tn.esprithub.server.repository.entity.Repository;
+import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
+import tn.esprithub.server.user.entity.User;
+
+import java.util.UUID;
+
+/**
+ * Subscribe the platform webhook on one repository with its owner's token
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookSubscriptionJobHandler implements BackgroundJobHandler {
+
+    private final RepositoryEntityRepository repositoryRepository;
+    private final GitHubWebhookService gitHubWebhookService;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+
+    public static String dedupKey(UUID repositoryId) {
+        return "webhook-subscription:" + repositoryId;
+    }
+
+    @Override
+    public BackgroundJob.JobType getJobType() {
+        return BackgroundJob.JobType.WEBHOOK_SUBSCRIPTION;
+    }
+
+    @Override
+    @Transactional
+    public void handle(BackgroundJob job, JsonNode payload) {
+        Repository repository = repositoryRepository.findById(UUID.fromString(payload.path("repositoryId").asText())).orElse(null);
+        if (repository == null) {
+            log.debug("Skipping webhook subscription job {}: repository no longer exists", job.getId());
+            return;
+        }
+
+        User owner = repository.getOwner();
+        if (owner.getGithubToken() == null || owner.getGithubToken().isBlank() || !owner.getIsActive()) {
+            log.debug("Skipping repository {} - owner {} has no GitHub token or is not active",
+                    repository.getFullName(), owner.getEmail());
+            return;
+        }
+
+        log.info("Subscribing to webhook for repository: {} (owner: {})", repository.getFullName(), owner.getEmail());
+        rateLimitGovernor.runInBackground(() -> gitHubWebhookService.subscribeToRepository(repository, owner));
+    }
+}
@@ -0,0 +1,493 @@
+package tn.esprithub.server.github.mirror;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.LargeObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.FileUtils;
+import org.springframework.stereotype.Service;
+import tn.esprithub.server.config.properties.GitMirrorProperties;
+import tn.esprithub.server.github.service.GitHubRepositoryAccessCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local bare mirrors of GitHub repositories serving tree listings, file contents, per-path last commits
+ * and commit history without API calls. Mirrors are cloned on first use and fetched incrementally on push
+ * webhooks or once they are older than {@code app.git.mirror.max-staleness}, always in the background.
+ * <p>
+ * Every read returns an empty {@link Optional} when the feature is off, the mirror is not cloned yet or
+ * the ref is unknown locally; callers then fall back to the GitHub API. A mirror is cloned with one
+ * caller's token but shared by all of them, so every read first checks that the caller's own token may
+ * read the repository ({@link GitHubRepositoryAccessCache}); callers without access get an empty result
+ * and their API fallback is refused by GitHub as before.
+ */
+@Service
+@Slf4j
+public class GitMirrorService {
+
+    private static final RefSpec BRANCHES = new RefSpec("+refs/heads/*:refs/heads/*");
+    private static final RefSpec TAGS = new RefSpec("+refs/tags/*:refs/tags/*");
+    private static final int MAX_BLOB_BYTES = 50 * 1024 * 1024;
+
+    private final GitMirrorProperties properties;
+    private final GitHubRepositoryAccessCache accessCache;
+    private final Path root;
+    private final ExecutorService fetchExecutor;
+    private final Map<String, org.eclipse.jgit.lib.Repository> openMirrors = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastFetched = new ConcurrentHashMap<>();
+    private final Map<String, Object> mirrorLocks = new ConcurrentHashMap<>();
+    private final Set<String> queuedRefreshes = ConcurrentHashMap.newKeySet();
+
+    public GitMirrorService(GitMirrorProperties properties, GitHubRepositoryAccessCache accessCache) {
+        this.properties = properties;
+        this.accessCache = accessCache;
+        this.root = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getFetchThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "git-mirror-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.isEnabled()) {
+            log.info("Git mirrors enabled under {} (remote: {})", root, properties.getRemoteBaseUrl());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Clone or fetch a mirror in the background. A refresh requested while one is queued for the same
+     * repository is merged into it; one requested while a fetch runs is queued again.
+     */
+    public void refreshAsync(String fullName, String token) {
+        if (!properties.isEnabled() || !queuedRefreshes.add(fullName)) {
+            return;
+        }
+        fetchExecutor.execute(() -> {
+            queuedRefreshes.remove(fullName);
+            try {
+                refresh(fullName, token);
+            } catch (Exception e) {
+                log.warn("Could not refresh git mirror of {}: {}", fullName, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Clone the mirror when it does not exist yet, fetch it otherwise
+     */
+    public void refresh(String fullName, String token) throws IOException, GitAPIException {
+        Path path = mirrorPath(fullName);
+        synchronized (mirrorLocks.computeIfAbsent(fullName, name -> new Object())) {
+            long startedAt = System.currentTimeMillis();
+            if (Files.isDirectory(path)) {
+                fetch(openMirror(fullName), fullName, token);
+                log.debug("🔄 Fetched git mirror of {} in {}ms", fullName, System.currentTimeMillis() - startedAt);
+            } else {
+                cloneMirror(fullName, path, token);
+                log.info("📥 Cloned git mirror of {} in {}ms", fullName, System.currentTimeMillis() - startedAt);
+            }
+            lastFetched.put(fullName, startedAt);
+        }
+    }
+
+    /**
+     * Entries of the tree at {@code path} ("" for the root) on {@code ref}, subtrees included when {@code recursive}
+     */
+    public Optional<List<MirrorTreeEntry>> listTree(String fullName, String ref, String path, boolean recursive, String token) {
+        return read(fullName, token, repository -> {
+            RevTree tree = resolveTree(repository, ref);
+            if (tree == null) {
+                return null;
+            }
+            String prefix = normalizePath(path);
+            ObjectId treeId = tree;
+            if (!prefix.isEmpty()) {
+                try (TreeWalk subtree = TreeWalk.forPath(repository, prefix, tree)) {
+                    if (subtree == null || !FileMode.TREE.equals(subtree.getFileMode(0))) {
+                        return null;
+                    }
+                    treeId = subtree.getObjectId(0);
+                }
+            }
+
+            List<MirrorTreeEntry> entries = new ArrayList<>();
+            try (TreeWalk walk = new TreeWalk(repository); ObjectReader reader = repository.newObjectReader()) {
+                walk.addTree(treeId);
+                walk.setRecursive(false);
+                while (walk.next()) {
+                    FileMode mode = walk.getFileMode(0);
+                    ObjectId id = walk.getObjectId(0);
+                    String type = FileMode.TREE.equals(mode) ? "tree" : FileMode.GITLINK.equals(mode) ? "commit" : "blob";
+                    Long size = "blob".equals(type) ? reader.getObjectSize(id, Constants.OBJ_BLOB) : null;
+                    entries.add(new MirrorTreeEntry(prefix.isEmpty() ? walk.getPathString() : prefix + "/" + walk.getPathString(),
+                            walk.getNameString(), String.format("%06o", mode.getBits()), type, id.name(), size));
+                    if (recursive && walk.isSubtree()) {
+                        walk.enterSubtree();
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Content of the file at {@code path} on {@code ref}
+     */
+    public Optional<MirrorBlob> readFile(String fullName, String ref, String path, String token) {
+        return read(fullName, token, repository -> {
+            RevTree tree = resolveTree(repository, ref);
+            if (tree == null) {
+                return null;
+            }
+            try (TreeWalk walk = TreeWalk.forPath(repository, normalizePath(path), tree)) {
+                if (walk == null || (walk.getRawMode(0) & FileMode.TYPE_MASK) == FileMode.TYPE_TREE
+                        || FileMode.GITLINK.equals(walk.getFileMode(0))) {
+                    return null;
+                }
+                ObjectId id = walk.getObjectId(0);
+                try {
+                    return new MirrorBlob(walk.getPathString(), id.name(),
+                            repository.open(id, Constants.OBJ_BLOB).getCachedBytes(MAX_BLOB_BYTES));
+                } catch (LargeObjectException e) {
+                    return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Last commit touching each of {@code paths} (files or directories) on {@code ref}, found in a single
+     * history walk. Paths with no commit within {@code app.git.mirror.max-history-walk} commits are left out.
+     */
+    public Optional<Map<String, MirrorCommit>> lastCommits(String fullName, String ref, Collection<String> paths, String token) {
+        return read(fullName, token, repository -> {
+            ObjectId head = resolveCommit(repository, ref);
+            if (head == null) {
+                return null;
+            }
+            Set<String> remaining = new LinkedHashSet<>();
+            paths.stream().map(this::normalizePath).filter(path -> !path.isEmpty()).forEach(remaining::add);
+            Map<String, MirrorCommit> lastCommits = new HashMap<>();
+
+            try (RevWalk walk = new RevWalk(repository); TreeWalk diff = new TreeWalk(repository)) {
+                walk.markStart(walk.parseCommit(head));
+                diff.setRecursive(true);
+                int walked = 0;
+                for (RevCommit commit : walk) {
+                    if (remaining.isEmpty() || walked++ >= properties.getMaxHistoryWalk()) {
+                        break;
+                    }
+                    diff.reset();
+                    diff.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(remaining), TreeFilter.ANY_DIFF));
+                    if (commit.getParentCount() > 0) {
+                        diff.addTree(walk.parseCommit(commit.getParent(0)).getTree());
+                    } else {
+                        diff.addTree(new EmptyTreeIterator());
+                    }
+                    diff.addTree(commit.getTree());
+                    while (diff.next() && !remaining.isEmpty()) {
+                        String changed = diff.getPathString();
+                        for (Iterator<String> it = remaining.iterator(); it.hasNext(); ) {
+                            String path = it.next();
+                            if (changed.equals(path) || changed.startsWith(path + "/")) {
+                                lastCommits.put(path, toMirrorCommit(commit));
+                                it.remove();
+                            }
+                        }
+                    }
+                }
+            }
+            return lastCommits;
+        });
+    }
+
+    /**
+     * Commits reachable from {@code ref}, newest first
+     */
+    public Optional<List<MirrorCommit>> listCommits(String fullName, String ref, int skip, int limit, String token) {
+        return read(fullName, token, repository -> {
+            ObjectId head = resolveCommit(repository, ref);
+            if (head == null) {
+                return null;
+            }
+            List<MirrorCommit> commits = new ArrayList<>();
+            try (RevWalk walk = new RevWalk(repository)) {
+                walk.markStart(walk.parseCommit(head));
+                int index = 0;
+                for (RevCommit commit : walk) {
+                    if (commits.size() >= limit) {
+                        break;
+                    }
+                    if (index++ >= skip) {
+                        commits.add(toMirrorCommit(commit));
+                    }
+                }
+            }
+            return commits;
+        });
+    }
+
+    /**
+     * File content shaped like the GitHub contents API response
+     */
+    public Optional<Map<String, Object>> readContents(String fullName, String ref, String path, String token) {
+        return readFile(fullName, ref, path, token).map(blob -> {
+            Map<String, Object> contents = new HashMap<>();
+            contents.put("type", "file");
+            contents.put("name", blob.path().substring(blob.path().lastIndexOf('/') + 1));
+            contents.put("path", blob.path());
+            contents.put("sha", blob.sha());
+            contents.put("size", blob.content().length);
+            contents.put("encoding", "base64");
+            contents.put("content", Base64.getEncoder().encodeToString(blob.content()));
+            contents.put("url", null);
+            contents.put("html_url", "https://github.com/" + fullName + "/blob/" + (ref != null ? ref : "HEAD") + "/" + blob.path());
+            contents.put("download_url", "https://raw.githubusercontent.com/" + fullName + "/" + (ref != null ? ref : "HEAD") + "/" + blob.path());
+            return contents;
+        });
+    }
+
+    /**
+     * Recursive tree shaped like the GitHub git/trees API response
+     */
+    public Optional<Map<String, Object>> readGitTree(String fullName, String ref, String token) {
+        return listTree(fullName, ref, "", true, token).map(entries -> {
+            List<Map<String, Object>> tree = new ArrayList<>();
+            for (MirrorTreeEntry entry : entries) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("path", entry.path());
+                item.put("mode", entry.mode());
+                item.put("type", entry.type());
+                item.put("sha", entry.sha());
+                item.put("size", entry.size());
+                item.put("url", null);
+                tree.add(item);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("sha", null);
+            response.put("url", null);
+            response.put("truncated", false);
+            response.put("tree", tree);
+            return response;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+        openMirrors.values().forEach(org.eclipse.jgit.lib.Repository::close);
+        openMirrors.clear();
+    }
+
+    private <T> Optional<T> read(String fullName, String token, MirrorRead<T> mirrorRead) {
+        if (!properties.isEnabled() || fullName == null) {
+            return Optional.empty();
+        }
+        if (!accessCache.hasAccess(token, fullName)) {
+            log.debug("🔒 Not serving git mirror of {}: caller's token has no access", fullName);
+            return Optional.empty();
+        }
+        Long fetchedAt = lastFetched.get(fullName);
+        if (fetchedAt == null || System.currentTimeMillis() - fetchedAt > properties.getMaxStaleness()) {
+            refreshAsync(fullName, token);
+        }
+        try {
+            org.eclipse.jgit.lib.Repository repository = openMirror(fullName);
+            return repository == null ? Optional.empty() : Optional.ofNullable(mirrorRead.read(repository));
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("Git mirror read failed for {}: {}", fullName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private org.eclipse.jgit.lib.Repository openMirror(String fullName) {
+        return openMirrors.computeIfAbsent(fullName, name -> {
+            Path path = mirrorPath(name);
+            if (!Files.isDirectory(path)) {
+                return null;
+            }
+            try {
+                return new FileRepositoryBuilder().setGitDir(path.toFile()).setMustExist(true).build();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Clone into a temporary directory and move it in place, so a half-cloned mirror is never read
+     */
+    private void cloneMirror(String fullName, Path path, String token) throws IOException, GitAPIException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp-" + UUID.randomUUID());
+        try {
+            try (Git git = Git.init().setBare(true).setDirectory(temp.toFile()).call()) {
+                FetchResult result = fetch(git.getRepository(), fullName, token);
+                linkHead(git.getRepository(), result);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (Files.exists(temp)) {
+                FileUtils.delete(temp.toFile(), FileUtils.RECURSIVE | FileUtils.IGNORE_ERRORS);
+            }
+        }
+    }
+
+    private FetchResult fetch(org.eclipse.jgit.lib.Repository repository, String fullName, String token) throws GitAPIException {
+        try (Git git = new Git(repository)) {
+            return git.fetch()
+                    .setRemote(properties.getRemoteBaseUrl() + "/" + fullName + ".git")
+                    .setRefSpecs(BRANCHES, TAGS)
+                    .setRemoveDeletedRefs(true)
+                    .setTimeout(properties.getFetchTimeout())
+                    .setCredentialsProvider(token != null && !token.isBlank()
+                            ? new UsernamePasswordCredentialsProvider("x-access-token", token) : null)
+                    .call();
+        }
+    }
+
+    /**
+     * Point HEAD at the remote's default branch, so reads without a ref see the same branch as GitHub
+     */
+    private void linkHead(org.eclipse.jgit.lib.Repository repository, FetchResult result) throws IOException {
+        Ref remoteHead = result.getAdvertisedRef(Constants.HEAD);
+        if (remoteHead == null) {
+            return;
+        }
+        String target = remoteHead.isSymbolic() ? remoteHead.getTarget().getName() : null;
+        if (target == null) {
+            for (Ref ref : result.getAdvertisedRefs()) {
+                if (ref.getName().startsWith(Constants.R_HEADS) && remoteHead.getObjectId().equals(ref.getObjectId())) {
+                    target = ref.getName();
+                    break;
+                }
+            }
+        }
+        if (target != null) {
+            RefUpdate update = repository.updateRef(Constants.HEAD);
+            update.disableRefLog();
+            update.link(target);
+        }
+    }
+
+    private RevTree resolveTree(org.eclipse.jgit.lib.Repository repository, String ref) throws IOException {
+        ObjectId commitId = resolveCommit(repository, ref);
+        if (commitId == null) {
+            return null;
+        }
+        try (RevWalk walk = new RevWalk(repository)) {
+            return walk.parseCommit(commitId).getTree();
+        }
+    }
+
+    private ObjectId resolveCommit(org.eclipse.jgit.lib.Repository repository, String ref) throws IOException {
+        String revision = ref == null || ref.isBlank() ? Constants.HEAD : ref;
+        ObjectId id = repository.resolve(revision + "^{commit}");
+        return id != null ? id : repository.resolve(Constants.R_HEADS + revision + "^{commit}");
+    }
+
+    private String normalizePath(String path) {
+        if (path == null) {
+            return "";
+        }
+        String normalized = path.trim();
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private Path mirrorPath(String fullName) {
+        String[] parts = fullName.split("/");
+        if (parts.length != 2 || !parts[0].matches("[A-Za-z0-9_.-]+") || !parts[1].matches("[A-Za-z0-9_.-]+")
+                || parts[0].startsWith(".") || parts[1].startsWith(".")) {
+            throw new IllegalArgumentException("Invalid repository name: " + fullName);
+        }
+        return root.resolve(parts[0]).resolve(parts[1] + ".git");
+    }
+
+    private MirrorCommit toMirrorCommit(RevCommit commit) {
+        PersonIdent author = commit.getAuthorIdent();
+        PersonIdent committer = commit.getCommitterIdent();
+        List<String> parentShas = new ArrayList<>(commit.getParentCount());
+        for (RevCommit parent : commit.getParents()) {
+            parentShas.add(parent.name());
+        }
+        return new MirrorCommit(commit.name(), commit.getFullMessage(),
+                author.getName(), author.getEmailAddress(), LocalDateTime.ofInstant(author.getWhenAsInstant(), ZoneOffset.UTC),
+                committer.getName(), committer.getEmailAddress(), LocalDateTime.ofInstant(committer.getWhenAsInstant(), ZoneOffset.UTC),
+                parentShas);
+    }
+
+    @FunctionalInterface
+    private interface MirrorRead<T> {
+        T read(org.eclipse.jgit.lib.Repository repository) throws IOException;
+    }
+
+    /**
+     * Tree entry; {@code type} is "blob", "tree" or "commit" (submodule), as in the git/trees API
+     */
+    public record MirrorTreeEntry(String path, String name, String mode, String type, String sha, Long size) {
+    }
+
+    public record MirrorBlob(String path, String sha, byte[] content) {
+    }
+
+    /**
+     * Commit metadata; dates are UTC like the ISO timestamps of the GitHub API
+     */
+    public record MirrorCommit(String sha, String message, String authorName, String authorEmail, LocalDateTime authorDate,
+                               String committerName, String committerEmail, LocalDateTime committerDate,
+                               List<String> parentShas) {
+    }
+}
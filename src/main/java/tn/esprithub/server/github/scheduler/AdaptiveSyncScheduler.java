@@ -0,0 +1,221 @@
+package tn.esprithub.server.github.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
+import tn.esprithub.server.config.properties.AdaptiveSyncProperties;
+import tn.esprithub.server.github.job.RepositorySyncJobHandler;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Activity-weighted repository sync. Every round, each active repository gets a target sync interval from
+ * its recent activity (last push or webhook delivery), approaching task deadlines of its group and the health
+ * of its webhook; the repositories most overdue relative to that interval are queued for sync, as many as the
+ * hourly request budget allows. Hot repositories are thus polled often while dormant ones are left alone.
+ * Repositories whose sync is already queued are skipped, and those whose sync jobs keep failing back off
+ * exponentially from their last failure.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdaptiveSyncScheduler {
+
+    private static final int DEADLINE_PRIORITY = 8;
+    private static final int HOT_PRIORITY = 5;
+    private static final int DEFAULT_PRIORITY = 2;
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BackgroundJobService jobService;
+    private final AdaptiveSyncProperties properties;
+
+    private volatile Map<String, Object> lastRound = Map.of();
+
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${app.github.adaptive-sync.interval:300000}")
+    public void scheduleSyncs() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Candidate> candidates = loadCandidates(now);
+            List<Candidate> due = candidates.stream()
+                    .filter(candidate -> !candidate.syncQueued)
+                    .filter(candidate -> candidate.overdue >= 1)
+                    .sorted(Comparator.comparingDouble((Candidate candidate) -> candidate.overdue).reversed())
+                    .toList();
+
+            int budget = repositoriesPerRound();
+            List<Candidate> selected = due.subList(0, Math.min(budget, due.size()));
+            for (Candidate candidate : selected) {
+                jobService.enqueue(BackgroundJob.JobType.REPOSITORY_SYNC, RepositorySyncJobHandler.dedupKey(candidate.repositoryId),
+                        Map.of("repositoryId", candidate.repositoryId.toString(), "userId", candidate.ownerId.toString()),
+                        candidate.priority);
+            }
+
+            recordRound(now, candidates.size(), (int) candidates.stream().filter(candidate -> candidate.syncQueued).count(),
+                    due.size(), budget, selected);
+            if (!selected.isEmpty()) {
+                log.info("🎯 Adaptive sync queued {} of {} due repositories ({} tracked, budget {} per round)",
+                        selected.size(), due.size(), candidates.size(), budget);
+            }
+        } catch (Exception e) {
+            log.error("Adaptive sync round failed", e);
+        }
+    }
+
+    /**
+     * Outcome of the last scheduling round, with the repositories it queued
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>(lastRound);
+        stats.put("enabled", properties.isEnabled());
+        stats.put("repositoriesPerRound", repositoriesPerRound());
+        return stats;
+    }
+
+    private int repositoriesPerRound() {
+        double roundsPerHour = Duration.ofHours(1).toMillis() / (double) Math.max(1, properties.getInterval());
+        return Math.max(1, (int) (properties.getRequestBudgetPerHour() / roundsPerHour / Math.max(1, properties.getEstimatedRequestsPerSync())));
+    }
+
+    private List<Candidate> loadCandidates(LocalDateTime now) {
+        LocalDateTime deadlineLimit = now.plus(Duration.ofMillis(properties.getDeadlineWindow()));
+        return jdbcTemplate.query(
+                "SELECT r.id, r.full_name, r.owner_id, r.pushed_at, r.last_sync_at, "
+                        + "ws.status AS webhook_status, ws.failure_count, ws.last_delivery, "
+                        + "jobs.sync_queued, jobs.failed_syncs, jobs.last_failure, "
+                        + "(SELECT MIN(t.due_date) FROM groups g JOIN task_groups tg ON tg.group_id = g.id "
+                        + "JOIN tasks t ON t.id = tg.task_id WHERE g.repository_id = r.id AND t.due_date > ? AND t.due_date <= ? "
+                        + "AND t.status IN ('PUBLISHED', 'IN_PROGRESS')) AS next_deadline "
+                        + "FROM repositories r JOIN users u ON u.id = r.owner_id "
+                        + "LEFT JOIN webhook_subscriptions ws ON ws.repository_id = r.id "
+                        // Sync jobs of the repository: one still queued or retrying, failures since its last successful sync
+                        + "LEFT JOIN LATERAL (SELECT BOOL_OR(j.status IN ('PENDING', 'RUNNING')) AS sync_queued, "
+                        + "COUNT(*) FILTER (WHERE j.status = 'FAILED' AND (r.last_sync_at IS NULL OR j.finished_at > r.last_sync_at)) AS failed_syncs, "
+                        + "MAX(j.finished_at) FILTER (WHERE j.status = 'FAILED') AS last_failure "
+                        + "FROM background_jobs j WHERE j.dedup_key = '" + RepositorySyncJobHandler.DEDUP_KEY_PREFIX + "' || CAST(r.id AS varchar)) jobs ON true "
+                        + "WHERE r.is_active = true AND COALESCE(r.archived, false) = false AND COALESCE(r.disabled, false) = false "
+                        + "AND u.github_token IS NOT NULL AND u.github_token <> ''",
+                (rs, rowNum) -> {
+                    Candidate candidate = new Candidate();
+                    candidate.repositoryId = rs.getObject("id", UUID.class);
+                    candidate.fullName = rs.getString("full_name");
+                    candidate.ownerId = rs.getObject("owner_id", UUID.class);
+                    LocalDateTime pushedAt = toLocalDateTime(rs.getTimestamp("pushed_at"));
+                    LocalDateTime lastDelivery = toLocalDateTime(rs.getTimestamp("last_delivery"));
+                    LocalDateTime lastSyncAt = toLocalDateTime(rs.getTimestamp("last_sync_at"));
+                    boolean healthyWebhook = "ACTIVE".equals(rs.getString("webhook_status")) && rs.getInt("failure_count") == 0;
+                    boolean deadlineSoon = rs.getTimestamp("next_deadline") != null;
+                    candidate.syncQueued = rs.getBoolean("sync_queued");
+                    candidate.failedSyncs = rs.getInt("failed_syncs");
+                    rate(candidate, now, latest(pushedAt, lastDelivery), lastSyncAt, toLocalDateTime(rs.getTimestamp("last_failure")),
+                            healthyWebhook, deadlineSoon);
+                    return candidate;
+                },
+                Timestamp.valueOf(now), Timestamp.valueOf(deadlineLimit));
+    }
+
+    private void rate(Candidate candidate, LocalDateTime now, LocalDateTime lastActivity, LocalDateTime lastSyncAt,
+                      LocalDateTime lastFailure, boolean healthyWebhook, boolean deadlineSoon) {
+        long sinceActivity = lastActivity != null ? Duration.between(lastActivity, now).toMillis() : Long.MAX_VALUE;
+        long interval;
+        if (sinceActivity <= Duration.ofDays(1).toMillis()) {
+            interval = properties.getHotInterval();
+            candidate.reason = "hot";
+            candidate.priority = HOT_PRIORITY;
+        } else if (sinceActivity <= Duration.ofDays(7).toMillis()) {
+            interval = properties.getWarmInterval();
+            candidate.reason = "warm";
+            candidate.priority = DEFAULT_PRIORITY;
+        } else if (sinceActivity <= Duration.ofDays(30).toMillis()) {
+            interval = properties.getCoolInterval();
+            candidate.reason = "cool";
+            candidate.priority = DEFAULT_PRIORITY;
+        } else {
+            interval = properties.getDormantInterval();
+            candidate.reason = "dormant";
+            candidate.priority = DEFAULT_PRIORITY;
+        }
+        if (deadlineSoon) {
+            interval /= 4;
+            candidate.reason += ", deadline";
+            candidate.priority = DEADLINE_PRIORITY;
+        }
+        if (healthyWebhook) {
+            interval *= Math.max(1, properties.getHealthyWebhookFactor());
+            candidate.reason += ", webhook";
+        }
+        candidate.interval = Math.max(properties.getMinInterval(), interval);
+        if (candidate.failedSyncs > 0 && lastFailure != null) {
+            // Failing since the last successful sync: wait twice as long after each failed job, at most the dormant interval
+            long backoff = Math.min(candidate.interval << Math.min(candidate.failedSyncs, MAX_BACKOFF_SHIFT),
+                    Math.max(candidate.interval, properties.getDormantInterval()));
+            candidate.reason += ", " + candidate.failedSyncs + " failed";
+            candidate.overdue = Duration.between(lastFailure, now).toMillis() / (double) backoff;
+            return;
+        }
+        // Never synced: due right away, ahead of everything merely overdue
+        candidate.overdue = lastSyncAt == null
+                ? Double.MAX_VALUE
+                : Duration.between(lastSyncAt, now).toMillis() / (double) candidate.interval;
+    }
+
+    private void recordRound(LocalDateTime now, int tracked, int alreadyQueued, int due, int budget, List<Candidate> selected) {
+        List<Map<String, Object>> queued = new ArrayList<>();
+        for (Candidate candidate : selected.subList(0, Math.min(20, selected.size()))) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("repository", candidate.fullName);
+            entry.put("reason", candidate.reason);
+            entry.put("intervalMinutes", candidate.interval / 60000);
+            entry.put("overdue", candidate.overdue == Double.MAX_VALUE ? "never synced" : Math.round(candidate.overdue * 10) / 10.0);
+            entry.put("priority", candidate.priority);
+            queued.add(entry);
+        }
+        Map<String, Object> round = new HashMap<>();
+        round.put("lastRoundAt", now);
+        round.put("trackedRepositories", tracked);
+        round.put("alreadyQueuedRepositories", alreadyQueued);
+        round.put("dueRepositories", due);
+        round.put("queuedRepositories", selected.size());
+        round.put("budget", budget);
+        round.put("queued", queued);
+        lastRound = round;
+    }
+
+    private LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static class Candidate {
+        private UUID repositoryId;
+        private String fullName;
+        private UUID ownerId;
+        private long interval;
+        private double overdue;
+        private int priority;
+        private String reason;
+        private boolean syncQueued;
+        private int failedSyncs;
+    }
+}
@@ -6,8 +6,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
 import tn.esprithub.server.config.properties.WebhookProperties;
-import tn.esprithub.server.github.service.GitHubWebhookService;
+import tn.esprithub.server.github.job.WebhookSubscriptionJobHandler;
 import tn.esprithub.server.repository.entity.Repository;
 import tn.esprithub.server.repository.entity.WebhookSubscription;
 import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
@@ -17,6 +19,7 @@ import tn.esprithub.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -24,11 +27,11 @@ import java.util.List;
 @ConditionalOnProperty(name = "app.webhook.scheduling.enabled", havingValue = "true", matchIfMissing = true)
 public class WebhookSubscriptionScheduler {
     
-    private final GitHubWebhookService gitHubWebhookService;
     private final RepositoryEntityRepository repositoryRepository;
     private final WebhookSubscriptionRepository webhookSubscriptionRepository;
     private final UserRepository userRepository;
     private final WebhookProperties webhookProperties;
+    private final BackgroundJobService jobService;
     
     /**
      * Scheduled task to check and subscribe to webhooks for new repositories
@@ -66,15 +69,10 @@ public class WebhookSubscriptionScheduler {
                         continue;
                     }
                     
-                    log.info("Subscribing to webhook for repository: {} (owner: {})", 
-                            repository.getFullName(), owner.getEmail());
-                    
-                    gitHubWebhookService.subscribeToRepository(repository, owner);
+                    // Queued per repository: deduplicated across nodes, retried with backoff by the job queue
+                    enqueueSubscription(repository);
                     successCount++;
                     
-                    // Add small delay to avoid rate limiting
-                    Thread.sleep(1000);
-                    
                 } catch (Exception e) {
                     log.error("Failed to subscribe to webhook for repository: {}", 
                             repository.getFullName(), e);
@@ -82,7 +80,7 @@ public class WebhookSubscriptionScheduler {
                 }
             }
             
-            log.info("Webhook subscription check completed. Success: {}, Failures: {}", 
+            log.info("Webhook subscription check completed. Queued: {}, Failures: {}", 
                     successCount, failureCount);
                     
         } catch (Exception e) {
@@ -136,8 +134,7 @@ public class WebhookSubscriptionScheduler {
                         log.info("Retrying webhook subscription for repository: {}", 
                                 subscription.getRepository().getFullName());
                         
-                        User owner = subscription.getRepository().getOwner();
-                        gitHubWebhookService.subscribeToRepository(subscription.getRepository(), owner);
+                        enqueueSubscription(subscription.getRepository());
                         retrySuccessCount++;
                     } else {
                         log.warn("Max retry attempts reached for webhook subscription: {}", 
@@ -151,7 +148,7 @@ public class WebhookSubscriptionScheduler {
                 }
             }
             
-            log.info("Webhook health check completed. Retry success: {}, Retry failures: {}", 
+            log.info("Webhook health check completed. Retries queued: {}, Retry failures: {}", 
                     retrySuccessCount, retryFailureCount);
                     
         } catch (Exception e) {
@@ -159,6 +156,11 @@ public class WebhookSubscriptionScheduler {
         }
     }
     
+    private void enqueueSubscription(Repository repository) {
+        jobService.enqueue(BackgroundJob.JobType.WEBHOOK_SUBSCRIPTION, WebhookSubscriptionJobHandler.dedupKey(repository.getId()),
+                Map.of("repositoryId", repository.getId().toString()), 5);
+    }
+    
     /**
      * Scheduled task to clean up old webhook data
      * Runs daily at 2 AM
@@ -0,0 +1,49 @@
+package tn.esprithub.server.github.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.resilience.DependencyGuard;
+import tn.esprithub.server.common.resilience.DependencyGuards;
+
+import java.io.IOException;
+
+/**
+ * Puts every RestTemplate call to api.github.com behind the GitHub bulkhead and circuit breaker.
+ * Only transport errors and 5xx responses count as failures; 4xx are the caller's problem.
+ */
+@Component
+@RequiredArgsConstructor
+public class GitHubCircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GITHUB_API_HOST = "api.github.com";
+
+    private final DependencyGuards dependencyGuards;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!GITHUB_API_HOST.equalsIgnoreCase(request.getURI().getHost())) {
+            return execution.execute(request, body);
+        }
+
+        DependencyGuard guard = dependencyGuards.github();
+        guard.acquire();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            guard.onFailure();
+            throw e;
+        }
+
+        if (response.getStatusCode().is5xxServerError()) {
+            guard.onFailure();
+        } else {
+            guard.onSuccess();
+        }
+        return response;
+    }
+}
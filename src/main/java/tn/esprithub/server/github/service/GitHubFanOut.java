@@ -0,0 +1,160 @@
+package tn.esprithub.server.github.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.GitHubHttpProperties;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent GitHub calls concurrently on a bounded pool, with a per-call timeout.
+ * Optional calls degrade to a fallback value on failure or timeout so the caller still gets a
+ * partial result; required calls propagate their failure through {@link #join(CompletableFuture)}.
+ * The caller's rate-limit priority is carried onto the worker thread.
+ */
+@Component
+@Slf4j
+public class GitHubFanOut {
+
+    private final GitHubHttpProperties properties;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+    private final ExecutorService executor;
+
+    public GitHubFanOut(GitHubHttpProperties properties, GitHubRateLimitGovernor rateLimitGovernor) {
+        this.properties = properties;
+        this.rateLimitGovernor = rateLimitGovernor;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getFanOutPoolSize(),
+                properties.getFanOutPoolSize(),
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(properties.getFanOutQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "github-fanout-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        ((ThreadPoolExecutor) this.executor).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start a required call; its failure surfaces when the result is joined.
+     * On timeout the thread running the call is interrupted, which aborts the blocked HTTP exchange
+     * instead of leaving it to hold a pool (or, under caller-runs, a request) thread until the read timeout.
+     */
+    public <T> CompletableFuture<T> fork(String label, Supplier<T> call) {
+        GitHubRateLimitGovernor.Priority priority = rateLimitGovernor.currentPriority();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CancellableCall<T> task = new CancellableCall<>(result, () -> rateLimitGovernor.callWithPriority(priority, call));
+        result.orTimeout(properties.getFanOutCallTimeout(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> task.cancel());
+        executor.execute(task);
+        return result;
+    }
+
+    /**
+     * Start an optional call that yields {@code fallback} if it fails or times out.
+     */
+    public <T> CompletableFuture<T> fork(String label, Supplier<T> call, T fallback) {
+        return fork(label, call).exceptionally(ex -> {
+            Throwable cause = unwrap(ex);
+            if (cause instanceof TimeoutException) {
+                log.warn("⏱️ GitHub call '{}' timed out after {} ms, using partial result", label, properties.getFanOutCallTimeout());
+            } else {
+                log.warn("GitHub call '{}' failed, using partial result: {}", label, cause.getMessage());
+            }
+            return fallback;
+        });
+    }
+
+    /**
+     * Wait for a forked call, rethrowing its original exception.
+     */
+    public <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new BusinessException("GitHub request timed out");
+            }
+            throw new BusinessException("GitHub request failed: " + cause.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a call into its future and interrupts the running thread when the future completes first
+     * (timeout). The interrupt is only delivered while the call runs and is cleared afterwards, so it
+     * never leaks into the next task of the thread.
+     */
+    private static final class CancellableCall<T> implements Runnable {
+
+        private final CompletableFuture<T> result;
+        private final Supplier<T> call;
+        private Thread runner;
+        private boolean interrupted;
+
+        CancellableCall(CompletableFuture<T> result, Supplier<T> call) {
+            this.result = result;
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (result.isDone()) {
+                    return; // timed out while queued
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            // Normal completion runs this callback on the runner itself
+            if (runner != null && runner != Thread.currentThread()) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+
+    private Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,280 @@
+package tn.esprithub.server.github.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.GitHubGraphQLProperties;
+import tn.esprithub.server.github.dto.GitHubRepositoryMetadataDto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional GitHub GraphQL v4 backend. Fetches repository fields, languages, branch heads,
+ * commit totals, collaborator count and latest release for many repositories in one round trip,
+ * and keeps track of the GraphQL point cost of every query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubGraphQLService {
+
+    private static final String REPOSITORY_FIELDS = """
+            fragment RepoFields on Repository {
+              name nameWithOwner description isPrivate isArchived isDisabled isFork
+              hasIssuesEnabled hasProjectsEnabled hasWikiEnabled diskUsage stargazerCount forkCount
+              watchers { totalCount }
+              issues(states: OPEN) { totalCount }
+              createdAt updatedAt pushedAt
+              primaryLanguage { name }
+              licenseInfo { name }
+              repositoryTopics(first: 20) { nodes { topic { name } } }
+              languages(first: 20, orderBy: {field: SIZE, direction: DESC}) { edges { size node { name } } }
+              defaultBranchRef { name target { ... on Commit { history { totalCount } } } }
+              refs(refPrefix: "refs/heads/", first: 100) { nodes { name target { oid } branchProtectionRule { id } } }
+              collaborators(first: 1) { totalCount }
+              latestRelease { name tagName url publishedAt }
+            }
+            """;
+
+    private static final String COMMIT_COUNT_QUERY = """
+            query($owner: String!, $name: String!, $ref: String!) {
+              rateLimit { cost remaining limit resetAt }
+              repository(owner: $owner, name: $name) {
+                ref(qualifiedName: $ref) { target { ... on Commit { history { totalCount } } } }
+              }
+            }
+            """;
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final GitHubGraphQLProperties properties;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder totalCost = new LongAdder();
+    private final AtomicReference<JsonNode> lastRateLimit = new AtomicReference<>();
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Fetch metadata for the given repositories ("owner/name"), batching up to {@code batchSize}
+     * repositories per query. Repositories that cannot be resolved are absent from the result.
+     */
+    public Map<String, GitHubRepositoryMetadataDto> fetchRepositoryMetadata(String token, Collection<String> fullNames) {
+        Map<String, GitHubRepositoryMetadataDto> result = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(fullNames);
+
+        for (int start = 0; start < names.size(); start += properties.getBatchSize()) {
+            List<String> batch = names.subList(start, Math.min(start + properties.getBatchSize(), names.size()));
+            result.putAll(fetchBatch(token, batch));
+        }
+        return result;
+    }
+
+    public GitHubRepositoryMetadataDto fetchRepositoryMetadata(String token, String fullName) {
+        return fetchRepositoryMetadata(token, List.of(fullName)).get(fullName);
+    }
+
+    /**
+     * Total number of commits reachable from the given branch, or null if it cannot be resolved.
+     */
+    public Integer fetchCommitCount(String token, String owner, String repo, String branch) {
+        Map<String, Object> variables = Map.of("owner", owner, "name", repo, "ref", "refs/heads/" + branch);
+        JsonNode data = execute(token, COMMIT_COUNT_QUERY, variables);
+        JsonNode history = data.path("repository").path("ref").path("target").path("history");
+        return history.has("totalCount") ? history.get("totalCount").asInt() : null;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("queries", queryCount.sum());
+        stats.put("totalCost", totalCost.sum());
+        JsonNode rateLimit = lastRateLimit.get();
+        if (rateLimit != null) {
+            stats.put("remaining", rateLimit.path("remaining").asInt());
+            stats.put("limit", rateLimit.path("limit").asInt());
+            stats.put("resetAt", rateLimit.path("resetAt").asText());
+        }
+        return stats;
+    }
+
+    private Map<String, GitHubRepositoryMetadataDto> fetchBatch(String token, List<String> fullNames) {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        Map<String, Object> variables = new HashMap<>();
+
+        for (int i = 0; i < fullNames.size(); i++) {
+            String[] parts = fullNames.get(i).split("/", 2);
+            if (parts.length != 2) {
+                log.warn("Skipping invalid repository name for GraphQL batch: {}", fullNames.get(i));
+                continue;
+            }
+            declarations.append(declarations.isEmpty() ? "" : ", ").append("$o").append(i).append(": String!, $n").append(i).append(": String!");
+            selections.append("  r").append(i).append(": repository(owner: $o").append(i).append(", name: $n").append(i)
+                    .append(") { ...RepoFields }\n");
+            variables.put("o" + i, parts[0]);
+            variables.put("n" + i, parts[1]);
+        }
+
+        if (variables.isEmpty()) {
+            return Map.of();
+        }
+
+        String query = "query(" + declarations + ") {\n  rateLimit { cost remaining limit resetAt }\n" + selections + "}\n" + REPOSITORY_FIELDS;
+        JsonNode data = execute(token, query, variables);
+
+        Map<String, GitHubRepositoryMetadataDto> result = new LinkedHashMap<>();
+        for (int i = 0; i < fullNames.size(); i++) {
+            JsonNode repoNode = data.get("r" + i);
+            if (repoNode != null && !repoNode.isNull()) {
+                result.put(fullNames.get(i), toMetadata(repoNode));
+            }
+        }
+        log.debug("GraphQL batch resolved {}/{} repositories", result.size(), fullNames.size());
+        return result;
+    }
+
+    private JsonNode execute(String token, String query, Map<String, Object> variables) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("User-Agent", "Esprithub-Server");
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("query", query);
+        body.put("variables", variables);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    properties.getEndpoint(), HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+            JsonNode root = objectMapper.readTree(response.getBody());
+
+            JsonNode errors = root.path("errors");
+            if (errors.isArray() && !errors.isEmpty()) {
+                // Partial errors (e.g. no access to collaborators) still come with data
+                log.debug("GitHub GraphQL returned {} error(s): {}", errors.size(), errors.get(0).path("message").asText());
+            }
+
+            JsonNode data = root.path("data");
+            if (data.isMissingNode() || data.isNull()) {
+                throw new BusinessException("GitHub GraphQL query failed: " + errors);
+            }
+
+            recordCost(data.path("rateLimit"));
+            return data;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("GitHub GraphQL request failed: {}", e.getMessage());
+            throw new BusinessException("GitHub GraphQL request failed: " + e.getMessage());
+        }
+    }
+
+    private void recordCost(JsonNode rateLimit) {
+        queryCount.increment();
+        if (rateLimit.isMissingNode() || rateLimit.isNull()) {
+            return;
+        }
+        totalCost.add(rateLimit.path("cost").asLong());
+        lastRateLimit.set(rateLimit);
+        log.debug("GitHub GraphQL query cost {} (remaining {}/{})",
+                rateLimit.path("cost").asInt(), rateLimit.path("remaining").asInt(), rateLimit.path("limit").asInt());
+    }
+
+    private GitHubRepositoryMetadataDto toMetadata(JsonNode node) {
+        Map<String, Long> languages = new LinkedHashMap<>();
+        for (JsonNode edge : node.path("languages").path("edges")) {
+            languages.put(edge.path("node").path("name").asText(), edge.path("size").asLong());
+        }
+
+        List<String> topics = new ArrayList<>();
+        for (JsonNode topic : node.path("repositoryTopics").path("nodes")) {
+            topics.add(topic.path("topic").path("name").asText());
+        }
+
+        List<GitHubRepositoryMetadataDto.BranchHeadDto> branches = new ArrayList<>();
+        for (JsonNode ref : node.path("refs").path("nodes")) {
+            branches.add(GitHubRepositoryMetadataDto.BranchHeadDto.builder()
+                    .name(ref.path("name").asText())
+                    .sha(textOrNull(ref.path("target"), "oid"))
+                    .isProtected(ref.path("branchProtectionRule").isObject())
+                    .build());
+        }
+
+        JsonNode defaultBranch = node.path("defaultBranchRef");
+        JsonNode history = defaultBranch.path("target").path("history");
+        JsonNode collaborators = node.path("collaborators");
+        JsonNode release = node.path("latestRelease");
+
+        return GitHubRepositoryMetadataDto.builder()
+                .fullName(textOrNull(node, "nameWithOwner"))
+                .name(textOrNull(node, "name"))
+                .description(textOrNull(node, "description"))
+                .isPrivate(node.path("isPrivate").asBoolean())
+                .archived(node.path("isArchived").asBoolean())
+                .disabled(node.path("isDisabled").asBoolean())
+                .fork(node.path("isFork").asBoolean())
+                .hasIssues(node.path("hasIssuesEnabled").asBoolean())
+                .hasProjects(node.path("hasProjectsEnabled").asBoolean())
+                .hasWiki(node.path("hasWikiEnabled").asBoolean())
+                .defaultBranch(textOrNull(defaultBranch, "name"))
+                .primaryLanguage(textOrNull(node.path("primaryLanguage"), "name"))
+                .sizeKb(node.path("diskUsage").asLong())
+                .stargazersCount(node.path("stargazerCount").asInt())
+                .forksCount(node.path("forkCount").asInt())
+                .watchersCount(node.path("watchers").path("totalCount").asInt())
+                .openIssuesCount(node.path("issues").path("totalCount").asInt())
+                .licenseName(textOrNull(node.path("licenseInfo"), "name"))
+                .topics(topics)
+                .createdAt(parseGitHubDate(textOrNull(node, "createdAt")))
+                .updatedAt(parseGitHubDate(textOrNull(node, "updatedAt")))
+                .pushedAt(parseGitHubDate(textOrNull(node, "pushedAt")))
+                .languages(languages)
+                .branches(branches)
+                .totalCommits(history.has("totalCount") ? history.get("totalCount").asInt() : null)
+                .collaboratorCount(collaborators.has("totalCount") ? collaborators.get("totalCount").asInt() : null)
+                .latestRelease(release.isMissingNode() || release.isNull() ? null : GitHubRepositoryMetadataDto.ReleaseDto.builder()
+                        .name(textOrNull(release, "name"))
+                        .tagName(textOrNull(release, "tagName"))
+                        .url(textOrNull(release, "url"))
+                        .publishedAt(parseGitHubDate(textOrNull(release, "publishedAt")))
+                        .build())
+                .build();
+    }
+
+    private String textOrNull(JsonNode node, String field) {
+        return node != null && node.has(field) && !node.get(field).isNull() ? node.get(field).asText() : null;
+    }
+
+    private LocalDateTime parseGitHubDate(String dateString) {
+        if (dateString == null || dateString.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateString, DateTimeFormatter.ISO_DATE_TIME);
+        } catch (Exception e) {
+            log.debug("Failed to parse date: {}", dateString);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package tn.esprithub.server.github.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.GitHubHttpProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily streams the elements of a paginated GitHub list endpoint by following {@code Link: rel="next"}.
+ * The next page is requested in the background while the caller consumes the current one, so at most
+ * two pages are held in memory. Stopping early (e.g. with {@code takeWhile}) stops the pagination;
+ * close the stream (try-with-resources) to also drop a prefetch that is still in flight.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubPaginator {
+
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>;\\s*rel=\"next\"");
+
+    private final GitHubRestClient gitHubRestClient;
+    private final GitHubFanOut gitHubFanOut;
+    private final GitHubHttpProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stream every element of the list at {@code url} (which should carry {@code per_page=100}).
+     */
+    public Stream<JsonNode> stream(String url, HttpHeaders headers) {
+        PageIterator iterator = new PageIterator(url, headers);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::cancel);
+    }
+
+    /**
+     * Convenience for callers that need the full list.
+     */
+    public List<JsonNode> fetchAll(String url, HttpHeaders headers) {
+        try (Stream<JsonNode> elements = stream(url, headers)) {
+            return elements.toList();
+        }
+    }
+
+    private record Page(List<JsonNode> items, String nextUrl) {
+    }
+
+    private Page fetchPage(String url, HttpHeaders headers) {
+        ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
+        List<JsonNode> items = new ArrayList<>();
+        try {
+            JsonNode body = objectMapper.readTree(response.getBody());
+            if (body != null && body.isArray()) {
+                body.forEach(items::add);
+            }
+        } catch (Exception e) {
+            throw new BusinessException("Failed to parse GitHub page " + url + ": " + e.getMessage());
+        }
+        return new Page(items, nextLink(response.getHeaders().getFirst(HttpHeaders.LINK)));
+    }
+
+    private String nextLink(String linkHeader) {
+        if (linkHeader == null) {
+            return null;
+        }
+        Matcher matcher = NEXT_LINK.matcher(linkHeader);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private class PageIterator implements Iterator<JsonNode> {
+
+        private final HttpHeaders headers;
+        private Iterator<JsonNode> current = Collections.emptyIterator();
+        private CompletableFuture<Page> next;
+        private int pagesRequested;
+
+        PageIterator(String url, HttpHeaders headers) {
+            this.headers = headers;
+            this.next = request(url);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (next == null) {
+                    return false;
+                }
+                Page page = gitHubFanOut.join(next);
+                // Prefetch the following page while the caller works through this one
+                next = page.nextUrl() != null ? request(page.nextUrl()) : null;
+                current = page.items().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        void cancel() {
+            if (next != null) {
+                next.cancel(false);
+                next = null;
+            }
+        }
+
+        private CompletableFuture<Page> request(String url) {
+            if (pagesRequested >= properties.getMaxPages()) {
+                log.warn("Stopping pagination of {} after {} pages", url, pagesRequested);
+                return null;
+            }
+            pagesRequested++;
+            return gitHubFanOut.fork("page " + pagesRequested, () -> fetchPage(url, headers));
+        }
+    }
+}
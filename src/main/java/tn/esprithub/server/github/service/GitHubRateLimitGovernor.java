@@ -0,0 +1,256 @@
+package tn.esprithub.server.github.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.GitHubRateLimitProperties;
+import tn.esprithub.server.github.exception.GitHubApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Central GitHub rate-limit governor. Each token's remaining budget is tracked from the
+ * X-RateLimit-* response headers. Interactive calls are let through until the budget is exhausted,
+ * while background work (schedulers, bulk syncs) is paced with a token bucket that spreads the
+ * budget above {@code interactiveReserve} until the reset time, and is parked until the reset
+ * once that reserve is reached.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubRateLimitGovernor {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+    private static final int DEFAULT_LIMIT = 5000;
+
+    private final GitHubRateLimitProperties properties;
+    private final Map<String, TokenBudget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Run the given task with background priority on the current thread.
+     */
+    public <T> T callInBackground(Supplier<T> task) {
+        return callWithPriority(Priority.BACKGROUND, task);
+    }
+
+    /**
+     * Run the given task with an explicit priority, e.g. to carry the caller's priority onto a worker thread.
+     */
+    public <T> T callWithPriority(Priority priority, Supplier<T> task) {
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            return task.get();
+        } finally {
+            CURRENT_PRIORITY.set(previous);
+        }
+    }
+
+    public void runInBackground(Runnable task) {
+        callInBackground(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public Priority currentPriority() {
+        return CURRENT_PRIORITY.get();
+    }
+
+    /**
+     * Reserve one request for the given credentials. Interactive callers fail fast when the budget is
+     * exhausted; background callers are paced and parked until the reset time.
+     */
+    public void acquire(String authorization) {
+        if (!properties.isEnabled() || authorization == null) {
+            return;
+        }
+
+        TokenBudget budget = budgets.computeIfAbsent(keyFor(authorization), k -> new TokenBudget());
+        Priority priority = currentPriority();
+
+        while (true) {
+            long waitMillis;
+            synchronized (budget) {
+                long now = System.currentTimeMillis();
+                budget.rollOverIfReset(now);
+
+                if (priority == Priority.INTERACTIVE) {
+                    if (budget.blockedUntil > now || (budget.remaining <= 0 && budget.resetAtMillis > now)) {
+                        long resetAt = Math.max(budget.blockedUntil, budget.resetAtMillis);
+                        throw new GitHubApiException(HttpStatus.TOO_MANY_REQUESTS,
+                                "GitHub rate limit exhausted - try again after " + Instant.ofEpochMilli(resetAt));
+                    }
+                    budget.remaining--;
+                    return;
+                }
+
+                waitMillis = budget.backgroundWait(now);
+                if (waitMillis <= 0) {
+                    budget.remaining--;
+                    budget.bucket -= 1;
+                    return;
+                }
+            }
+            park(Math.min(waitMillis, properties.getMaxParkTime()));
+        }
+    }
+
+    /**
+     * Update the tracked budget from a GitHub response.
+     */
+    public void record(String authorization, int statusCode, HttpHeaders headers) {
+        if (!properties.isEnabled() || authorization == null || headers == null) {
+            return;
+        }
+
+        String resource = headers.getFirst("X-RateLimit-Resource");
+        if (resource != null && !"core".equalsIgnoreCase(resource)) {
+            // search, graphql, ... have separate budgets that must not overwrite the core one
+            return;
+        }
+
+        TokenBudget budget = budgets.computeIfAbsent(keyFor(authorization), k -> new TokenBudget());
+        Integer limit = parseInt(headers.getFirst("X-RateLimit-Limit"));
+        Integer remaining = parseInt(headers.getFirst("X-RateLimit-Remaining"));
+        Integer reset = parseInt(headers.getFirst("X-RateLimit-Reset"));
+        Integer retryAfter = parseInt(headers.getFirst(HttpHeaders.RETRY_AFTER));
+
+        synchronized (budget) {
+            if (limit != null) {
+                budget.limit = limit;
+            }
+            if (remaining != null) {
+                budget.remaining = remaining;
+            }
+            if (reset != null) {
+                budget.resetAtMillis = reset * 1000L;
+            }
+            if ((statusCode == 403 || statusCode == 429) && retryAfter != null) {
+                // Secondary rate limit: GitHub asks every caller to back off for a while
+                budget.blockedUntil = System.currentTimeMillis() + retryAfter * 1000L;
+                log.warn("⏳ GitHub secondary rate limit hit, backing off for {}s", retryAfter);
+            } else if ((statusCode == 403 || statusCode == 429) && remaining != null && remaining == 0) {
+                log.warn("⏳ GitHub rate limit exhausted, resets at {}", Instant.ofEpochMilli(budget.resetAtMillis));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> tokens = budgets.values().stream()
+                .map(budget -> {
+                    synchronized (budget) {
+                        Map<String, Object> entry = new HashMap<>();
+                        entry.put("limit", budget.limit);
+                        entry.put("remaining", budget.remaining);
+                        entry.put("resetAt", budget.resetAtMillis > 0 ? Instant.ofEpochMilli(budget.resetAtMillis).toString() : null);
+                        entry.put("parkedCalls", budget.parkedCalls);
+                        return entry;
+                    }
+                })
+                .toList();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("trackedTokens", budgets.size());
+        stats.put("interactiveReserve", properties.getInteractiveReserve());
+        stats.put("tokens", tokens);
+        return stats;
+    }
+
+    private void park(long millis) {
+        try {
+            Thread.sleep(Math.max(millis, 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for GitHub rate limit");
+        }
+    }
+
+    private Integer parseInt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String keyFor(String authorization) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(authorization.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private class TokenBudget {
+        private int limit = DEFAULT_LIMIT;
+        private int remaining = DEFAULT_LIMIT;
+        private long resetAtMillis;
+        private long blockedUntil;
+        private double bucket = properties.getBackgroundBurst();
+        private long lastRefill = System.currentTimeMillis();
+        private long parkedCalls;
+
+        private void rollOverIfReset(long now) {
+            if (resetAtMillis > 0 && now >= resetAtMillis) {
+                // The window has rolled over; assume a fresh budget until headers say otherwise
+                remaining = limit;
+                resetAtMillis = 0;
+            }
+        }
+
+        /**
+         * Milliseconds a background caller must wait before its next request, or 0 if it may proceed.
+         */
+        private long backgroundWait(long now) {
+            if (blockedUntil > now) {
+                parkedCalls++;
+                return blockedUntil - now;
+            }
+
+            int spendable = remaining - properties.getInteractiveReserve();
+            if (spendable <= 0) {
+                parkedCalls++;
+                long resetIn = resetAtMillis > now ? resetAtMillis - now : 60000;
+                log.info("🅿️ Parking background GitHub work for {}s (remaining {} <= reserve {})",
+                        resetIn / 1000, remaining, properties.getInteractiveReserve());
+                return resetIn + 1000;
+            }
+
+            double rate = properties.getBackgroundMaxRequestsPerSecond();
+            if (resetAtMillis > now) {
+                double secondsToReset = Math.max(1.0, (resetAtMillis - now) / 1000.0);
+                rate = Math.min(rate, spendable / secondsToReset);
+            }
+
+            bucket = Math.min(properties.getBackgroundBurst(), bucket + (now - lastRefill) / 1000.0 * rate);
+            lastRefill = now;
+            if (bucket >= 1) {
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket) / rate * 1000);
+        }
+    }
+}
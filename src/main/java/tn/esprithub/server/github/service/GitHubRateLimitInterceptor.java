@@ -0,0 +1,38 @@
+package tn.esprithub.server.github.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Routes every RestTemplate call to api.github.com through the {@link GitHubRateLimitGovernor}.
+ */
+@Component
+@RequiredArgsConstructor
+public class GitHubRateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GITHUB_API_HOST = "api.github.com";
+    private static final String GRAPHQL_PATH = "/graphql";
+
+    private final GitHubRateLimitGovernor governor;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        // GraphQL has its own point-based budget, accounted for by GitHubGraphQLService
+        if (!GITHUB_API_HOST.equalsIgnoreCase(request.getURI().getHost()) || GRAPHQL_PATH.equals(request.getURI().getPath())) {
+            return execution.execute(request, body);
+        }
+
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        governor.acquire(authorization);
+        ClientHttpResponse response = execution.execute(request, body);
+        governor.record(authorization, response.getStatusCode().value(), response.getHeaders());
+        return response;
+    }
+}
@@ -0,0 +1,186 @@
+package tn.esprithub.server.github.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import tn.esprithub.server.config.properties.GitHubCacheProperties;
+import tn.esprithub.server.user.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers which GitHub tokens may read which repositories. Access is checked with the token itself
+ * ({@code GET /repos/{owner}/{repo}}), so data shared between callers (local git mirrors, coalesced
+ * GETs) is only handed to a caller GitHub would have served directly. Confirmed access is trusted for
+ * {@code app.github.cache.access-ttl}, a denial for {@code denied-access-ttl}; transient failures are
+ * not remembered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubRepositoryAccessCache {
+
+    private static final String GITHUB_API_BASE = "https://api.github.com";
+    private static final List<Integer> DENIED_STATUSES = List.of(401, 403, 404);
+    private static final String MEMBERSHIP_QUERY =
+            "SELECT EXISTS (SELECT 1 FROM repositories r WHERE LOWER(r.full_name) = LOWER(?) AND (r.owner_id = ? "
+                    + "OR EXISTS (SELECT 1 FROM repository_collaborators c WHERE c.repository_id = r.id AND c.user_id = ? AND c.is_active = true) "
+                    + "OR EXISTS (SELECT 1 FROM groups g JOIN group_students gs ON gs.group_id = g.id "
+                    + "WHERE g.repository_id = r.id AND gs.student_id = ?) "
+                    + "OR EXISTS (SELECT 1 FROM groups g JOIN projects p ON p.id = g.project_id "
+                    + "WHERE g.repository_id = r.id AND p.created_by = ?)))";
+
+    private final GitHubRestClient gitHubRestClient;
+    private final GitHubCacheProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder denials = new LongAdder();
+
+    private final Map<String, AccessCheck> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AccessCheck> eldest) {
+            return size() > properties.getMaxAccessEntries();
+        }
+    };
+
+    private record AccessCheck(boolean allowed, long checkedAt) {
+    }
+
+    /**
+     * Whether {@code token} may read {@code fullName}, asking GitHub when no fresh answer is remembered
+     */
+    public boolean hasAccess(String token, String fullName) {
+        if (token == null || token.isBlank() || fullName == null || fullName.isBlank()) {
+            return false;
+        }
+        String key = keyFor(token, fullName);
+        AccessCheck remembered = lookup(key);
+        if (remembered != null) {
+            return remembered.allowed();
+        }
+
+        checks.increment();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set("Accept", "application/vnd.github+json");
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            boolean allowed = gitHubRestClient.conditionalGet(GITHUB_API_BASE + "/repos/" + fullName, headers)
+                    .getStatusCode().is2xxSuccessful();
+            remember(key, allowed);
+            return allowed;
+        } catch (HttpClientErrorException e) {
+            if (DENIED_STATUSES.contains(e.getStatusCode().value())) {
+                denials.increment();
+                remember(key, false);
+                log.debug("🔒 Token denied access to {} ({})", fullName, e.getStatusCode().value());
+            }
+            return false;
+        } catch (Exception e) {
+            log.debug("Could not check access to {}: {}", fullName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether the credentials of an {@code Authorization} header were already confirmed for {@code fullName};
+     * never calls GitHub
+     */
+    public boolean isConfirmed(String authorization, String fullName) {
+        if (authorization == null || fullName == null) {
+            return false;
+        }
+        AccessCheck remembered = lookup(keyFor(tokenOf(authorization), fullName));
+        return remembered != null && remembered.allowed();
+    }
+
+    /**
+     * Record access proven by a successful read of the repository made with these credentials
+     */
+    public void confirm(String authorization, String fullName) {
+        if (authorization != null && fullName != null) {
+            remember(keyFor(tokenOf(authorization), fullName), true);
+        }
+    }
+
+    /**
+     * Whether a user may be served the synced copy of a repository while GitHub cannot be asked: their token
+     * was confirmed for it, or they own it, collaborate on it, or belong to or teach a group working on it.
+     * Never calls GitHub.
+     */
+    public boolean maySeeSyncedCopy(User user, String fullName) {
+        if (user == null || user.getId() == null || fullName == null) {
+            return false;
+        }
+        if (user.getGithubToken() != null && !user.getGithubToken().isBlank()) {
+            AccessCheck remembered = lookup(keyFor(user.getGithubToken(), fullName));
+            if (remembered != null && remembered.allowed()) {
+                return true;
+            }
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(MEMBERSHIP_QUERY, Boolean.class,
+                fullName, user.getId(), user.getId(), user.getId(), user.getId()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("checks", checks.sum());
+        stats.put("denials", denials.sum());
+        return stats;
+    }
+
+    private AccessCheck lookup(String key) {
+        synchronized (entries) {
+            AccessCheck check = entries.get(key);
+            if (check == null) {
+                return null;
+            }
+            long ttl = check.allowed() ? properties.getAccessTtl() : properties.getDeniedAccessTtl();
+            if (System.currentTimeMillis() - check.checkedAt() > ttl) {
+                entries.remove(key);
+                return null;
+            }
+            return check;
+        }
+    }
+
+    private void remember(String key, boolean allowed) {
+        synchronized (entries) {
+            entries.put(key, new AccessCheck(allowed, System.currentTimeMillis()));
+        }
+    }
+
+    private String tokenOf(String authorization) {
+        int space = authorization.indexOf(' ');
+        return space >= 0 ? authorization.substring(space + 1).trim() : authorization.trim();
+    }
+
+    private String keyFor(String token, String fullName) {
+        return sha256(token) + "|" + fullName.toLowerCase();
+    }
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
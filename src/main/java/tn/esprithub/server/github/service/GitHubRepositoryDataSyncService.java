@@ -2,22 +2,39 @@ package tn.esprithub.server.github.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
+import tn.esprithub.server.common.blob.ContentBlobService;
+import tn.esprithub.server.config.properties.GitHubSyncProperties;
+import tn.esprithub.server.github.dto.GitHubRepositoryMetadataDto;
 import tn.esprithub.server.repository.entity.*;
 import tn.esprithub.server.repository.repository.*;
 import tn.esprithub.server.user.entity.User;
 import tn.esprithub.server.user.repository.UserRepository;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +43,7 @@ public class GitHubRepositoryDataSyncService {
     
     private static final String GITHUB_API_BASE = "https://api.github.com";
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private static final DateTimeFormatter SINCE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
@@ -33,14 +51,45 @@ public class GitHubRepositoryDataSyncService {
     private final RepositoryBranchRepository branchRepository;
     private final RepositoryCommitRepository commitRepository;
     private final RepositoryFileRepository fileRepository;
-    private final RepositoryCollaboratorRepository collaboratorRepository;
     private final UserRepository userRepository;
+    private final GitHubGraphQLService gitHubGraphQLService;
+    private final GitHubPaginator paginator;
+    private final GitHubFanOut gitHubFanOut;
+    private final GitHubSyncProperties syncProperties;
+    private final RepositoryBulkUpsertRepository bulkUpsertRepository;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+    private final ContentBlobService contentBlobService;
+    
+    private ExecutorService phaseExecutor;
+    
+    @PostConstruct
+    void startPhaseExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        phaseExecutor = Executors.newFixedThreadPool(syncProperties.getPhasePoolSize(), runnable -> {
+            Thread thread = new Thread(runnable, "github-sync-phase-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopPhaseExecutor() {
+        phaseExecutor.shutdownNow();
+    }
     
     /**
      * Sync ALL data for a repository from GitHub
      */
     @Transactional
     public void syncRepositoryData(Repository repository, String githubToken) {
+        syncRepositoryData(repository, githubToken, null);
+    }
+
+    /**
+     * Sync ALL data for a repository, reusing metadata already fetched in a GraphQL batch when available
+     */
+    @Transactional
+    public void syncRepositoryData(Repository repository, String githubToken, GitHubRepositoryMetadataDto prefetchedMetadata) {
         log.info("🔄 Starting comprehensive sync for repository: {}", repository.getFullName());
         
         try {
@@ -48,11 +97,18 @@ public class GitHubRepositoryDataSyncService {
             repository.setSyncError(null);
             repositoryRepository.save(repository);
             
+            // Branch and collaborator listings are independent of each other and of the metadata:
+            // page through them in the background while this thread does the rest (database writes stay here)
+            CompletableFuture<List<JsonNode>> branchesFetch = fetchListAsync(
+                    GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/branches?per_page=100", githubToken);
+            CompletableFuture<List<JsonNode>> collaboratorsFetch = fetchListAsync(
+                    GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/collaborators?per_page=100", githubToken);
+            
             // 1. Sync repository metadata
-            syncRepositoryMetadata(repository, githubToken);
+            syncRepositoryMetadata(repository, githubToken, prefetchedMetadata);
             
             // 2. Sync branches
-            syncRepositoryBranches(repository, githubToken);
+            syncRepositoryBranches(repository, branchesFetch);
             
             // 3. Sync commits for each branch
             syncRepositoryCommits(repository, githubToken);
@@ -61,7 +117,7 @@ public class GitHubRepositoryDataSyncService {
             syncRepositoryFiles(repository, githubToken);
             
             // 5. Sync collaborators
-            syncRepositoryCollaborators(repository, githubToken);
+            syncRepositoryCollaborators(repository, collaboratorsFetch);
             
             repository.setSyncStatus("COMPLETED");
             repository.setLastSyncAt(LocalDateTime.now());
@@ -80,8 +136,18 @@ public class GitHubRepositoryDataSyncService {
     /**
      * Sync repository metadata (languages, stats, etc.)
      */
-    private void syncRepositoryMetadata(Repository repository, String githubToken) {
+    private void syncRepositoryMetadata(Repository repository, String githubToken, GitHubRepositoryMetadataDto prefetchedMetadata) {
         try {
+            GitHubRepositoryMetadataDto metadata = prefetchedMetadata;
+            if (metadata == null && gitHubGraphQLService.isEnabled()) {
+                metadata = gitHubGraphQLService.fetchRepositoryMetadata(githubToken, repository.getFullName());
+            }
+            if (metadata != null) {
+                applyMetadata(repository, metadata);
+                log.debug("✅ Synced metadata for repository via GraphQL: {}", repository.getFullName());
+                return;
+            }
+
             // Get repository details
             String repoUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName();
             JsonNode repoData = makeGitHubApiCall(repoUrl, githubToken);
@@ -127,27 +193,49 @@ public class GitHubRepositoryDataSyncService {
         }
     }
     
+    private void applyMetadata(Repository repository, GitHubRepositoryMetadataDto metadata) {
+        repository.setLanguage(metadata.getPrimaryLanguage());
+        repository.setStarCount(metadata.getStargazersCount());
+        repository.setForkCount(metadata.getForksCount());
+        repository.setWatchersCount(metadata.getWatchersCount());
+        repository.setOpenIssuesCount(metadata.getOpenIssuesCount());
+        repository.setSizeKb(metadata.getSizeKb());
+        repository.setPushedAt(metadata.getPushedAt());
+        repository.setArchived(metadata.getArchived());
+        repository.setDisabled(metadata.getDisabled());
+        repository.setFork(metadata.getFork());
+        repository.setHasIssues(metadata.getHasIssues());
+        repository.setHasProjects(metadata.getHasProjects());
+        repository.setHasWiki(metadata.getHasWiki());
+        repository.setLicenseName(metadata.getLicenseName());
+
+        try {
+            repository.setTopicsJson(objectMapper.writeValueAsString(metadata.getTopics()));
+            repository.setLanguagesJson(objectMapper.writeValueAsString(metadata.getLanguages()));
+        } catch (Exception e) {
+            log.debug("Error serializing GraphQL metadata for {}", repository.getFullName());
+        }
+    }
+
     /**
      * Sync all branches for a repository
      */
-    private void syncRepositoryBranches(Repository repository, String githubToken) {
+    private void syncRepositoryBranches(Repository repository, CompletableFuture<List<JsonNode>> branchesFetch) {
         try {
-            String branchesUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/branches";
-            JsonNode branchesData = makeGitHubApiCall(branchesUrl, githubToken);
+            List<JsonNode> branchesData = awaitList(branchesFetch);
             
-            if (branchesData != null && branchesData.isArray()) {
+            if (!branchesData.isEmpty()) {
+                List<RepositoryBranch> branches = new ArrayList<>(branchesData.size());
                 for (JsonNode branchNode : branchesData) {
                     String branchName = getStringValue(branchNode, "name");
                     String sha = getStringValue(branchNode.get("commit"), "sha");
                     boolean isProtected = getBooleanValue(branchNode, "protected");
                     boolean isDefault = branchName.equals(repository.getDefaultBranch());
                     
-                    RepositoryBranch branch = branchRepository
-                            .findByRepositoryIdAndName(repository.getId(), branchName)
-                            .orElse(RepositoryBranch.builder()
-                                    .repository(repository)
-                                    .name(branchName)
-                                    .build());
+                    RepositoryBranch branch = RepositoryBranch.builder()
+                            .repository(repository)
+                            .name(branchName)
+                            .build();
                     
                     branch.setSha(sha);
                     branch.setIsProtected(isProtected);
@@ -166,10 +254,11 @@ public class GitHubRepositoryDataSyncService {
                         }
                     }
                     
-                    branchRepository.save(branch);
+                    branches.add(branch);
                 }
                 
-                log.debug("✅ Synced {} branches for repository: {}", branchesData.size(), repository.getFullName());
+                RepositoryBulkUpsertRepository.UpsertResult upserted = bulkUpsertRepository.upsertBranches(repository.getId(), branches);
+                log.debug("✅ Synced {} branches for repository: {} ({} new)", upserted.total(), repository.getFullName(), upserted.inserted());
             }
             
         } catch (Exception e) {
@@ -178,68 +267,117 @@ public class GitHubRepositoryDataSyncService {
     }
     
     /**
-     * Sync commits for repository (limited to recent commits to avoid overwhelming the database)
+     * Incremental commit sync: each branch keeps a high-water mark (last synced SHA and date).
+     * Branches whose head has not moved cost no API call; otherwise only commits since the mark are
+     * requested, paging stops at the mark, and the new rows are inserted in one batch.
      */
     private void syncRepositoryCommits(Repository repository, String githubToken) {
         try {
-            // Get commits for the default branch (limit to recent 100 commits)
-            String commitsUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/commits?per_page=100";
-            JsonNode commitsData = makeGitHubApiCall(commitsUrl, githubToken);
-            
-            if (commitsData != null && commitsData.isArray()) {
-                for (JsonNode commitNode : commitsData) {
-                    String sha = getStringValue(commitNode, "sha");
-                    
-                    // Skip if commit already exists
-                    if (commitRepository.existsByRepositoryIdAndSha(repository.getId(), sha)) {
-                        continue;
-                    }
-                    
-                    JsonNode commitDetails = commitNode.get("commit");
-                    JsonNode author = commitDetails.get("author");
-                    JsonNode committer = commitDetails.get("committer");
-                    JsonNode stats = commitNode.get("stats");
-                    
-                    RepositoryCommit commit = RepositoryCommit.builder()
-                            .repository(repository)
-                            .sha(sha)
-                            .message(getStringValue(commitDetails, "message"))
-                            .authorName(getStringValue(author, "name"))
-                            .authorEmail(getStringValue(author, "email"))
-                            .authorDate(parseGitHubDate(getStringValue(author, "date")))
-                            .committerName(getStringValue(committer, "name"))
-                            .committerEmail(getStringValue(committer, "email"))
-                            .committerDate(parseGitHubDate(getStringValue(committer, "date")))
-                            .githubUrl(getStringValue(commitNode, "html_url"))
-                            .build();
-                    
-                    if (stats != null) {
-                        commit.setAdditions(getIntValue(stats, "additions"));
-                        commit.setDeletions(getIntValue(stats, "deletions"));
-                        commit.setTotalChanges(getIntValue(stats, "total"));
-                    }
-                    
-                    if (commitNode.has("parents") && commitNode.get("parents").isArray()) {
-                        List<String> parentShas = new ArrayList<>();
-                        for (JsonNode parent : commitNode.get("parents")) {
-                            parentShas.add(getStringValue(parent, "sha"));
-                        }
-                        commit.setParentShas(String.join(",", parentShas));
-                    }
-                    
-                    commitRepository.save(commit);
+            List<RepositoryBranch> branches = branchRepository.findByRepositoryId(repository.getId());
+            int synced = 0;
+            Set<String> knownShas = null; // Loaded once, only when a branch has never been synced
+
+            for (RepositoryBranch branch : branches) {
+                if (branch.getSha() != null && branch.getSha().equals(branch.getLastSyncedCommitSha())) {
+                    continue; // Head unchanged since the last sync
                 }
-                
-                log.debug("✅ Synced {} commits for repository: {}", commitsData.size(), repository.getFullName());
+                if (branch.getLastSyncedCommitSha() == null && knownShas == null) {
+                    knownShas = new HashSet<>(commitRepository.findShasByRepositoryId(repository.getId()));
+                }
+                synced += syncBranchCommits(repository, branch, githubToken, knownShas);
             }
+
+            log.debug("✅ Synced {} new commits across {} branches for repository: {}",
+                    synced, branches.size(), repository.getFullName());
             
         } catch (Exception e) {
             log.error("❌ Error syncing repository commits: {}", repository.getFullName(), e);
         }
     }
+
+    private int syncBranchCommits(Repository repository, RepositoryBranch branch, String githubToken, Set<String> knownShas) {
+        String cursorSha = branch.getLastSyncedCommitSha();
+        StringBuilder commitsUrl = new StringBuilder(GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/commits?per_page=100")
+                .append("&sha=").append(URLEncoder.encode(branch.getName(), StandardCharsets.UTF_8));
+        if (cursorSha != null && branch.getLastSyncedCommitDate() != null) {
+            commitsUrl.append("&since=").append(branch.getLastSyncedCommitDate().format(SINCE_FORMATTER));
+        }
+
+        // Newest first: stop at the high-water mark, or for a branch never synced, at the first stored commit
+        List<JsonNode> newCommits;
+        try (Stream<JsonNode> commits = paginator.stream(commitsUrl.toString(), githubHeaders(githubToken))
+                .takeWhile(commitNode -> {
+                    String sha = getStringValue(commitNode, "sha");
+                    return cursorSha != null ? !sha.equals(cursorSha) : !knownShas.contains(sha);
+                })) {
+            newCommits = commits.toList();
+        }
+        if (knownShas != null) {
+            newCommits.forEach(commitNode -> knownShas.add(getStringValue(commitNode, "sha")));
+        }
+
+        if (!newCommits.isEmpty()) {
+            // Commits reachable from several branches are stored once: the upsert keeps the existing row
+            RepositoryBulkUpsertRepository.UpsertResult upserted = bulkUpsertRepository.upsertCommits(repository.getId(),
+                    newCommits.stream().map(commitNode -> toCommitEntity(repository, branch, commitNode)).toList());
+
+            JsonNode head = newCommits.get(0);
+            branch.setLastSyncedCommitSha(getStringValue(head, "sha"));
+            branch.setLastSyncedCommitDate(parseGitHubDate(getStringValue(head.path("commit").path("committer"), "date")));
+            branchRepository.save(branch);
+            return upserted.inserted();
+        }
+
+        if (branch.getSha() != null && !branch.getSha().equals(cursorSha)) {
+            // Nothing new (e.g. force-push back to a known commit): just move the mark to the head
+            branch.setLastSyncedCommitSha(branch.getSha());
+            branchRepository.save(branch);
+        }
+        return 0;
+    }
+
+    private RepositoryCommit toCommitEntity(Repository repository, RepositoryBranch branch, JsonNode commitNode) {
+        JsonNode commitDetails = commitNode.get("commit");
+        JsonNode author = commitDetails.get("author");
+        JsonNode committer = commitDetails.get("committer");
+        JsonNode stats = commitNode.get("stats");
+        
+        RepositoryCommit commit = RepositoryCommit.builder()
+                .repository(repository)
+                .branch(branch)
+                .sha(getStringValue(commitNode, "sha"))
+                .message(getStringValue(commitDetails, "message"))
+                .authorName(getStringValue(author, "name"))
+                .authorEmail(getStringValue(author, "email"))
+                .authorDate(parseGitHubDate(getStringValue(author, "date")))
+                .committerName(getStringValue(committer, "name"))
+                .committerEmail(getStringValue(committer, "email"))
+                .committerDate(parseGitHubDate(getStringValue(committer, "date")))
+                .githubUrl(getStringValue(commitNode, "html_url"))
+                .build();
+        
+        if (stats != null) {
+            commit.setAdditions(getIntValue(stats, "additions"));
+            commit.setDeletions(getIntValue(stats, "deletions"));
+            commit.setTotalChanges(getIntValue(stats, "total"));
+        }
+        
+        if (commitNode.has("parents") && commitNode.get("parents").isArray()) {
+            List<String> parentShas = new ArrayList<>();
+            for (JsonNode parent : commitNode.get("parents")) {
+                parentShas.add(getStringValue(parent, "sha"));
+            }
+            commit.setParentShas(String.join(",", parentShas));
+        }
+        return commit;
+    }
     
     /**
-     * Sync files for repository (default branch only, to avoid overwhelming the database)
+     * Sync files for repository (default branch only, to avoid overwhelming the database).
+     * One recursive git tree call lists every path with its blob SHA: an unchanged root tree skips the
+     * sync entirely, otherwise only new or changed blobs are downloaded (in parallel, a bounded window at a
+     * time) and vanished paths removed. The tree SHA is only recorded once every blob was fetched, so a
+     * failed download is retried on the next sync instead of waiting for the next push.
      */
     private void syncRepositoryFiles(Repository repository, String githubToken) {
         try {
@@ -247,109 +385,193 @@ public class GitHubRepositoryDataSyncService {
             if (defaultBranch == null || defaultBranch.isBlank()) {
                 defaultBranch = "main"; // fallback
             }
+            String branchName = defaultBranch;
+            RepositoryBranch branch = branchRepository.findByRepositoryIdAndName(repository.getId(), branchName).orElse(null);
             
-            syncDirectoryFiles(repository, githubToken, defaultBranch, "", 0);
+            String treeRef = branch != null && branch.getSha() != null
+                    ? branch.getSha()
+                    : URLEncoder.encode(branchName, StandardCharsets.UTF_8);
+            JsonNode treeData = makeGitHubApiCall(GITHUB_API_BASE + "/repos/" + repository.getFullName()
+                    + "/git/trees/" + treeRef + "?recursive=1", githubToken);
+            if (treeData == null || !treeData.has("tree")) {
+                log.debug("No tree available for repository: {} (branch: {})", repository.getFullName(), branchName);
+                return;
+            }
             
-            log.debug("✅ Synced files for repository: {} (branch: {})", repository.getFullName(), defaultBranch);
+            String rootTreeSha = getStringValue(treeData, "sha");
+            if (branch != null && rootTreeSha != null && rootTreeSha.equals(branch.getLastSyncedTreeSha())) {
+                log.debug("✅ Files unchanged for repository: {} (branch: {})", repository.getFullName(), branchName);
+                return;
+            }
+            
+            // Only path and blob SHA are needed to diff against the tree
+            Map<String, String> existingShas = new HashMap<>();
+            for (Object[] row : fileRepository.findPathAndShaByRepositoryIdAndBranchName(repository.getId(), branchName)) {
+                existingShas.put((String) row[0], (String) row[1]);
+            }
+            
+            List<RepositoryFile> changedFiles = new ArrayList<>();
+            List<RepositoryFile> blobFiles = new ArrayList<>();
+            for (JsonNode entry : treeData.get("tree")) {
+                String filePath = getStringValue(entry, "path");
+                String sha = getStringValue(entry, "sha");
+                String storedSha = existingShas.remove(filePath);
+                if (sha != null && sha.equals(storedSha)) {
+                    continue; // Same blob as last sync
+                }
+                RepositoryFile file = RepositoryFile.builder()
+                        .repository(repository)
+                        .branchName(branchName)
+                        .filePath(filePath)
+                        .fileName(filePath.substring(filePath.lastIndexOf('/') + 1))
+                        .build();
+                
+                String fileType = toFileType(entry);
+                file.setFileType(fileType);
+                file.setSha(sha);
+                file.setFileSize(getLongValue(entry, "size"));
+                file.setGithubUrl("https://github.com/" + repository.getFullName()
+                        + ("dir".equals(fileType) ? "/tree/" : "/blob/") + branchName + "/" + filePath);
+                
+                String fileName = file.getFileName();
+                if (fileName.contains(".")) {
+                    String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+                    file.setFileExtension(extension);
+                    file.setLanguage(detectLanguage(extension));
+                }
+                
+                if ("file".equals(fileType)) {
+                    file.setDownloadUrl("https://raw.githubusercontent.com/" + repository.getFullName() + "/" + branchName + "/" + filePath);
+                    boolean tooLarge = file.getFileSize() != null && file.getFileSize() > syncProperties.getMaxBlobSize();
+                    file.setIsTruncated(tooLarge);
+                    if (!tooLarge) {
+                        blobFiles.add(file);
+                    }
+                }
+                changedFiles.add(file);
+            }
+            
+            int failedBlobs = fetchBlobContents(repository, blobFiles, githubToken);
+            RepositoryBulkUpsertRepository.UpsertResult upserted = bulkUpsertRepository.upsertFiles(repository.getId(), changedFiles);
+            
+            // A truncated listing (very large repositories) does not tell which paths really vanished
+            boolean completeListing = !getBooleanValue(treeData, "truncated");
+            int removed = completeListing && !existingShas.isEmpty()
+                    ? fileRepository.deleteByRepositoryIdAndBranchNameAndFilePathIn(repository.getId(), branchName, existingShas.keySet())
+                    : 0;
+            
+            if (branch != null && completeListing && failedBlobs == 0) {
+                branch.setLastSyncedTreeSha(rootTreeSha);
+                branchRepository.save(branch);
+            }
+            
+            log.debug("✅ Synced files for repository: {} (branch: {}, {} added, {} updated, {} blobs fetched, {} failed, {} removed)",
+                    repository.getFullName(), branchName, upserted.inserted(), upserted.updated(),
+                    blobFiles.size() - failedBlobs, failedBlobs, removed);
             
         } catch (Exception e) {
             log.error("❌ Error syncing repository files: {}", repository.getFullName(), e);
         }
     }
     
+    private String toFileType(JsonNode treeEntry) {
+        String type = getStringValue(treeEntry, "type");
+        if ("tree".equals(type)) {
+            return "dir";
+        }
+        if ("commit".equals(type)) {
+            return "submodule";
+        }
+        return "120000".equals(getStringValue(treeEntry, "mode")) ? "symlink" : "file";
+    }
+    
     /**
-     * Recursively sync files in a directory (with depth limit to avoid infinite recursion)
+     * Download the blobs of these files, at most {@code blob-fetch-window} at a time, so neither the
+     * parallelism nor the buffered JSON grows with the size of the diff
+     *
+     * @return number of blobs that could not be fetched
      */
-    private void syncDirectoryFiles(Repository repository, String githubToken, String branchName, String path, int depth) {
-        if (depth > 5) { // Limit recursion depth
-            return;
+    private int fetchBlobContents(Repository repository, List<RepositoryFile> files, String githubToken) {
+        int window = Math.max(1, syncProperties.getBlobFetchWindow());
+        int failed = 0;
+        for (int start = 0; start < files.size(); start += window) {
+            List<RepositoryFile> slice = files.subList(start, Math.min(start + window, files.size()));
+            List<CompletableFuture<JsonNode>> fetches = new ArrayList<>(slice.size());
+            for (RepositoryFile file : slice) {
+                String blobUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/git/blobs/" + file.getSha();
+                fetches.add(gitHubFanOut.fork("blob " + file.getFilePath(), () -> makeGitHubApiCall(blobUrl, githubToken), null));
+            }
+            for (int i = 0; i < slice.size(); i++) {
+                if (!applyBlobContent(slice.get(i), gitHubFanOut.join(fetches.get(i)))) {
+                    failed++;
+                }
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Store a blob's content in the blob store: text as UTF-8, anything containing NUL bytes kept base64 encoded
+     *
+     * @return false when the blob could not be fetched
+     */
+    private boolean applyBlobContent(RepositoryFile file, JsonNode blob) {
+        String content = getStringValue(blob, "content");
+        if (content == null) {
+            file.setSha(null); // Not fetched: retry on the next sync
+            return false;
         }
-        
         try {
-            String contentsUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/contents/" + path + "?ref=" + branchName;
-            JsonNode contentsData = makeGitHubApiCall(contentsUrl, githubToken);
-            
-            if (contentsData != null && contentsData.isArray()) {
-                for (JsonNode fileNode : contentsData) {
-                    String filePath = getStringValue(fileNode, "path");
-                    String fileName = getStringValue(fileNode, "name");
-                    String fileType = getStringValue(fileNode, "type");
-                    
-                    RepositoryFile file = fileRepository
-                            .findByRepositoryIdAndBranchNameAndFilePath(repository.getId(), branchName, filePath)
-                            .orElse(RepositoryFile.builder()
-                                    .repository(repository)
-                                    .branchName(branchName)
-                                    .filePath(filePath)
-                                    .fileName(fileName)
-                                    .build());
-                    
-                    file.setFileType(fileType);
-                    file.setSha(getStringValue(fileNode, "sha"));
-                    file.setFileSize(getLongValue(fileNode, "size"));
-                    file.setGithubUrl(getStringValue(fileNode, "html_url"));
-                    file.setDownloadUrl(getStringValue(fileNode, "download_url"));
-                    
-                    if (fileName.contains(".")) {
-                        String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
-                        file.setFileExtension(extension);
-                        file.setLanguage(detectLanguage(extension));
-                    }
-                    
-                    // For files (not directories), get content if it's small enough
-                    if ("file".equals(fileType) && file.getFileSize() != null && file.getFileSize() < 1024 * 1024) { // < 1MB
-                        try {
-                            if (fileNode.has("content")) {
-                                String content = getStringValue(fileNode, "content");
-                                String encoding = getStringValue(fileNode, "encoding");
-                                
-                                file.setContent(content);
-                                file.setEncoding(encoding);
-                                file.setIsBinary("base64".equals(encoding));
-                                
-                                // Count lines for text files
-                                if (!"base64".equals(encoding) && content != null) {
-                                    file.setLinesCount(content.split("\n").length);
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.debug("Could not get content for file: {}", filePath);
-                        }
-                    }
-                    
-                    fileRepository.save(file);
-                    
-                    // Recursively process directories
-                    if ("dir".equals(fileType)) {
-                        syncDirectoryFiles(repository, githubToken, branchName, filePath, depth + 1);
-                    }
+            byte[] bytes = "base64".equals(getStringValue(blob, "encoding"))
+                    ? Base64.getMimeDecoder().decode(content)
+                    : content.getBytes(StandardCharsets.UTF_8);
+            boolean binary = false;
+            for (byte b : bytes) {
+                if (b == 0) {
+                    binary = true;
+                    break;
                 }
             }
-            
-        } catch (Exception e) {
-            log.debug("Could not sync directory: {} (this is normal for large repositories)", path);
+            file.setIsBinary(binary);
+            if (binary) {
+                file.setContentHash(contentBlobService.store(Base64.getEncoder().encodeToString(bytes)));
+                file.setEncoding("base64");
+            } else {
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                file.setContentHash(contentBlobService.store(text));
+                file.setEncoding("utf-8");
+                file.setLinesCount(text.isEmpty() ? 0 : text.split("\n", -1).length);
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Could not decode content for file: {}", file.getFilePath());
         }
+        return true;
     }
     
     /**
      * Sync collaborators for repository
      */
-    private void syncRepositoryCollaborators(Repository repository, String githubToken) {
+    private void syncRepositoryCollaborators(Repository repository, CompletableFuture<List<JsonNode>> collaboratorsFetch) {
         try {
-            String collaboratorsUrl = GITHUB_API_BASE + "/repos/" + repository.getFullName() + "/collaborators";
-            JsonNode collaboratorsData = makeGitHubApiCall(collaboratorsUrl, githubToken);
+            List<JsonNode> collaboratorsData = awaitList(collaboratorsFetch);
             
-            if (collaboratorsData != null && collaboratorsData.isArray()) {
+            if (!collaboratorsData.isEmpty()) {
+                // Link to internal users with one lookup for the whole list
+                Map<String, User> usersByLogin = new HashMap<>();
+                userRepository.findByGithubUsernameIn(collaboratorsData.stream()
+                                .map(collabNode -> getStringValue(collabNode, "login")).toList())
+                        .forEach(user -> usersByLogin.put(user.getGithubUsername(), user));
+                
+                List<RepositoryCollaborator> collaborators = new ArrayList<>(collaboratorsData.size());
                 for (JsonNode collabNode : collaboratorsData) {
                     String githubUsername = getStringValue(collabNode, "login");
                     Long githubUserId = getLongValue(collabNode, "id");
                     
-                    RepositoryCollaborator collaborator = collaboratorRepository
-                            .findByRepositoryIdAndGithubUsername(repository.getId(), githubUsername)
-                            .orElse(RepositoryCollaborator.builder()
-                                    .repository(repository)
-                                    .githubUsername(githubUsername)
-                                    .build());
+                    RepositoryCollaborator collaborator = RepositoryCollaborator.builder()
+                            .repository(repository)
+                            .githubUsername(githubUsername)
+                            .permissionLevel("read")
+                            .build();
                     
                     collaborator.setGithubUserId(githubUserId);
                     collaborator.setAvatarUrl(getStringValue(collabNode, "avatar_url"));
@@ -371,14 +593,12 @@ public class GitHubRepositoryDataSyncService {
                         }
                     }
                     
-                    // Try to link to internal user
-                    userRepository.findByGithubUsername(githubUsername)
-                            .ifPresent(collaborator::setUser);
-                    
-                    collaboratorRepository.save(collaborator);
+                    collaborator.setUser(usersByLogin.get(githubUsername));
+                    collaborators.add(collaborator);
                 }
                 
-                log.debug("✅ Synced {} collaborators for repository: {}", collaboratorsData.size(), repository.getFullName());
+                RepositoryBulkUpsertRepository.UpsertResult upserted = bulkUpsertRepository.upsertCollaborators(repository.getId(), collaborators);
+                log.debug("✅ Synced {} collaborators for repository: {} ({} new)", upserted.total(), repository.getFullName(), upserted.inserted());
             }
             
         } catch (Exception e) {
@@ -387,14 +607,40 @@ public class GitHubRepositoryDataSyncService {
     }
     
     // Utility methods
+    
+    /**
+     * Page through a GitHub list on the sync phase pool, keeping the caller's rate-limit priority.
+     * Not on the fan-out pool: the paginator itself forks page prefetches there.
+     */
+    private CompletableFuture<List<JsonNode>> fetchListAsync(String url, String token) {
+        GitHubRateLimitGovernor.Priority priority = rateLimitGovernor.currentPriority();
+        return CompletableFuture.supplyAsync(
+                () -> rateLimitGovernor.callWithPriority(priority, () -> paginator.fetchAll(url, githubHeaders(token))),
+                phaseExecutor);
+    }
+    
+    private List<JsonNode> awaitList(CompletableFuture<List<JsonNode>> fetch) {
+        try {
+            return fetch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private HttpHeaders githubHeaders(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set("Accept", "application/vnd.github.v3+json");
+        headers.set("User-Agent", "EspritHub-Repository-Sync");
+        return headers;
+    }
+
     private JsonNode makeGitHubApiCall(String url, String token) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(token);
-            headers.set("Accept", "application/vnd.github.v3+json");
-            headers.set("User-Agent", "EspritHub-Repository-Sync");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+            HttpEntity<String> entity = new HttpEntity<>(githubHeaders(token));
             ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
             
             if (response.getStatusCode().is2xxSuccessful()) {
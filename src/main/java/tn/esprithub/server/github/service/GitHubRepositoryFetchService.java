@@ -2,13 +2,19 @@ package tn.esprithub.server.github.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
+import tn.esprithub.server.github.dto.GitHubRepositoryMetadataDto;
+import tn.esprithub.server.github.job.RepositorySyncJobHandler;
 import tn.esprithub.server.repository.entity.Repository;
+import tn.esprithub.server.repository.repository.RepositoryBulkUpsertRepository;
 import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
 import tn.esprithub.server.user.entity.User;
 
@@ -31,6 +37,11 @@ public class GitHubRepositoryFetchService {
     private final ObjectMapper objectMapper;
     private final RepositoryEntityRepository repositoryRepository;
     private final GitHubRepositoryDataSyncService dataSyncService;
+    private final GitHubGraphQLService gitHubGraphQLService;
+    private final GitHubPaginator paginator;
+    private final RepositoryBulkUpsertRepository bulkUpsertRepository;
+    private final EntityManager entityManager;
+    private final BackgroundJobService jobService;
     
     /**
      * Fetch repositories for a user only if needed (new user or data is stale)
@@ -45,6 +56,15 @@ public class GitHubRepositoryFetchService {
      */
     @Transactional
     public List<Repository> fetchAndSaveUserRepositories(User user, boolean forceRefresh) {
+        return fetchAndSaveUserRepositories(user, forceRefresh, true);
+    }
+
+    /**
+     * Fetch repositories for a user; without {@code triggerSync} the caller runs
+     * {@link #syncRepositoriesData(List, User)} itself once this transaction has committed
+     */
+    @Transactional
+    public List<Repository> fetchAndSaveUserRepositories(User user, boolean forceRefresh, boolean triggerSync) {
         log.info("Checking repositories for user: {} (GitHub: {}) - Force: {}", user.getEmail(), user.getGithubUsername(), forceRefresh);
 
         if (user.getGithubToken() == null || user.getGithubToken().isBlank()) {
@@ -78,7 +98,7 @@ public class GitHubRepositoryFetchService {
 
             log.info("Found {} repositories for user: {} ({})", allRepos.size(), user.getEmail(), user.getGithubUsername());
             
-            List<Repository> savedRepositories = new ArrayList<>();
+            List<Repository> fetchedRepositories = new ArrayList<>();
             
             for (JsonNode repoNode : allRepos) {
                 try {
@@ -90,31 +110,35 @@ public class GitHubRepositoryFetchService {
                            repository.getIsPrivate(),
                            repoNode.get("owner").get("login").asText());
 
-                    // Check if repository already exists
-                    Repository existingRepo = repositoryRepository.findByFullName(repository.getFullName())
-                            .orElse(null);
-
-                    if (existingRepo == null) {
-                        Repository savedRepo = repositoryRepository.save(repository);
-                        savedRepositories.add(savedRepo);
-                        log.info("✅ Saved NEW repository: {} (private: {})", repository.getFullName(), repository.getIsPrivate());
-                    } else {
-                        // Update existing repository
-                        updateExistingRepository(existingRepo, repoNode);
-                        Repository updatedRepo = repositoryRepository.save(existingRepo);
-                        savedRepositories.add(updatedRepo);
-                        log.info("🔄 Updated existing repository: {} (private: {})", existingRepo.getFullName(), existingRepo.getIsPrivate());
-                    }
+                    fetchedRepositories.add(repository);
 
                 } catch (Exception e) {
                     log.error("❌ Error processing repository: {}", repoNode.get("full_name").asText(), e);
                 }
             }
             
+            // Write the caller's pending changes first: the detach below would otherwise drop them
+            entityManager.flush();
+            // New repositories are inserted and existing ones refreshed in a few multi-row statements
+            RepositoryBulkUpsertRepository.UpsertResult upserted = bulkUpsertRepository.upsertRepositories(fetchedRepositories);
+            log.info("✅ Saved {} NEW and updated {} existing repositories for user: {}",
+                    upserted.inserted(), upserted.updated(), user.getEmail());
+
+            // Rows were written outside of JPA: detach the Repository instances this transaction already holds
+            // (and only those, the caller's user and other entities stay managed) before reading them back
+            List<Repository> savedRepositories = new ArrayList<>();
+            if (!fetchedRepositories.isEmpty()) {
+                List<String> fullNames = fetchedRepositories.stream().map(Repository::getFullName).toList();
+                repositoryRepository.findByFullNameIn(fullNames).forEach(entityManager::detach);
+                savedRepositories = repositoryRepository.findByFullNameIn(fullNames);
+            }
+            
             log.info("Successfully processed {} repositories for user: {}", savedRepositories.size(), user.getEmail());
 
             // Trigger comprehensive sync for new repositories in a separate transaction
-            triggerComprehensiveSync(savedRepositories, user);
+            if (triggerSync) {
+                triggerComprehensiveSync(savedRepositories, user);
+            }
 
             return savedRepositories;
             
@@ -127,7 +151,8 @@ public class GitHubRepositoryFetchService {
     /**
      * Check if we should fetch repositories for a user
      */
-    private boolean shouldFetchRepositories(User user) {
+    @Transactional(readOnly = true)
+    public boolean shouldFetchRepositories(User user) {
         List<Repository> existingRepos = repositoryRepository.findByOwnerIdAndIsActiveTrue(user.getId());
 
         // If no repositories exist, we should fetch
@@ -151,25 +176,58 @@ public class GitHubRepositoryFetchService {
     }
 
     /**
-     * Trigger comprehensive sync for repositories in a separate transaction
+     * Queue a comprehensive sync job per repository
      */
     private void triggerComprehensiveSync(List<Repository> repositories, User user) {
         if (user.getGithubToken() == null || user.getGithubToken().isBlank()) {
             return;
         }
 
-        // Run comprehensive sync asynchronously to avoid transaction issues
-        new Thread(() -> {
-            for (Repository repository : repositories) {
-                try {
-                    Thread.sleep(1000); // Small delay between syncs to avoid rate limiting
-                    dataSyncService.syncRepositoryData(repository, user.getGithubToken());
-                    log.info("✅ Completed comprehensive sync for repository: {}", repository.getFullName());
-                } catch (Exception e) {
-                    log.warn("Failed to sync comprehensive data for repository: {}", repository.getFullName(), e);
-                }
+        // Queued in this transaction: the jobs only become visible (to any node) once the repositories are committed
+        for (Repository repository : repositories) {
+            jobService.enqueue(BackgroundJob.JobType.REPOSITORY_SYNC, RepositorySyncJobHandler.dedupKey(repository.getId()),
+                    Map.of("repositoryId", repository.getId().toString(), "userId", user.getId().toString()), 10);
+        }
+    }
+
+    /**
+     * Run the comprehensive sync of each repository, one transaction per repository
+     *
+     * @return the number of repositories synced without error
+     */
+    public int syncRepositoriesData(List<Repository> repositories, User user) {
+        if (user.getGithubToken() == null || user.getGithubToken().isBlank()) {
+            return 0;
+        }
+
+        Map<String, GitHubRepositoryMetadataDto> metadata = prefetchMetadata(repositories, user.getGithubToken());
+        int synced = 0;
+        for (Repository repository : repositories) {
+            try {
+                dataSyncService.syncRepositoryData(repository, user.getGithubToken(), metadata.get(repository.getFullName()));
+                synced++;
+                log.info("✅ Completed comprehensive sync for repository: {}", repository.getFullName());
+            } catch (Exception e) {
+                log.warn("Failed to sync comprehensive data for repository: {}", repository.getFullName(), e);
             }
-        }).start();
+        }
+        return synced;
+    }
+
+    /**
+     * Fetch metadata for all repositories in a few GraphQL queries instead of several REST calls per repository
+     */
+    private Map<String, GitHubRepositoryMetadataDto> prefetchMetadata(List<Repository> repositories, String token) {
+        if (!gitHubGraphQLService.isEnabled()) {
+            return Map.of();
+        }
+        try {
+            return gitHubGraphQLService.fetchRepositoryMetadata(token,
+                    repositories.stream().map(Repository::getFullName).toList());
+        } catch (Exception e) {
+            log.warn("GraphQL metadata prefetch failed, falling back to REST: {}", e.getMessage());
+            return Map.of();
+        }
     }
 
     /**
@@ -213,51 +271,20 @@ public class GitHubRepositoryFetchService {
      */
     private List<JsonNode> fetchRepositoriesWithParams(String token, String affiliation, String visibility, String sort) {
         List<JsonNode> repos = new ArrayList<>();
-        int page = 1;
-        int perPage = 100; // Maximum allowed by GitHub API
 
         try {
-            while (true) {
-                String url = GITHUB_API_BASE + "/user/repos" +
-                           "?affiliation=" + affiliation +
-                           "&visibility=" + visibility +
-                           "&sort=" + sort +
-                           "&per_page=" + perPage +
-                           "&page=" + page;
-
-                log.debug("Fetching repositories: {}", url);
-
-                HttpHeaders headers = createHeaders(token);
-                HttpEntity<String> entity = new HttpEntity<>(headers);
-
-                ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    JsonNode repoArray = objectMapper.readTree(response.getBody());
-
-                    if (repoArray.isArray() && repoArray.size() > 0) {
-                        for (JsonNode repo : repoArray) {
-                            repos.add(repo);
-                        }
+            String url = GITHUB_API_BASE + "/user/repos" +
+                       "?affiliation=" + affiliation +
+                       "&visibility=" + visibility +
+                       "&sort=" + sort +
+                       "&per_page=100"; // Maximum allowed by GitHub API
 
-                        log.debug("Fetched {} repositories from page {} (affiliation: {}, visibility: {})",
-                                repoArray.size(), page, affiliation, visibility);
+            log.debug("Fetching repositories: {}", url);
 
-                        // If we got less than perPage results, we've reached the end
-                        if (repoArray.size() < perPage) {
-                            break;
-                        }
+            // Follows the Link header, prefetching the next page while this one is collected
+            repos.addAll(paginator.fetchAll(url, createHeaders(token)));
 
-                        page++;
-                    } else {
-                        break;
-                    }
-                } else {
-                    log.warn("GitHub API returned status: {} for affiliation: {}, visibility: {}",
-                           response.getStatusCode(), affiliation, visibility);
-                    break;
-                }
-            }
+            log.debug("Fetched {} repositories (affiliation: {}, visibility: {})", repos.size(), affiliation, visibility);
         } catch (Exception e) {
             log.error("Error fetching repositories with affiliation: {}, visibility: {}", affiliation, visibility, e);
         }
@@ -333,20 +360,6 @@ public class GitHubRepositoryFetchService {
                 .build();
     }
     
-    /**
-     * Update existing repository with fresh data from GitHub
-     */
-    private void updateExistingRepository(Repository existingRepo, JsonNode repoNode) {
-        existingRepo.setDescription(repoNode.has("description") && !repoNode.get("description").isNull() 
-                                  ? repoNode.get("description").asText() : null);
-        existingRepo.setUrl(repoNode.get("html_url").asText());
-        existingRepo.setCloneUrl(repoNode.get("clone_url").asText());
-        existingRepo.setSshUrl(repoNode.get("ssh_url").asText());
-        existingRepo.setIsPrivate(repoNode.get("private").asBoolean());
-        existingRepo.setDefaultBranch(repoNode.get("default_branch").asText());
-        existingRepo.setUpdatedAt(parseGitHubDate(repoNode.get("updated_at").asText()));
-    }
-    
     /**
      * Parse GitHub date format to LocalDateTime
      */
@@ -5,11 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
+import tn.esprithub.server.github.job.RepositorySyncAllJobHandler;
 import tn.esprithub.server.repository.entity.Repository;
 import tn.esprithub.server.user.entity.User;
 import tn.esprithub.server.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +25,7 @@ public class GitHubRepositoryScheduler {
     private final UserRepository userRepository;
     private final GitHubRepositoryFetchService gitHubRepositoryFetchService;
     private final GitHubWebhookService gitHubWebhookService;
+    private final BackgroundJobService jobService;
     
     /**
      * Smart repository fetch - only fetches if data is stale (every 24 hours)
@@ -29,37 +35,9 @@ public class GitHubRepositoryScheduler {
         log.info("🧠 Starting SMART repository fetch (only for stale data)");
 
         try {
-            List<User> usersWithTokens = userRepository.findUsersWithGitHubTokens();
-            log.info("Found {} users with GitHub tokens", usersWithTokens.size());
-
-            int checkedCount = 0;
-            int fetchedCount = 0;
-            int skippedCount = 0;
-            int errorCount = 0;
-
-            for (User user : usersWithTokens) {
-                try {
-                    checkedCount++;
-
-                    // Only fetch if repositories are stale or missing
-                    List<Repository> repositories = gitHubRepositoryFetchService.fetchAndSaveUserRepositories(user, false);
-
-                    if (repositories.isEmpty()) {
-                        skippedCount++;
-                        log.debug("⏭️ Skipped user: {} - no repositories or recently synced", user.getEmail());
-                    } else {
-                        fetchedCount++;
-                        log.debug("🔄 Fetched {} repositories for user: {}", repositories.size(), user.getEmail());
-                    }
-
-                } catch (Exception e) {
-                    errorCount++;
-                    log.error("❌ Error checking repositories for user: {} ({})", user.getEmail(), user.getGithubUsername(), e);
-                }
-            }
-
-            log.info("✅ Smart fetch completed. Checked: {}, Fetched: {}, Skipped: {}, Errors: {}",
-                   checkedCount, fetchedCount, skippedCount, errorCount);
+            // Runs as a single queued job, so only one node performs it even when every node schedules it
+            UUID jobId = enqueueSyncAll(false);
+            log.info("✅ Smart fetch queued as job {}", jobId);
 
         } catch (Exception e) {
             log.error("Error during smart repository fetch", e);
@@ -73,29 +51,9 @@ public class GitHubRepositoryScheduler {
         log.info("🔄 Starting FORCED repository fetch for all users");
 
         try {
-            List<User> usersWithTokens = userRepository.findUsersWithGitHubTokens();
-            log.info("Found {} users with GitHub tokens", usersWithTokens.size());
-
-            int successCount = 0;
-            int errorCount = 0;
-
-            for (User user : usersWithTokens) {
-                try {
-                    log.debug("Fetching repositories for user: {} ({})", user.getEmail(), user.getGithubUsername());
-
-                    // Force refresh
-                    List<Repository> repositories = gitHubRepositoryFetchService.fetchAndSaveUserRepositories(user, true);
-
-                    successCount++;
-                    log.debug("Successfully processed {} repositories for user: {}", repositories.size(), user.getEmail());
-
-                } catch (Exception e) {
-                    errorCount++;
-                    log.error("Error fetching repositories for user: {} ({})", user.getEmail(), user.getGithubUsername(), e);
-                }
-            }
-
-            log.info("Completed forced repository fetch. Success: {}, Errors: {}", successCount, errorCount);
+            // Force refresh
+            UUID jobId = enqueueSyncAll(true);
+            log.info("Forced repository fetch queued as job {}", jobId);
 
         } catch (Exception e) {
             log.error("Error during forced repository fetch", e);
@@ -129,6 +87,16 @@ public class GitHubRepositoryScheduler {
         }
     }
     
+    /**
+     * Queue the fetch + sync of every user's repositories (users are partitioned per token by {@link GitHubSyncExecutor})
+     *
+     * @return the id of the queued job, or of the one already pending/running
+     */
+    public UUID enqueueSyncAll(boolean forceRefresh) {
+        return jobService.enqueue(BackgroundJob.JobType.REPOSITORY_SYNC_ALL, RepositorySyncAllJobHandler.DEDUP_KEY,
+                Map.of("forceRefresh", forceRefresh), 0);
+    }
+    
     /**
      * Fetch repositories for all users immediately (manual trigger)
      */
@@ -4,15 +4,19 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.exception.DependencyUnavailableException;
 import tn.esprithub.server.github.dto.GitHubRepositoryDetailsDto;
+import tn.esprithub.server.github.dto.GitHubRepositoryMetadataDto;
+import tn.esprithub.server.github.mirror.GitMirrorService;
+import tn.esprithub.server.repository.repository.RepositoryBranchRepository;
+import tn.esprithub.server.repository.repository.RepositoryCommitRepository;
 import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
+import tn.esprithub.server.repository.repository.RepositoryFileRepository;
 import tn.esprithub.server.user.entity.User;
 
 import java.time.LocalDateTime;
@@ -21,7 +25,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -29,9 +35,16 @@ import java.util.UUID;
 public class GitHubRepositoryService {
     
     private static final String GITHUB_API_BASE = "https://api.github.com";
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final GitHubRestClient gitHubRestClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final RepositoryEntityRepository repositoryRepository;
+    private final GitHubFanOut gitHubFanOut;
+    private final RepositoryBranchRepository branchRepository;
+    private final RepositoryCommitRepository commitRepository;
+    private final RepositoryFileRepository fileRepository;
+    private final GitMirrorService gitMirrorService;
+    private final GitHubRepositoryAccessCache accessCache;
+    private final GitHubGraphQLService gitHubGraphQLService;
 
     public GitHubRepositoryDetailsDto getRepositoryDetails(String owner, String repo, User user) {
         if (user.getGithubToken() == null || user.getGithubToken().isBlank()) {
@@ -42,19 +55,41 @@ public class GitHubRepositoryService {
             owner, repo, user.getEmail(), user.getRole());
 
         try {
-            // Get basic repository information
-            JsonNode repoData = fetchRepositoryData(owner, repo, user.getGithubToken());
-            
-            // Get additional data in parallel
-            List<GitHubRepositoryDetailsDto.BranchDto> branches = fetchBranches(owner, repo, user.getGithubToken());
-            List<GitHubRepositoryDetailsDto.CommitDto> commits = fetchRecentCommits(owner, repo, user.getGithubToken());
-            List<GitHubRepositoryDetailsDto.ContributorDto> contributors = fetchContributors(owner, repo, user.getGithubToken());
-            Map<String, Integer> languages = fetchLanguages(owner, repo, user.getGithubToken());
-            List<GitHubRepositoryDetailsDto.ReleaseDto> releases = fetchReleases(owner, repo, user.getGithubToken());
-            List<GitHubRepositoryDetailsDto.FileDto> files = fetchFiles(owner, repo, user.getGithubToken());
+            String token = user.getGithubToken();
+
+            // Fan out the independent calls; only the repository itself is required
+            CompletableFuture<JsonNode> repoData = gitHubFanOut.fork("repository", () -> fetchRepositoryData(owner, repo, token));
+            CompletableFuture<List<GitHubRepositoryDetailsDto.CommitDto>> commits =
+                    gitHubFanOut.fork("commits", () -> fetchRecentCommits(owner, repo, token), new ArrayList<>());
+            CompletableFuture<List<GitHubRepositoryDetailsDto.ContributorDto>> contributors =
+                    gitHubFanOut.fork("contributors", () -> fetchContributors(owner, repo, token), new ArrayList<>());
+            CompletableFuture<List<GitHubRepositoryDetailsDto.ReleaseDto>> releases =
+                    gitHubFanOut.fork("releases", () -> fetchReleases(owner, repo, token), new ArrayList<>());
+            CompletableFuture<List<GitHubRepositoryDetailsDto.FileDto>> files =
+                    gitHubFanOut.fork("files", () -> fetchFiles(owner, repo, token), new ArrayList<>());
+            // With the batch query enabled, branches and languages come from one GraphQL call; REST stays as the fallback
+            CompletableFuture<GitHubRepositoryMetadataDto> metadataFuture = gitHubGraphQLService.isEnabled()
+                    ? gitHubFanOut.fork("metadata", () -> gitHubGraphQLService.fetchRepositoryMetadata(token, owner + "/" + repo), null)
+                    : CompletableFuture.completedFuture(null);
+
+            GitHubRepositoryMetadataDto metadata = metadataFuture.join();
+            CompletableFuture<List<GitHubRepositoryDetailsDto.BranchDto>> branches = metadata != null
+                    ? CompletableFuture.completedFuture(toBranches(metadata))
+                    : gitHubFanOut.fork("branches", () -> fetchBranches(owner, repo, token), new ArrayList<>());
+            CompletableFuture<Map<String, Integer>> languages = metadata != null
+                    ? CompletableFuture.completedFuture(toLanguages(metadata))
+                    : gitHubFanOut.fork("languages", () -> fetchLanguages(owner, repo, token), new HashMap<>());
 
-            return buildRepositoryDetailsDto(repoData, branches, commits, contributors, languages, releases, files);
+            return buildRepositoryDetailsDto(gitHubFanOut.join(repoData), branches.join(), commits.join(),
+                    contributors.join(), languages.join(), releases.join(), files.join());
             
+        } catch (DependencyUnavailableException e) {
+            if (!accessCache.maySeeSyncedCopy(user, owner + "/" + repo)) {
+                throw e;
+            }
+            log.warn("GitHub unavailable, serving synced data for {}/{}: {}", owner, repo, e.getMessage());
+            return buildRepositoryDetailsFromSyncedData(owner, repo)
+                    .orElseThrow(() -> e);
         } catch (Exception e) {
             log.error("Error fetching repository details for {}/{}: {}", owner, repo, e.getMessage());
             throw new BusinessException("Failed to fetch repository details: " + e.getMessage());
@@ -91,16 +126,105 @@ public class GitHubRepositoryService {
         }
     }
 
+    /**
+     * Fallback used while GitHub is short-circuited: rebuild the details from the last synced copy.
+     */
+    private Optional<GitHubRepositoryDetailsDto> buildRepositoryDetailsFromSyncedData(String owner, String repo) {
+        return repositoryRepository.findByFullName(owner + "/" + repo).map(repository -> {
+            List<GitHubRepositoryDetailsDto.BranchDto> branches = branchRepository
+                    .findByRepositoryIdOrderByDefaultAndName(repository.getId()).stream()
+                    .map(branch -> GitHubRepositoryDetailsDto.BranchDto.builder()
+                            .name(branch.getName())
+                            .sha(branch.getSha())
+                            .isProtected(branch.getIsProtected())
+                            .lastCommit(GitHubRepositoryDetailsDto.CommitDto.builder()
+                                    .sha(branch.getSha())
+                                    .message(branch.getLastCommitMessage())
+                                    .authorName(branch.getLastCommitAuthor())
+                                    .date(branch.getLastCommitDate())
+                                    .build())
+                            .build())
+                    .toList();
+
+            List<GitHubRepositoryDetailsDto.CommitDto> commits = commitRepository
+                    .findByRepositoryIdOrderByDateDesc(repository.getId(), PageRequest.of(0, 10)).stream()
+                    .map(commit -> GitHubRepositoryDetailsDto.CommitDto.builder()
+                            .sha(commit.getSha())
+                            .message(commit.getMessage())
+                            .authorName(commit.getAuthorName())
+                            .authorEmail(commit.getAuthorEmail())
+                            .date(commit.getAuthorDate())
+                            .htmlUrl(commit.getGithubUrl())
+                            .build())
+                    .toList();
+
+            List<GitHubRepositoryDetailsDto.FileDto> files = fileRepository
+                    .findByRepositoryIdAndBranchNameOrderByFilePathAsc(repository.getId(), repository.getDefaultBranch()).stream()
+                    .filter(file -> !file.getFilePath().contains("/"))
+                    .map(file -> GitHubRepositoryDetailsDto.FileDto.builder()
+                            .name(file.getFileName())
+                            .path(file.getFilePath())
+                            .type(file.getFileType())
+                            .sha(file.getSha())
+                            .size(file.getFileSize() != null ? file.getFileSize().intValue() : null)
+                            .downloadUrl(file.getDownloadUrl())
+                            .htmlUrl(file.getGithubUrl())
+                            .lastModified(file.getLastModified())
+                            .lastCommitMessage(file.getLastCommitMessage())
+                            .lastCommitSha(file.getLastCommitSha())
+                            .build())
+                    .toList();
+
+            Map<String, Integer> languages = new HashMap<>();
+            try {
+                if (repository.getLanguagesJson() != null) {
+                    objectMapper.readTree(repository.getLanguagesJson())
+                            .fields().forEachRemaining(entry -> languages.put(entry.getKey(), entry.getValue().asInt()));
+                }
+            } catch (Exception e) {
+                log.debug("Could not parse synced languages for {}", repository.getFullName());
+            }
+
+            return GitHubRepositoryDetailsDto.builder()
+                    .id(repository.getGithubId() != null ? repository.getGithubId().toString() : repository.getId().toString())
+                    .name(repository.getName())
+                    .fullName(repository.getFullName())
+                    .description(repository.getDescription())
+                    .url(repository.getUrl())
+                    .htmlUrl(repository.getUrl())
+                    .cloneUrl(repository.getCloneUrl())
+                    .sshUrl(repository.getSshUrl())
+                    .isPrivate(repository.getIsPrivate())
+                    .defaultBranch(repository.getDefaultBranch())
+                    .size(repository.getSizeKb() != null ? repository.getSizeKb().intValue() : null)
+                    .language(repository.getLanguage())
+                    .stargazersCount(repository.getStarCount())
+                    .watchersCount(repository.getWatchersCount())
+                    .forksCount(repository.getForkCount())
+                    .openIssuesCount(repository.getOpenIssuesCount())
+                    .createdAt(repository.getCreatedAt())
+                    .updatedAt(repository.getUpdatedAt())
+                    .pushedAt(repository.getPushedAt())
+                    .owner(GitHubRepositoryDetailsDto.OwnerDto.builder().login(owner).name(owner).build())
+                    .branches(branches)
+                    .recentCommits(commits)
+                    .contributors(new ArrayList<>())
+                    .languages(languages)
+                    .releases(new ArrayList<>())
+                    .files(files)
+                    .build();
+        });
+    }
+
     private JsonNode fetchRepositoryData(String owner, String repo, String token) {
         String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo;
         log.info("Making GitHub API call to: {}", url);
         log.info("Using token starting with: {}...", token != null && token.length() > 10 ? token.substring(0, 10) : "null");
         
         HttpHeaders headers = createHeaders(token);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Successfully fetched repository data for {}/{}", owner, repo);
@@ -126,6 +250,8 @@ public class GitHubRepositoryService {
                 log.error("GitHub API error {} for repository {}/{}: {}", e.getStatusCode(), owner, repo, e.getMessage());
                 throw new BusinessException("GitHub API error: " + e.getStatusCode() + " - " + e.getMessage());
             }
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error parsing repository data for {}/{}: {}", owner, repo, e.getMessage());
             throw new BusinessException("Failed to parse repository data: " + e.getMessage());
@@ -136,9 +262,8 @@ public class GitHubRepositoryService {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/branches";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode branches = objectMapper.readTree(response.getBody());
             
             List<GitHubRepositoryDetailsDto.BranchDto> branchList = new ArrayList<>();
@@ -165,13 +290,35 @@ public class GitHubRepositoryService {
         }
     }
 
+    private List<GitHubRepositoryDetailsDto.BranchDto> toBranches(GitHubRepositoryMetadataDto metadata) {
+        List<GitHubRepositoryDetailsDto.BranchDto> branchList = new ArrayList<>();
+        if (metadata.getBranches() != null) {
+            for (GitHubRepositoryMetadataDto.BranchHeadDto branch : metadata.getBranches()) {
+                branchList.add(GitHubRepositoryDetailsDto.BranchDto.builder()
+                        .name(branch.getName())
+                        .sha(branch.getSha())
+                        .isProtected(Boolean.TRUE.equals(branch.getIsProtected()))
+                        .lastCommit(GitHubRepositoryDetailsDto.CommitDto.builder().sha(branch.getSha()).build())
+                        .build());
+            }
+        }
+        return branchList;
+    }
+
+    private Map<String, Integer> toLanguages(GitHubRepositoryMetadataDto metadata) {
+        Map<String, Integer> languageMap = new HashMap<>();
+        if (metadata.getLanguages() != null) {
+            metadata.getLanguages().forEach((language, bytes) -> languageMap.put(language, bytes.intValue()));
+        }
+        return languageMap;
+    }
+
     private List<GitHubRepositoryDetailsDto.CommitDto> fetchRecentCommits(String owner, String repo, String token) {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/commits?per_page=10";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode commits = objectMapper.readTree(response.getBody());
             
             List<GitHubRepositoryDetailsDto.CommitDto> commitList = new ArrayList<>();
@@ -201,9 +348,8 @@ public class GitHubRepositoryService {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/contributors?per_page=10";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode contributors = objectMapper.readTree(response.getBody());
             
             List<GitHubRepositoryDetailsDto.ContributorDto> contributorList = new ArrayList<>();
@@ -227,9 +373,8 @@ public class GitHubRepositoryService {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/languages";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode languages = objectMapper.readTree(response.getBody());
             
             Map<String, Integer> languageMap = new HashMap<>();
@@ -247,9 +392,8 @@ public class GitHubRepositoryService {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/releases?per_page=5";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode releases = objectMapper.readTree(response.getBody());
             
             List<GitHubRepositoryDetailsDto.ReleaseDto> releaseList = new ArrayList<>();
@@ -278,9 +422,8 @@ public class GitHubRepositoryService {
         try {
             String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/contents";
             HttpHeaders headers = createHeaders(token);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
             
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             JsonNode files = objectMapper.readTree(response.getBody());
             
             List<GitHubRepositoryDetailsDto.FileDto> fileList = new ArrayList<>();
@@ -308,11 +451,14 @@ public class GitHubRepositoryService {
      * Fetch file content from GitHub by owner/repo/branch/path
      */
     public Map<String, Object> fetchFileContent(String owner, String repo, String branch, String path, String token) {
+        Optional<Map<String, Object>> mirrored = gitMirrorService.readContents(owner + "/" + repo, branch, path, token);
+        if (mirrored.isPresent()) {
+            return mirrored.get();
+        }
         String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/contents/" + path + "?ref=" + branch;
         HttpHeaders headers = createHeaders(token);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
         try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            ResponseEntity<String> response = gitHubRestClient.conditionalGet(url, headers);
             if (response.getStatusCode().is2xxSuccessful()) {
                 JsonNode fileNode = objectMapper.readTree(response.getBody());
                 Map<String, Object> result = new HashMap<>();
@@ -0,0 +1,144 @@
+package tn.esprithub.server.github.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.GitHubCacheProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory LRU cache of GitHub GET responses with their validators (ETag / Last-Modified).
+ * Entries are keyed by a hash of the credentials plus the URL, so a response fetched with one
+ * user's token is never served to another user. The cache is bounded both by entry count and by
+ * the total size of the cached bodies; least-recently-used entries are evicted past either bound.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubResponseCache {
+
+    private final GitHubCacheProperties properties;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Access-ordered, guarded by its own monitor together with totalSize
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalSize;
+
+    public record CachedResponse(String etag, String lastModified, String body, HttpHeaders headers) {
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String keyFor(String url, HttpHeaders requestHeaders) {
+        String authorization = requestHeaders.getFirst(HttpHeaders.AUTHORIZATION);
+        String accept = requestHeaders.getFirst(HttpHeaders.ACCEPT);
+        return sha256(authorization != null ? authorization : "anonymous") + "|" + accept + "|" + url;
+    }
+
+    public CachedResponse get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Store a 200 response if it carries a validator GitHub can revalidate against.
+     */
+    public void put(String key, HttpHeaders responseHeaders, String body) {
+        String etag = responseHeaders.getETag();
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        if ((etag == null && lastModified == null) || body == null || body.length() > properties.getMaxBodySize()) {
+            return;
+        }
+        CachedResponse cached = new CachedResponse(etag, lastModified, body, HttpHeaders.readOnlyHttpHeaders(responseHeaders));
+        synchronized (entries) {
+            CachedResponse previous = entries.put(key, cached);
+            totalSize += body.length() - (previous != null ? previous.body().length() : 0);
+            evictOverflow();
+        }
+        stores.increment();
+    }
+
+    public void evict(String key) {
+        synchronized (entries) {
+            CachedResponse removed = entries.remove(key);
+            if (removed != null) {
+                totalSize -= removed.body().length();
+            }
+        }
+    }
+
+    /**
+     * Drop least-recently-used entries until both the entry and the size bound hold; caller holds the monitor
+     */
+    private void evictOverflow() {
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > properties.getMaxEntries() || totalSize > properties.getMaxTotalSize())) {
+            totalSize -= eldest.next().body().length();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalSize = 0;
+        }
+        log.info("🧹 GitHub response cache cleared");
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        synchronized (entries) {
+            stats.put("size", entries.size());
+            stats.put("totalSize", totalSize);
+        }
+        stats.put("maxEntries", properties.getMaxEntries());
+        stats.put("maxTotalSize", properties.getMaxTotalSize());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("stores", stores.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package tn.esprithub.server.github.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
@@ -15,6 +18,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.exception.DependencyUnavailableException;
 import tn.esprithub.server.github.exception.GitHubApiException;
 import tn.esprithub.server.user.entity.User;
 
@@ -26,6 +30,8 @@ public class GitHubRestClient {
     private static final String GITHUB_API_BASE = "https://api.github.com";
 
     private final RestTemplate restTemplate;
+    private final GitHubResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
     public <T> T get(User user, String path, Class<T> responseType) {
         return exchange(user, HttpMethod.GET, path, null, responseType);
@@ -48,6 +54,13 @@ public class GitHubRestClient {
     }
 
     public <T> T exchange(User user, HttpMethod method, String pathOrUrl, Object body, Class<T> responseType) {
+        if (method == HttpMethod.GET && body == null && responseCache.isEnabled()) {
+            String json = cachedGet(user, pathOrUrl);
+            if (responseType == String.class) {
+                return responseType.cast(json);
+            }
+            return readJson(json, objectMapper.getTypeFactory().constructType(responseType));
+        }
         try {
             ResponseEntity<T> response = restTemplate.exchange(
                     buildUrl(pathOrUrl),
@@ -64,6 +77,10 @@ public class GitHubRestClient {
     }
 
     public <T> T exchange(User user, HttpMethod method, String pathOrUrl, Object body, ParameterizedTypeReference<T> typeReference) {
+        if (method == HttpMethod.GET && body == null && responseCache.isEnabled()) {
+            String json = cachedGet(user, pathOrUrl);
+            return readJson(json, objectMapper.getTypeFactory().constructType(typeReference.getType()));
+        }
         try {
             ResponseEntity<T> response = restTemplate.exchange(
                     buildUrl(pathOrUrl),
@@ -79,6 +96,57 @@ public class GitHubRestClient {
         }
     }
 
+    /**
+     * Conditional GET: revalidates a previously cached response with If-None-Match / If-Modified-Since
+     * and serves the cached body when GitHub answers 304 Not Modified (which does not count against
+     * the rate limit). Errors are propagated as thrown by the RestTemplate.
+     */
+    public ResponseEntity<String> conditionalGet(String url, HttpHeaders headers) {
+        if (!responseCache.isEnabled()) {
+            return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        }
+
+        String key = responseCache.keyFor(url, headers);
+        GitHubResponseCache.CachedResponse cached = responseCache.get(key);
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.addAll(headers);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                requestHeaders.setIfNoneMatch(cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(requestHeaders), String.class);
+        } catch (DependencyUnavailableException e) {
+            if (cached == null) {
+                throw e;
+            }
+            // GitHub is short-circuited: a stale copy beats an error page
+            log.warn("Serving stale cached response for {}: {}", url, e.getMessage());
+            return ResponseEntity.ok().headers(cached.headers()).body(cached.body());
+        }
+
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            responseCache.recordHit();
+            log.debug("GitHub cache revalidated (304) for {}", url);
+            return ResponseEntity.ok().headers(cached.headers()).body(cached.body());
+        }
+
+        responseCache.recordMiss();
+        if (response.getStatusCode().is2xxSuccessful()) {
+            responseCache.put(key, response.getHeaders(), response.getBody());
+        } else {
+            responseCache.evict(key);
+        }
+        return response;
+    }
+
     public HttpHeaders defaultHeaders(User user) {
         if (user.getGithubToken() == null || user.getGithubToken().isBlank()) {
             throw new BusinessException("GitHub token not found. Please connect your GitHub account first.");
@@ -92,6 +160,29 @@ public class GitHubRestClient {
         return headers;
     }
 
+    private String cachedGet(User user, String pathOrUrl) {
+        try {
+            return conditionalGet(buildUrl(pathOrUrl), defaultHeaders(user)).getBody();
+        } catch (HttpClientErrorException e) {
+            throw mapException(e);
+        } catch (RestClientException e) {
+            log.error("GitHub API request failed: {}", e.getMessage());
+            throw new BusinessException("GitHub API request failed: " + e.getMessage());
+        }
+    }
+
+    private <T> T readJson(String json, JavaType type) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse GitHub API response: {}", e.getMessage());
+            throw new BusinessException("Failed to parse GitHub API response: " + e.getMessage());
+        }
+    }
+
     private HttpEntity<?> buildEntity(User user, Object body) {
         HttpHeaders headers = defaultHeaders(user);
         if (body == null) {
@@ -0,0 +1,201 @@
+package tn.esprithub.server.github.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-flight coalescing for GitHub GETs: concurrent identical requests share one upstream call,
+ * and every waiter gets its own copy of the buffered response.
+ * Requests are shared between callers presenting the same Authorization header. Reads of a repository's
+ * content (contents, trees, commits, branches, ...) are also shared between different tokens once each
+ * of them was confirmed to have access to that repository by {@link GitHubRepositoryAccessCache} (a
+ * token's own successful content read confirms it), so N students loading the same repository share
+ * calls. Responses carrying per-user fields (such as the repository itself with its
+ * {@code permissions}) stay per credential.
+ */
+@Component
+@Slf4j
+public class GitHubSingleFlightInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GITHUB_API_HOST = "api.github.com";
+    private static final Pattern REPOSITORY_CONTENT_PATH = Pattern.compile(
+            "^/repos/([^/]+/[^/]+)/(contents|git|commits|branches|tags|compare|readme|languages|contributors|releases)(/.*)?$");
+
+    // Resolved lazily: the access cache calls GitHub through the RestTemplate this interceptor belongs to
+    private final ObjectProvider<GitHubRepositoryAccessCache> accessCache;
+
+    private final Map<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public GitHubSingleFlightInterceptor(ObjectProvider<GitHubRepositoryAccessCache> accessCache) {
+        this.accessCache = accessCache;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET
+                || !GITHUB_API_HOST.equalsIgnoreCase(request.getURI().getHost())
+                || (body != null && body.length > 0)) {
+            return execution.execute(request, body);
+        }
+
+        String key = keyFor(request);
+        CompletableFuture<BufferedResponse> leader = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> existing = inFlight.putIfAbsent(key, leader);
+
+        if (existing != null) {
+            coalescedCalls.increment();
+            log.debug("Coalescing GitHub GET {} onto in-flight request", request.getURI());
+            return await(existing).copy();
+        }
+
+        upstreamCalls.increment();
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            BufferedResponse buffered = new BufferedResponse(
+                    response.getStatusCode(), response.getStatusText(), copyOf(response.getHeaders()), response.getBody().readAllBytes());
+            leader.complete(buffered);
+            if (buffered.statusCode().is2xxSuccessful()) {
+                confirmAccess(request);
+            }
+            return buffered.copy();
+        } catch (IOException | RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("upstreamCalls", upstreamCalls.sum());
+        stats.put("coalescedCalls", coalescedCalls.sum());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private BufferedResponse await(CompletableFuture<BufferedResponse> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+
+    private String keyFor(HttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        return scopeFor(request, authorization)
+                + "|" + headers.getFirst(HttpHeaders.ACCEPT)
+                + "|" + headers.getFirst(HttpHeaders.IF_NONE_MATCH)
+                + "|" + headers.getFirst(HttpHeaders.IF_MODIFIED_SINCE)
+                + "|" + request.getURI();
+    }
+
+    /**
+     * The repository when the request reads shared repository content with confirmed access, the credentials otherwise
+     */
+    private String scopeFor(HttpRequest request, String authorization) {
+        Matcher matcher = REPOSITORY_CONTENT_PATH.matcher(request.getURI().getRawPath());
+        if (authorization != null && matcher.matches()) {
+            String fullName = matcher.group(1).toLowerCase();
+            GitHubRepositoryAccessCache cache = accessCache.getIfAvailable();
+            if (cache != null && cache.isConfirmed(authorization, fullName)) {
+                return "repo:" + fullName;
+            }
+        }
+        return sha256(authorization != null ? authorization : "anonymous");
+    }
+
+    /**
+     * A successful content read proves the token's access, so its next reads of the repository can be shared
+     */
+    private void confirmAccess(HttpRequest request) {
+        Matcher matcher = REPOSITORY_CONTENT_PATH.matcher(request.getURI().getRawPath());
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        GitHubRepositoryAccessCache cache = accessCache.getIfAvailable();
+        if (authorization != null && cache != null && matcher.matches()) {
+            cache.confirm(authorization, matcher.group(1).toLowerCase());
+        }
+    }
+
+    private HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.addAll(headers);
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record BufferedResponse(HttpStatusCode statusCode, String statusText, HttpHeaders headers, byte[] body) {
+
+        ClientHttpResponse copy() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return statusText;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                    // Nothing to release, the body is fully buffered
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package tn.esprithub.server.github.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.AdaptiveSyncProperties;
+import tn.esprithub.server.config.properties.GitHubSyncProperties;
+import tn.esprithub.server.repository.entity.Repository;
+import tn.esprithub.server.user.entity.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs the repository fetch + comprehensive sync for many users in parallel.
+ * Users are partitioned by GitHub token: partitions run concurrently, while the users of one
+ * partition are processed one after the other, so each token is only drawn by one worker and
+ * stays within its own rate budget. Progress and throughput of the current (or last) run are
+ * exposed through {@link #getStats()}.
+ * When adaptive sync is enabled, non-forced runs only refresh repository listings and leave the
+ * comprehensive sync to the activity-ranked {@code AdaptiveSyncScheduler}.
+ */
+@Component
+@Slf4j
+public class GitHubSyncExecutor {
+
+    private final GitHubRepositoryFetchService gitHubRepositoryFetchService;
+    private final GitHubRateLimitGovernor rateLimitGovernor;
+    private final AdaptiveSyncProperties adaptiveSyncProperties;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile SyncRun currentRun;
+
+    public GitHubSyncExecutor(GitHubRepositoryFetchService gitHubRepositoryFetchService,
+                              GitHubRateLimitGovernor rateLimitGovernor,
+                              GitHubSyncProperties properties,
+                              AdaptiveSyncProperties adaptiveSyncProperties) {
+        this.gitHubRepositoryFetchService = gitHubRepositoryFetchService;
+        this.rateLimitGovernor = rateLimitGovernor;
+        this.adaptiveSyncProperties = adaptiveSyncProperties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelTokens()), runnable -> {
+            Thread thread = new Thread(runnable, "github-sync-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetch and sync the repositories of every given user, blocking until the run is over.
+     * A run that starts while another one is still going is skipped.
+     *
+     * @param forceRefresh also process users whose repositories were synced recently
+     * @return the finished run, or {@code null} when skipped
+     */
+    public SyncRun syncUsers(List<User> users, boolean forceRefresh) {
+        return syncUsers(users, forceRefresh, progress -> { });
+    }
+
+    /**
+     * Same as {@link #syncUsers(List, boolean)}, reporting a progress line as the run advances
+     */
+    public SyncRun syncUsers(List<User> users, boolean forceRefresh, Consumer<String> progressListener) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⏭️ Repository sync already running, skipping this run");
+            return null;
+        }
+
+        try {
+            Map<String, List<User>> partitions = new LinkedHashMap<>();
+            for (User user : users) {
+                if (user.getGithubToken() != null && !user.getGithubToken().isBlank()) {
+                    partitions.computeIfAbsent(user.getGithubToken(), token -> new ArrayList<>()).add(user);
+                }
+            }
+
+            SyncRun run = new SyncRun(users.size(), partitions.size());
+            currentRun = run;
+            log.info("🚀 Starting repository sync for {} users in {} token partitions (force: {})",
+                    users.size(), partitions.size(), forceRefresh);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<User> partition : partitions.values()) {
+                futures.add(executor.submit(() -> rateLimitGovernor.runInBackground(
+                        () -> syncPartition(partition, forceRefresh, run, progressListener))));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.error("Repository sync partition failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(pending -> pending.cancel(true));
+                    break;
+                }
+            }
+
+            run.finishedAt = LocalDateTime.now();
+            progressListener.accept(run.describe());
+            log.info("✅ Repository sync completed in {}s. Users: {} synced, {} skipped, {} failed. Repositories: {} ({} per minute)",
+                    run.elapsed().toSeconds(), run.syncedUsers.get(), run.skippedUsers.get(), run.failedUsers.get(),
+                    run.repositories.get(), Math.round(run.repositoriesPerMinute()));
+            return run;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void syncPartition(List<User> partition, boolean forceRefresh, SyncRun run, Consumer<String> progressListener) {
+        for (User user : partition) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                if (!forceRefresh && !gitHubRepositoryFetchService.shouldFetchRepositories(user)) {
+                    run.skippedUsers.incrementAndGet();
+                    log.debug("⏭️ Skipped user: {} - repositories synced recently", user.getEmail());
+                    continue;
+                }
+
+                // The fetch commits before the comprehensive sync reads the repositories back
+                List<Repository> repositories = gitHubRepositoryFetchService.fetchAndSaveUserRepositories(user, true, false);
+                if (forceRefresh || !adaptiveSyncProperties.isEnabled()) {
+                    run.repositories.addAndGet(gitHubRepositoryFetchService.syncRepositoriesData(repositories, user));
+                }
+                run.syncedUsers.incrementAndGet();
+            } catch (Exception e) {
+                run.failedUsers.incrementAndGet();
+                log.error("❌ Error syncing repositories for user: {} ({})", user.getEmail(), user.getGithubUsername(), e);
+            }
+
+            int done = run.processedUsers();
+            if (done % 25 == 0) {
+                log.info("📊 Repository sync progress: {}/{} users, {} repositories ({} per minute)",
+                        done, run.totalUsers, run.repositories.get(), Math.round(run.repositoriesPerMinute()));
+                progressListener.accept(run.describe());
+            }
+        }
+    }
+
+    /**
+     * Progress and throughput of the current run, or of the last one when idle
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        SyncRun run = currentRun;
+        if (run != null) {
+            stats.put("startedAt", run.startedAt);
+            stats.put("finishedAt", run.finishedAt);
+            stats.put("elapsedSeconds", run.elapsed().toSeconds());
+            stats.put("totalUsers", run.totalUsers);
+            stats.put("partitions", run.partitions);
+            stats.put("syncedUsers", run.syncedUsers.get());
+            stats.put("skippedUsers", run.skippedUsers.get());
+            stats.put("failedUsers", run.failedUsers.get());
+            stats.put("repositories", run.repositories.get());
+            stats.put("usersPerMinute", run.perMinute(run.processedUsers()));
+            stats.put("repositoriesPerMinute", run.repositoriesPerMinute());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Counters of one sync run
+     */
+    public static class SyncRun {
+
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final int totalUsers;
+        private final int partitions;
+        private final AtomicInteger syncedUsers = new AtomicInteger();
+        private final AtomicInteger skippedUsers = new AtomicInteger();
+        private final AtomicInteger failedUsers = new AtomicInteger();
+        private final AtomicInteger repositories = new AtomicInteger();
+        private volatile LocalDateTime finishedAt;
+
+        SyncRun(int totalUsers, int partitions) {
+            this.totalUsers = totalUsers;
+            this.partitions = partitions;
+        }
+
+        public int getSyncedUsers() {
+            return syncedUsers.get();
+        }
+
+        public int getSkippedUsers() {
+            return skippedUsers.get();
+        }
+
+        public int getFailedUsers() {
+            return failedUsers.get();
+        }
+
+        public int getRepositories() {
+            return repositories.get();
+        }
+
+        String describe() {
+            return String.format("%d/%d users (%d synced, %d skipped, %d failed), %d repositories, %d per minute",
+                    processedUsers(), totalUsers, syncedUsers.get(), skippedUsers.get(), failedUsers.get(),
+                    repositories.get(), Math.round(repositoriesPerMinute()));
+        }
+
+        int processedUsers() {
+            return syncedUsers.get() + skippedUsers.get() + failedUsers.get();
+        }
+
+        Duration elapsed() {
+            return Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now());
+        }
+
+        double repositoriesPerMinute() {
+            return perMinute(repositories.get());
+        }
+
+        double perMinute(int count) {
+            long millis = Math.max(1, elapsed().toMillis());
+            return count * 60_000.0 / millis;
+        }
+    }
+}
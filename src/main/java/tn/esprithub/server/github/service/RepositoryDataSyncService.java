@@ -9,16 +9,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.github.mirror.GitMirrorService;
 import tn.esprithub.server.repository.entity.CodeVersion;
 import tn.esprithub.server.repository.entity.Repository;
 import tn.esprithub.server.repository.repository.CodeVersionRepository;
 import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
 import tn.esprithub.server.user.entity.User;
+import tn.esprithub.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,12 +33,21 @@ public class RepositoryDataSyncService {
     
     private static final String GITHUB_API_BASE = "https://api.github.com";
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    // GitHub truncates push payloads to this many commits
+    private static final int PAYLOAD_COMMIT_LIMIT = 20;
+    private static final int COMPARE_PAGE_SIZE = 100;
+    private static final int MAX_COMPARE_COMMITS = 1000;
+    // GitHub lists at most this many files in a compare response
+    private static final int COMPARE_FILE_LIMIT = 300;
+    private static final String PARTIAL_STATS_TAGS = "[\"partial-stats\"]";
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final RepositoryEntityRepository repositoryRepository;
     private final CodeVersionRepository codeVersionRepository;
     private final GitHubRepositoryDataSyncService comprehensiveDataSyncService;
+    private final GitMirrorService gitMirrorService;
+    private final UserRepository userRepository;
     
     /**
      * Synchronize repository data when webhook is received
@@ -64,9 +79,14 @@ public class RepositoryDataSyncService {
 
             log.info("🔄 Processing webhook for repository: {} (event: {})", repositoryFullName, eventType);
             
+            if (eventType.equals("push") || eventType.equals("create") || eventType.equals("delete")) {
+                gitMirrorService.refreshAsync(repositoryFullName, owner.getGithubToken());
+            }
+            
             switch (eventType) {
                 case "push":
                     syncCommitsFromPushEvent(repository, payload, owner.getGithubToken());
+                    repository.setPushedAt(LocalDateTime.now()); // activity signal for the adaptive sync
                     break;
                 case "create":
                     syncBranchOrTagCreation(repository, payload, owner.getGithubToken());
@@ -89,6 +109,55 @@ public class RepositoryDataSyncService {
 
         } catch (Exception e) {
             log.error("Error syncing repository data for: {}", repositoryFullName, e);
+            // Fails the webhook delivery so that it is retried
+            throw new BusinessException("Error syncing repository data for " + repositoryFullName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a burst of push/create/delete events of one repository as a single sync: the commits of every
+     * push (deduplicated), then the branches still existing at the end of the burst
+     */
+    @Transactional
+    public void syncRefEvents(String repositoryFullName, RefEvents events) {
+        log.info("🔄 Syncing {} coalesced webhook events for repository: {} ({} pushed refs, {} ref changes)",
+                events.eventCount(), repositoryFullName, events.pushes().size(), events.refChanges().size());
+
+        try {
+            Repository repository = repositoryRepository.findByFullName(repositoryFullName).orElse(null);
+            if (repository == null) {
+                log.warn("Repository not found in database: {}", repositoryFullName);
+                return;
+            }
+
+            User owner = repository.getOwner();
+            if (owner.getGithubToken() == null || owner.getGithubToken().isBlank()) {
+                log.warn("No GitHub token for repository owner: {}", owner.getEmail());
+                return;
+            }
+
+            gitMirrorService.refreshAsync(repositoryFullName, owner.getGithubToken());
+
+            if (!events.pushes().isEmpty()) {
+                syncPushedCommits(repository, events.pushes(), owner.getGithubToken());
+                repository.setPushedAt(LocalDateTime.now()); // activity signal for the adaptive sync
+            }
+            events.refChanges().forEach((ref, refChange) -> {
+                if (refChange == RefChange.BRANCH_CREATED) {
+                    syncRecentCommitsForBranch(repository, ref, owner.getGithubToken());
+                } else {
+                    log.info("Handling {} {} in repository: {}", refChange, ref, repositoryFullName);
+                }
+            });
+
+            repository.setLastSyncAt(LocalDateTime.now());
+            repositoryRepository.save(repository);
+
+            log.info("✅ Coalesced webhook sync completed for repository: {}", repositoryFullName);
+
+        } catch (Exception e) {
+            log.error("Error syncing repository data for: {}", repositoryFullName, e);
+            throw new BusinessException("Error syncing repository data for " + repositoryFullName + ": " + e.getMessage());
         }
     }
 
@@ -116,40 +185,130 @@ public class RepositoryDataSyncService {
     /**
      * Sync commits from push event
      */
+    @SuppressWarnings("unchecked")
     private void syncCommitsFromPushEvent(Repository repository, Map<String, Object> payload, String token) {
-        @SuppressWarnings("unchecked")
         List<Map<String, Object>> commits = (List<Map<String, Object>>) payload.get("commits");
-        
-        if (commits == null || commits.isEmpty()) {
+        String ref = (String) payload.get("ref");
+
+        if (commits == null || commits.isEmpty() || ref == null) {
             return;
         }
-        
+        syncPushedCommits(repository,
+                Map.of(ref, new PushedRef((String) payload.get("before"), (String) payload.get("after"), commits)), token);
+    }
+
+    /**
+     * Save the commits of one or more pushes. Payload commits are used as-is; a push with unknown commits also
+     * gets one compare for its line stats, which fills in the commits a truncated payload left out. Known commits
+     * are filtered out with one query for the payloads and one for the extra compare commits.
+     */
+    private void syncPushedCommits(Repository repository, Map<String, PushedRef> pushes, String token) {
+        Set<String> payloadShas = new HashSet<>();
+        for (PushedRef push : pushes.values()) {
+            for (Map<String, Object> commit : push.commits()) {
+                if (commit.get("id") instanceof String sha) {
+                    payloadShas.add(sha);
+                }
+            }
+        }
+        if (payloadShas.isEmpty()) {
+            return;
+        }
+        Set<String> knownShas = new HashSet<>(codeVersionRepository.findExistingCommitShas(payloadShas));
+
         String[] parts = repository.getFullName().split("/");
-        String owner = parts[0];
-        String repo = parts[1];
-        
-        for (Map<String, Object> commitData : commits) {
-            try {
-                String commitSha = (String) commitData.get("id");
-                String commitMessage = (String) commitData.get("message");
-                
-                // Check if we already have this commit
-                if (codeVersionRepository.existsByCommitSha(commitSha)) {
-                    continue;
+        Map<String, PushComparison> comparisons = new HashMap<>();
+        Set<String> compareOnlyShas = new HashSet<>();
+        pushes.forEach((ref, push) -> {
+            boolean hasNewCommits = push.commits().stream()
+                    .anyMatch(commit -> commit.get("id") instanceof String sha && !knownShas.contains(sha));
+            if (!hasNewCommits && push.commits().size() < PAYLOAD_COMMIT_LIMIT) {
+                return;
+            }
+            PushComparison comparison = fetchComparison(parts[0], parts[1], push.before(), push.after(), token);
+            if (comparison != null) {
+                comparisons.put(ref, comparison);
+                comparison.commits().stream()
+                        .map(commit -> (String) commit.get("id"))
+                        .filter(sha -> !payloadShas.contains(sha))
+                        .forEach(compareOnlyShas::add);
+            }
+        });
+        if (!compareOnlyShas.isEmpty()) {
+            knownShas.addAll(codeVersionRepository.findExistingCommitShas(compareOnlyShas));
+        }
+
+        // The compare lists every commit of the push in order; the payload stops at its cap
+        Map<String, List<Map<String, Object>>> pushCommits = new HashMap<>();
+        Set<String> authorUsernames = new HashSet<>();
+        pushes.forEach((ref, push) -> {
+            PushComparison comparison = comparisons.get(ref);
+            List<Map<String, Object>> commits = comparison != null && comparison.commits().size() > push.commits().size()
+                    ? comparison.commits()
+                    : push.commits();
+            pushCommits.put(ref, commits);
+            for (Map<String, Object> commit : commits) {
+                String username = authorUsername(commit);
+                if (username != null) {
+                    authorUsernames.add(username);
                 }
-                
-                // Get detailed commit information from GitHub API
-                JsonNode detailedCommit = fetchCommitDetails(owner, repo, commitSha, token);
-                if (detailedCommit != null) {
-                    saveCommitData(repository, detailedCommit);
+            }
+        });
+
+        Map<String, User> authors = new HashMap<>();
+        if (!authorUsernames.isEmpty()) {
+            userRepository.findByGithubUsernameIn(authorUsernames)
+                    .forEach(user -> authors.put(user.getGithubUsername().toLowerCase(), user));
+        }
+
+        List<CodeVersion> versions = new ArrayList<>();
+        pushes.forEach((ref, push) -> {
+            List<Map<String, Object>> newCommits = pushCommits.get(ref).stream()
+                    .filter(commit -> commit.get("id") instanceof String sha && knownShas.add(sha))
+                    .toList();
+            if (newCommits.isEmpty()) {
+                return;
+            }
+
+            PushComparison comparison = comparisons.get(ref);
+            String branchName = ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+            for (Map<String, Object> commit : newCommits) {
+                String sha = (String) commit.get("id");
+                String message = commit.get("message") instanceof String text ? text : "";
+                String username = authorUsername(commit);
+                CodeVersion version = CodeVersion.builder()
+                        .commitSha(sha)
+                        .commitMessage(message.length() > 1000 ? message.substring(0, 1000) : message)
+                        .filePath("repository_commit")
+                        .branchName(branchName.length() > 100 ? branchName.substring(0, 100) : branchName)
+                        .repository(repository)
+                        .author(username != null ? authors.getOrDefault(username.toLowerCase(), repository.getOwner()) : repository.getOwner())
+                        .build();
+                // The compare covers the whole push: its totals go on the head commit, so sums over a range stay right
+                if (comparison != null && sha.equals(push.after())) {
+                    version.setLinesAdded(comparison.linesAdded());
+                    version.setLinesDeleted(comparison.linesDeleted());
+                    if (comparison.partialStats()) {
+                        version.setTags(PARTIAL_STATS_TAGS);
+                    }
                 }
-                
-            } catch (Exception e) {
-                log.error("Error processing commit from push event", e);
+                versions.add(version);
             }
+        });
+
+        if (!versions.isEmpty()) {
+            codeVersionRepository.saveAll(versions);
+            log.debug("Saved {} pushed commits for repository: {}", versions.size(), repository.getFullName());
         }
     }
-    
+
+    private String authorUsername(Map<String, Object> commit) {
+        if (commit.get("author") instanceof Map<?, ?> author && author.get("username") instanceof String username) {
+            return username;
+        }
+        return null;
+    }
+
     /**
      * Handle branch or tag creation
      */
@@ -267,6 +426,62 @@ public class RepositoryDataSyncService {
         return null;
     }
     
+    /**
+     * Commits and line stats between two commits from the compare API; null for a new ref or on error.
+     * Commits are paged up to {@link #MAX_COMPARE_COMMITS} and returned in the payload shape (id, message,
+     * author.username). GitHub lists at most 300 files per compare, so the stats are flagged partial at that cap.
+     */
+    private PushComparison fetchComparison(String owner, String repo, String before, String after, String token) {
+        if (before == null || after == null || before.matches("0+") || after.matches("0+")) {
+            return null;
+        }
+        try {
+            String url = GITHUB_API_BASE + "/repos/" + owner + "/" + repo + "/compare/" + before + "..." + after
+                    + "?per_page=" + COMPARE_PAGE_SIZE;
+            HttpEntity<String> entity = new HttpEntity<>(createHeaders(token));
+            JsonNode firstPage = objectMapper.readTree(restTemplate.exchange(url, HttpMethod.GET, entity, String.class).getBody());
+
+            // Files are only listed on the first page
+            int added = 0;
+            int deleted = 0;
+            JsonNode files = firstPage.path("files");
+            for (JsonNode file : files) {
+                added += file.path("additions").asInt();
+                deleted += file.path("deletions").asInt();
+            }
+            boolean partialStats = files.size() >= COMPARE_FILE_LIMIT;
+            if (partialStats) {
+                log.warn("Compare {}...{} in {}/{} lists {} files, line stats are partial", before, after, owner, repo, files.size());
+            }
+
+            List<Map<String, Object>> commits = new ArrayList<>();
+            int totalCommits = Math.min(firstPage.path("total_commits").asInt(), MAX_COMPARE_COMMITS);
+            JsonNode page = firstPage;
+            int pageNumber = 1;
+            while (addCompareCommits(page, commits) > 0 && commits.size() < totalCommits) {
+                pageNumber++;
+                page = objectMapper.readTree(restTemplate.exchange(url + "&page=" + pageNumber, HttpMethod.GET, entity, String.class).getBody());
+            }
+            return new PushComparison(commits, added, deleted, partialStats);
+        } catch (Exception e) {
+            log.error("Error comparing {}...{} in {}/{}", before, after, owner, repo, e);
+        }
+        return null;
+    }
+
+    private int addCompareCommits(JsonNode page, List<Map<String, Object>> commits) {
+        for (JsonNode commit : page.path("commits")) {
+            Map<String, Object> author = new HashMap<>();
+            author.put("username", commit.path("author").hasNonNull("login") ? commit.path("author").get("login").asText() : null);
+            Map<String, Object> pushedCommit = new HashMap<>();
+            pushedCommit.put("id", commit.path("sha").asText());
+            pushedCommit.put("message", commit.path("commit").path("message").asText(""));
+            pushedCommit.put("author", author);
+            commits.add(pushedCommit);
+        }
+        return page.path("commits").size();
+    }
+
     /**
      * Fetch tag details from GitHub API
      */
@@ -344,4 +559,43 @@ public class RepositoryDataSyncService {
         headers.set("User-Agent", "EspritHub-Webhook-Service");
         return headers;
     }
+
+    /**
+     * Ref change carried by a create or delete event
+     */
+    public enum RefChange {
+        BRANCH_CREATED,
+        BRANCH_DELETED,
+        TAG_CREATED,
+        TAG_DELETED
+    }
+
+    /**
+     * Pushes to one ref, merged
+     *
+     * @param before  head of the ref before the first push
+     * @param after   head of the ref after the last push
+     * @param commits payload commits of every push, in push order
+     */
+    public record PushedRef(String before, String after, List<Map<String, Object>> commits) {
+    }
+
+    /**
+     * Commits and summed line stats of one compare
+     *
+     * @param commits      commits in the webhook payload shape, oldest first
+     * @param partialStats true when the compare hit GitHub's file cap and the line stats miss files
+     */
+    private record PushComparison(List<Map<String, Object>> commits, int linesAdded, int linesDeleted, boolean partialStats) {
+    }
+
+    /**
+     * Push/create/delete events of one repository merged into one sync unit
+     *
+     * @param pushes     pushes per ref (e.g. refs/heads/main)
+     * @param refChanges last change of each branch or tag within the burst
+     * @param eventCount number of webhook events merged
+     */
+    public record RefEvents(Map<String, PushedRef> pushes, Map<String, RefChange> refChanges, int eventCount) {
+    }
 }
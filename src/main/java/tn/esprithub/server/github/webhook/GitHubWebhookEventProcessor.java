@@ -0,0 +1,473 @@
+package tn.esprithub.server.github.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import tn.esprithub.server.ai.CodeReviewService;
+import tn.esprithub.server.ai.dto.CodeReviewResult;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.github.service.GitHubWebhookService;
+import tn.esprithub.server.github.service.RepositoryDataSyncService;
+import tn.esprithub.server.notification.NotificationService;
+import tn.esprithub.server.repository.entity.WebhookDelivery;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Processes a stored GitHub webhook delivery: repository data sync first (push/create/delete events are
+ * handed to the {@link WebhookSyncCoalescer} and synced per burst), then notifications and AI analysis.
+ * Runs on the {@link WebhookDeliveryDispatcher} lanes, never on the request thread.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubWebhookEventProcessor {
+
+    private final NotificationService notificationService;
+    private final CodeReviewService codeReviewService;
+    private final RepositoryRecipientIndex recipientIndex;
+    private final GitHubWebhookService gitHubWebhookService;
+    private final RepositoryDataSyncService repositoryDataSyncService;
+    private final WebhookSyncCoalescer webhookSyncCoalescer;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Process one delivery. Throwing makes it retry; the sync runs before any notification
+     * so that a retried delivery does not notify twice.
+     */
+    public void process(WebhookDelivery delivery) {
+        Map<String, Object> payload = parsePayload(delivery);
+        String eventType = delivery.getEventType();
+        String repositoryFullName = delivery.getRepositoryFullName();
+
+        if (repositoryFullName != null && webhookSyncCoalescer.handles(eventType)) {
+            webhookSyncCoalescer.submit(repositoryFullName, eventType, payload);
+        } else if (repositoryFullName != null) {
+            repositoryDataSyncService.syncRepositoryData(repositoryFullName, eventType, payload);
+        }
+
+        switch (eventType) {
+            case "push":
+                handlePushEvent(payload);
+                break;
+            case "pull_request":
+                handlePullRequestEvent(payload);
+                break;
+            case "issues":
+                handleIssueEvent(payload);
+                break;
+            case "create":
+                handleCreateEvent(payload);
+                break;
+            case "delete":
+                handleDeleteEvent(payload);
+                break;
+            case "release":
+                handleReleaseEvent(payload);
+                break;
+            case "fork":
+                handleForkEvent(payload);
+                break;
+            case "watch":
+                handleWatchEvent(payload);
+                break;
+            default:
+                log.info("Unhandled GitHub event type: {}", eventType);
+        }
+
+        updateDeliveryStatus(delivery, true, null);
+    }
+
+    /**
+     * Record a delivery that could not be processed on its webhook subscription
+     */
+    public void reportFailure(WebhookDelivery delivery) {
+        updateDeliveryStatus(delivery, false, delivery.getLastError());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parsePayload(WebhookDelivery delivery) {
+        try {
+            return objectMapper.readValue(delivery.getPayload(), Map.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Invalid payload for webhook delivery " + delivery.getDeliveryId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gère les événements de push
+     */
+    private void handlePushEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> pusher = (Map<String, Object>) payload.get("pusher");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> commits = (List<Map<String, Object>>) payload.get("commits");
+        
+        if (repository == null || commits == null || commits.isEmpty()) {
+            log.warn("Invalid push event payload");
+            return;
+        }
+        
+        String repositoryName = (String) repository.get("full_name");
+        String branch = (String) payload.get("ref");
+        String authorName = (String) pusher.get("name");
+        
+        // Récupérer les destinataires pour ce repository
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+
+        // Traiter chaque commit
+        for (Map<String, Object> commit : commits) {
+            String commitMessage = (String) commit.get("message");
+            
+            log.info("Processing push: {} - {} - {}", repositoryName, branch, commitMessage);
+            
+            if (!recipientEmails.isEmpty()) {
+                notificationService.sendGitHubEventNotification(
+                    "push", repositoryName, branch, commitMessage, authorName, recipientEmails
+                );
+                
+                // Analyse IA du code si des fichiers ont été modifiés
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> modifiedFiles = (List<Map<String, Object>>) commit.get("modified");
+                if (modifiedFiles != null && !modifiedFiles.isEmpty()) {
+                    analyzeModifiedFiles(modifiedFiles, repositoryName, commitMessage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gère les événements de pull request
+     */
+    private void handlePullRequestEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> pullRequest = (Map<String, Object>) payload.get("pull_request");
+        String action = (String) payload.get("action");
+        
+        if (repository == null || pullRequest == null) {
+            log.warn("Invalid pull request event payload");
+            return;
+        }
+        
+        String repositoryName = (String) repository.get("full_name");
+        String title = (String) pullRequest.get("title");
+        String state = (String) pullRequest.get("state");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> user = (Map<String, Object>) pullRequest.get("user");
+        String authorName = user != null ? (String) user.get("login") : "Unknown";
+        
+        log.info("Processing pull request: {} - {} - {} - {}", repositoryName, action, state, title);
+        
+        // Récupérer les destinataires pour ce repository
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("Pull Request %s: %s (%s)", action, title, state);
+            notificationService.sendGitHubEventNotification(
+                "pull_request", repositoryName, "main", eventDescription, authorName, recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Gère les événements d'issues
+     */
+    private void handleIssueEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> issue = (Map<String, Object>) payload.get("issue");
+        String action = (String) payload.get("action");
+        
+        if (repository == null || issue == null) {
+            log.warn("Invalid issue event payload");
+            return;
+        }
+        
+        String repositoryName = (String) repository.get("full_name");
+        String title = (String) issue.get("title");
+        String state = (String) issue.get("state");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> user = (Map<String, Object>) issue.get("user");
+        String authorName = user != null ? (String) user.get("login") : "Unknown";
+        
+        log.info("Processing issue: {} - {} - {} - {}", repositoryName, action, state, title);
+        
+        // Récupérer les destinataires pour ce repository
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("Issue %s: %s (%s)", action, title, state);
+            notificationService.sendGitHubEventNotification(
+                "issue", repositoryName, "main", eventDescription, authorName, recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Récupère les destinataires pour un repository donné (index en mémoire, sans accès base)
+     */
+    private List<String> getRecipientsForRepository(String repositoryName) {
+        try {
+            return recipientIndex.getRecipientEmails(repositoryName);
+        } catch (Exception e) {
+            log.error("Error getting recipients for repository: {}", repositoryName, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Analyse les fichiers modifiés avec l'IA
+     */
+    private void analyzeModifiedFiles(List<Map<String, Object>> modifiedFiles, String repositoryName, String commitMessage) {
+        try {
+            for (Map<String, Object> file : modifiedFiles) {
+                String fileName = (String) file.get("filename");
+                String status = (String) file.get("status");
+                
+                // Analyser seulement les fichiers de code
+                if (isCodeFile(fileName) && "modified".equals(status)) {
+                    log.info("Analyzing modified file: {} in repository: {}", fileName, repositoryName);
+                    
+                    // Récupérer le contenu du fichier (cela nécessiterait une API GitHub)
+                    // Pour l'instant, on analyse le message de commit
+                    String language = getLanguageFromFileName(fileName);
+                    String context = String.format("File modified in commit: %s", commitMessage);
+                    
+                    // Analyse basique du message de commit
+                    try {
+                        CodeReviewResult result = codeReviewService.analyzeCode(
+                            commitMessage, 
+                            language, 
+                            context
+                        );
+                        
+                        if (result.isSuccess()) {
+                            log.info("AI analysis completed for file: {} - Score: {}/10", 
+                                    fileName, result.getOverallScore());
+                        } else {
+                            log.warn("AI analysis failed for file: {} - {}", fileName, result.getMessage());
+                        }
+                    } catch (Exception e) {
+                        log.error("Error during AI analysis for file: {}", fileName, e);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error analyzing modified files", e);
+        }
+    }
+
+    /**
+     * Détermine si un fichier est un fichier de code
+     */
+    private boolean isCodeFile(String fileName) {
+        if (fileName == null) return false;
+        
+        String[] codeExtensions = {
+            ".java", ".js", ".ts", ".py", ".cpp", ".c", ".cs", ".php", ".rb", ".go", 
+            ".rs", ".swift", ".kt", ".scala", ".clj", ".hs", ".ml", ".f90", ".m", ".pl"
+        };
+        
+        String lowerFileName = fileName.toLowerCase();
+        for (String ext : codeExtensions) {
+            if (lowerFileName.endsWith(ext)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+
+    /**
+     * Détermine le langage de programmation basé sur l'extension du fichier
+     */
+    private String getLanguageFromFileName(String fileName) {
+        if (fileName == null) return "text";
+        
+        String lowerFileName = fileName.toLowerCase();
+        
+        if (lowerFileName.endsWith(".java")) return "java";
+        if (lowerFileName.endsWith(".js")) return "javascript";
+        if (lowerFileName.endsWith(".ts")) return "typescript";
+        if (lowerFileName.endsWith(".py")) return "python";
+        if (lowerFileName.endsWith(".cpp") || lowerFileName.endsWith(".cc")) return "cpp";
+        if (lowerFileName.endsWith(".c")) return "c";
+        if (lowerFileName.endsWith(".cs")) return "csharp";
+        if (lowerFileName.endsWith(".php")) return "php";
+        if (lowerFileName.endsWith(".rb")) return "ruby";
+        if (lowerFileName.endsWith(".go")) return "go";
+        if (lowerFileName.endsWith(".rs")) return "rust";
+        if (lowerFileName.endsWith(".swift")) return "swift";
+        if (lowerFileName.endsWith(".kt")) return "kotlin";
+        if (lowerFileName.endsWith(".scala")) return "scala";
+        if (lowerFileName.endsWith(".clj")) return "clojure";
+        if (lowerFileName.endsWith(".hs")) return "haskell";
+        if (lowerFileName.endsWith(".ml")) return "ocaml";
+        if (lowerFileName.endsWith(".f90")) return "fortran";
+        if (lowerFileName.endsWith(".m")) return "objective-c";
+        if (lowerFileName.endsWith(".pl")) return "perl";
+        
+        return "text";
+    }
+
+    private void updateDeliveryStatus(WebhookDelivery delivery, boolean success, String error) {
+        try {
+            if (delivery.getHookId() != null && !delivery.getHookId().isBlank()) {
+                gitHubWebhookService.updateWebhookDelivery(delivery.getHookId(), success, error);
+            } else if (delivery.getRepositoryGithubId() != null || delivery.getRepositoryFullName() != null) {
+                gitHubWebhookService.updateWebhookDeliveryByRepository(delivery.getRepositoryGithubId(),
+                        delivery.getRepositoryFullName(), success, error);
+            }
+        } catch (Exception ex) {
+            log.debug("Unable to update webhook delivery status", ex);
+        }
+    }
+
+    /**
+     * Handle branch/tag creation events
+     */
+    private void handleCreateEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        String refType = (String) payload.get("ref_type");
+        String ref = (String) payload.get("ref");
+
+        if (repository == null) {
+            log.warn("Invalid create event payload");
+            return;
+        }
+
+        String repositoryName = (String) repository.get("full_name");
+        log.info("Processing create event: {} {} created in {}", refType, ref, repositoryName);
+
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("%s '%s' created",
+                    refType.substring(0, 1).toUpperCase() + refType.substring(1), ref);
+            notificationService.sendGitHubEventNotification(
+                "create", repositoryName, ref, eventDescription, "System", recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Handle branch/tag deletion events
+     */
+    private void handleDeleteEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        String refType = (String) payload.get("ref_type");
+        String ref = (String) payload.get("ref");
+
+        if (repository == null) {
+            log.warn("Invalid delete event payload");
+            return;
+        }
+
+        String repositoryName = (String) repository.get("full_name");
+        log.info("Processing delete event: {} {} deleted from {}", refType, ref, repositoryName);
+
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("%s '%s' deleted",
+                    refType.substring(0, 1).toUpperCase() + refType.substring(1), ref);
+            notificationService.sendGitHubEventNotification(
+                "delete", repositoryName, ref, eventDescription, "System", recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Handle release events
+     */
+    private void handleReleaseEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> release = (Map<String, Object>) payload.get("release");
+        String action = (String) payload.get("action");
+
+        if (repository == null || release == null) {
+            log.warn("Invalid release event payload");
+            return;
+        }
+
+        String repositoryName = (String) repository.get("full_name");
+        String tagName = (String) release.get("tag_name");
+        String releaseName = (String) release.get("name");
+
+        log.info("Processing release event: {} - {} {} in {}", action, tagName, releaseName, repositoryName);
+
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("Release %s: %s (%s)", action, releaseName, tagName);
+            notificationService.sendGitHubEventNotification(
+                "release", repositoryName, tagName, eventDescription, "System", recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Handle fork events
+     */
+    private void handleForkEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> forkee = (Map<String, Object>) payload.get("forkee");
+
+        if (repository == null || forkee == null) {
+            log.warn("Invalid fork event payload");
+            return;
+        }
+
+        String repositoryName = (String) repository.get("full_name");
+        String forkeeName = (String) forkee.get("full_name");
+
+        log.info("Processing fork event: {} forked to {}", repositoryName, forkeeName);
+
+        List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+        if (!recipientEmails.isEmpty()) {
+            String eventDescription = String.format("Repository forked to %s", forkeeName);
+            notificationService.sendGitHubEventNotification(
+                "fork", repositoryName, "main", eventDescription, "System", recipientEmails
+            );
+        }
+    }
+
+    /**
+     * Handle watch (star) events
+     */
+    private void handleWatchEvent(Map<String, Object> payload) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> repository = (Map<String, Object>) payload.get("repository");
+        String action = (String) payload.get("action");
+
+        if (repository == null) {
+            log.warn("Invalid watch event payload");
+            return;
+        }
+
+        String repositoryName = (String) repository.get("full_name");
+        log.info("Processing watch event: {} - {}", action, repositoryName);
+
+        // Watch events are usually less critical, so we might not notify for all of them
+        if ("started".equals(action)) {
+            List<String> recipientEmails = getRecipientsForRepository(repositoryName);
+            if (!recipientEmails.isEmpty()) {
+                String eventDescription = "Repository starred";
+                notificationService.sendGitHubEventNotification(
+                    "watch", repositoryName, "main", eventDescription, "System", recipientEmails
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package tn.esprithub.server.github.webhook;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index from repository full name to the people notified of its GitHub events: the students of
+ * the groups working on it and the teacher who created their project. Warmed at startup, refreshed per
+ * repository when groups, projects or their users change, and rebuilt every 30 minutes as a safety net,
+ * so webhook fan-out needs no database round trip.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RepositoryRecipientIndex {
+
+    private static final String RECIPIENTS_QUERY =
+            "SELECT r.full_name, u.id, u.email FROM groups g JOIN repositories r ON r.id = g.repository_id "
+                    + "JOIN group_students gs ON gs.group_id = g.id JOIN users u ON u.id = gs.student_id %1$s "
+                    + "UNION "
+                    + "SELECT r.full_name, u.id, u.email FROM groups g JOIN repositories r ON r.id = g.repository_id "
+                    + "JOIN projects p ON p.id = g.project_id JOIN users u ON u.id = p.created_by %1$s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, List<Recipient>> recipientsByRepository = new ConcurrentHashMap<>();
+
+    private volatile boolean warm;
+
+    /**
+     * Recipients of a repository's events; falls back to the database until the index is warm
+     */
+    public List<Recipient> getRecipients(String repositoryFullName) {
+        if (repositoryFullName == null) {
+            return List.of();
+        }
+        if (!warm) {
+            return load(List.of(repositoryFullName)).getOrDefault(repositoryFullName, List.of());
+        }
+        return recipientsByRepository.getOrDefault(repositoryFullName, List.of());
+    }
+
+    public List<String> getRecipientEmails(String repositoryFullName) {
+        return getRecipients(repositoryFullName).stream().map(Recipient::email).distinct().toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelay = 30 * 60 * 1000, fixedDelay = 30 * 60 * 1000)
+    public void rebuild() {
+        try {
+            Map<String, List<Recipient>> loaded = load(null);
+            recipientsByRepository.keySet().retainAll(loaded.keySet());
+            recipientsByRepository.putAll(loaded);
+            warm = true;
+            log.info("📇 Recipient index built for {} repositories", loaded.size());
+        } catch (Exception e) {
+            log.warn("Could not build the repository recipient index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the recipients of these repositories once the current transaction commits (right away outside one)
+     */
+    public void refreshAfterCommit(Collection<String> repositoryFullNames) {
+        List<String> names = repositoryFullNames.stream().filter(name -> name != null && !name.isBlank()).distinct().toList();
+        if (names.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(names);
+                }
+            });
+        } else {
+            refresh(names);
+        }
+    }
+
+    /**
+     * Full names of the repositories of a project's groups
+     */
+    public List<String> getProjectRepositories(UUID projectId) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT r.full_name FROM groups g JOIN repositories r ON r.id = g.repository_id "
+                + "WHERE g.project_id = ?", String.class, projectId);
+    }
+
+    /**
+     * Full names of the repositories a user is a recipient of, as a group student or as the project's teacher
+     */
+    public List<String> getUserRepositories(UUID userId) {
+        return jdbcTemplate.queryForList("SELECT r.full_name FROM groups g JOIN repositories r ON r.id = g.repository_id "
+                + "JOIN group_students gs ON gs.group_id = g.id WHERE gs.student_id = ? "
+                + "UNION "
+                + "SELECT r.full_name FROM groups g JOIN repositories r ON r.id = g.repository_id "
+                + "JOIN projects p ON p.id = g.project_id WHERE p.created_by = ?", String.class, userId, userId);
+    }
+
+    private void refresh(List<String> repositoryFullNames) {
+        try {
+            Map<String, List<Recipient>> loaded = load(repositoryFullNames);
+            for (String name : repositoryFullNames) {
+                List<Recipient> recipients = loaded.get(name);
+                if (recipients != null) {
+                    recipientsByRepository.put(name, recipients);
+                } else {
+                    recipientsByRepository.remove(name);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not refresh recipients of {}: {}", repositoryFullNames, e.getMessage());
+        }
+    }
+
+    /**
+     * Recipients per repository, for the given repositories or all of them when {@code repositoryFullNames} is null
+     */
+    private Map<String, List<Recipient>> load(List<String> repositoryFullNames) {
+        String filter = "";
+        List<Object> args = new ArrayList<>();
+        if (repositoryFullNames != null) {
+            filter = "WHERE r.full_name IN (" + String.join(", ", Collections.nCopies(repositoryFullNames.size(), "?")) + ")";
+            args.addAll(repositoryFullNames);
+            args.addAll(repositoryFullNames);
+        }
+
+        Map<String, Set<Recipient>> recipients = new HashMap<>();
+        jdbcTemplate.query(String.format(RECIPIENTS_QUERY, filter), rs -> {
+            recipients.computeIfAbsent(rs.getString(1), name -> new LinkedHashSet<>())
+                    .add(new Recipient(rs.getObject(2, UUID.class), rs.getString(3)));
+        }, args.toArray());
+
+        Map<String, List<Recipient>> result = new HashMap<>();
+        recipients.forEach((name, set) -> result.put(name, List.copyOf(set)));
+        return result;
+    }
+
+    public record Recipient(UUID userId, String email) {
+    }
+}
@@ -0,0 +1,156 @@
+package tn.esprithub.server.github.webhook;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.WebhookProperties;
+import tn.esprithub.server.repository.entity.WebhookDelivery;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs stored webhook deliveries on a fixed set of single-threaded lanes. A repository always maps to the
+ * same lane, so its deliveries are processed one at a time while different repositories proceed in parallel.
+ * Lanes are bounded: a delivery that does not fit stays in the database and is picked up by the poller, which
+ * also runs retries and deliveries left behind by a stopped node.
+ * <p>
+ * Ordering is best-effort and per node only. Each node has its own lanes, so two nodes can process deliveries
+ * of the same repository at the same time. A failed delivery is retried by the poller after its backoff, at the
+ * back of its lane, and a delivery that overflowed a lane comes back the same way, so later deliveries of that
+ * repository may run first. Event processing must not rely on strict arrival order: pushes are deduplicated by
+ * commit SHA and new branches are read back from GitHub.
+ */
+@Component
+@Slf4j
+public class WebhookDeliveryDispatcher {
+
+    private final WebhookDeliveryService deliveryService;
+    private final GitHubWebhookEventProcessor eventProcessor;
+    private final WebhookProperties.Ingestion properties;
+    private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName(); // pid@hostname
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    public WebhookDeliveryDispatcher(WebhookDeliveryService deliveryService, GitHubWebhookEventProcessor eventProcessor,
+                                     WebhookProperties webhookProperties) {
+        this.deliveryService = deliveryService;
+        this.eventProcessor = eventProcessor;
+        this.properties = webhookProperties.getIngestion();
+
+        int laneCount = Math.max(1, properties.getWorkerThreads());
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "webhook-lane-" + (i + 1);
+            lanes.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, properties.getLaneCapacity())), runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    }));
+        }
+    }
+
+    /**
+     * Queue a delivery on its repository's lane; when the lane is full it is left to the poller
+     */
+    public void dispatch(WebhookDelivery delivery) {
+        if (!queued.add(delivery.getId())) {
+            return;
+        }
+        try {
+            lane(delivery).execute(() -> run(delivery.getId()));
+        } catch (RejectedExecutionException e) {
+            queued.remove(delivery.getId());
+            overflowed.incrementAndGet();
+            log.warn("⏳ Webhook lane full, delivery {} left to the poller", delivery.getDeliveryId());
+        }
+    }
+
+    @Scheduled(initialDelay = 30000, fixedDelayString = "${app.webhook.ingestion.poll-interval:10000}")
+    public void pollDueDeliveries() {
+        try {
+            int capacity = lanes.size() * Math.max(1, properties.getLaneCapacity());
+            for (WebhookDelivery delivery : deliveryService.findDue(Math.max(1, capacity - queued.size()))) {
+                dispatch(delivery);
+            }
+        } catch (Exception e) {
+            log.warn("Webhook delivery poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Purge processed deliveries past their retention, daily at 3:15 AM
+     */
+    @Scheduled(cron = "0 15 3 * * ?")
+    public void purgeProcessedDeliveries() {
+        int deleted = deliveryService.deleteProcessedDeliveries();
+        if (deleted > 0) {
+            log.info("🧹 Purged {} processed webhook deliveries", deleted);
+        }
+    }
+
+    private void run(UUID id) {
+        try {
+            if (!deliveryService.claim(id, workerId)) {
+                return; // Processed by another node or already done
+            }
+            WebhookDelivery delivery = deliveryService.getDelivery(id);
+            try {
+                eventProcessor.process(delivery);
+                deliveryService.markProcessed(id);
+                processed.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                WebhookDelivery updated = deliveryService.markFailed(id, e);
+                if (updated != null && updated.getStatus() == WebhookDelivery.DeliveryStatus.DEAD_LETTER) {
+                    eventProcessor.reportFailure(updated);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error running webhook delivery {}", id, e);
+        } finally {
+            queued.remove(id);
+        }
+    }
+
+    private ThreadPoolExecutor lane(WebhookDelivery delivery) {
+        String key = delivery.getRepositoryFullName() != null ? delivery.getRepositoryFullName() : delivery.getDeliveryId();
+        return lanes.get(Math.floorMod(key.hashCode(), lanes.size()));
+    }
+
+    /**
+     * Lane depth and counters of this node, plus delivery counts per status
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lanes", lanes.size());
+        stats.put("queued", queued.size());
+        stats.put("processed", processed.get());
+        stats.put("failed", failed.get());
+        stats.put("overflowed", overflowed.get());
+        stats.put("deliveries", deliveryService.getStats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Deliveries still queued stay RECEIVED/RETRYING in the database and are picked up again
+        lanes.forEach(ThreadPoolExecutor::shutdownNow);
+    }
+}
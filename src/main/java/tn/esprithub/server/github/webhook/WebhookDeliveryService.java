@@ -0,0 +1,281 @@
+package tn.esprithub.server.github.webhook;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.WebhookProperties;
+import tn.esprithub.server.repository.entity.WebhookDeadLetter;
+import tn.esprithub.server.repository.entity.WebhookDelivery;
+import tn.esprithub.server.repository.repository.WebhookDeadLetterRepository;
+import tn.esprithub.server.repository.repository.WebhookDeliveryRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Durable state of GitHub webhook deliveries: stored on receipt, claimed by one processing node at a time,
+ * retried with exponential backoff and moved to the dead-letter table once their attempts are used up.
+ * Deliveries are keyed by their GitHub delivery id, so redeliveries are dropped on receipt; an in-memory
+ * LRU of recent ids answers most of them without touching the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookDeliveryService {
+
+    private static final List<WebhookDelivery.DeliveryStatus> PENDING_STATUSES =
+            List.of(WebhookDelivery.DeliveryStatus.RECEIVED, WebhookDelivery.DeliveryStatus.RETRYING);
+
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookDeadLetterRepository deadLetterRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final WebhookProperties webhookProperties;
+
+    /**
+     * Front of the delivery ledger: recently received GitHub delivery ids, least recently seen evicted first
+     */
+    private final Map<String, Boolean> recentDeliveries = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > Math.max(1, ingestion().getRecentDeliveryCacheSize());
+        }
+    });
+
+    /**
+     * Whether this GitHub delivery id was seen recently by this node (no database access)
+     */
+    public boolean isRecentlyReceived(String deliveryId) {
+        return recentDeliveries.get(deliveryId) != null;
+    }
+
+    /**
+     * Store a delivery as received; the receiving node processes it right away, the poller only after the hand-off delay
+     *
+     * @return the stored delivery, or {@code null} when this GitHub delivery id was already received
+     */
+    @Transactional
+    public WebhookDelivery receive(String deliveryId, String eventType, String hookId,
+                                   String repositoryFullName, Long repositoryGithubId, String rawPayload) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextAttemptAt = now.plus(Duration.ofMillis(ingestion().getHandOffDelay()));
+        String payloadHash = hash(rawPayload);
+        List<UUID> inserted = jdbcTemplate.queryForList(
+                "INSERT INTO webhook_deliveries (id, created_at, updated_at, delivery_id, event_type, hook_id, "
+                        + "repository_full_name, repository_github_id, payload, payload_hash, status, attempts, "
+                        + "next_attempt_at, replay_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'RECEIVED', 0, ?, 0) "
+                        + "ON CONFLICT (delivery_id) DO NOTHING RETURNING id",
+                UUID.class,
+                UUID.randomUUID(), now, now, deliveryId, eventType, hookId, repositoryFullName, repositoryGithubId,
+                rawPayload, payloadHash, nextAttemptAt);
+        rememberAfterCommit(deliveryId);
+
+        if (inserted.isEmpty()) {
+            log.info("⏭️ Duplicate webhook delivery {} ignored", deliveryId);
+            return null;
+        }
+        return WebhookDelivery.builder()
+                .id(inserted.get(0))
+                .deliveryId(deliveryId)
+                .eventType(eventType)
+                .hookId(hookId)
+                .repositoryFullName(repositoryFullName)
+                .repositoryGithubId(repositoryGithubId)
+                .payload(rawPayload)
+                .payloadHash(payloadHash)
+                .nextAttemptAt(nextAttemptAt)
+                .build();
+    }
+
+    /**
+     * Mark a pending (or stuck) delivery as processing on {@code workerId}
+     *
+     * @return false when another node or lane got it first
+     */
+    @Transactional
+    public boolean claim(UUID id, String workerId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(
+                "UPDATE webhook_deliveries SET status = 'PROCESSING', locked_by = ?, locked_until = ?, "
+                        + "attempts = attempts + 1, updated_at = ? WHERE id = ? "
+                        + "AND (status IN ('RECEIVED', 'RETRYING') OR (status = 'PROCESSING' AND locked_until < ?))",
+                workerId, now.plus(Duration.ofMillis(ingestion().getProcessingTimeout())), now, id, now) == 1;
+    }
+
+    @Transactional
+    public void markProcessed(UUID id) {
+        deliveryRepository.findById(id).ifPresent(delivery -> {
+            delivery.setStatus(WebhookDelivery.DeliveryStatus.PROCESSED);
+            delivery.setProcessedAt(LocalDateTime.now());
+            delivery.setLockedBy(null);
+            delivery.setLockedUntil(null);
+            delivery.setLastError(null);
+            deliveryRepository.save(delivery);
+        });
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or dead-letter the delivery once its attempts are used up
+     *
+     * @return the updated delivery, or {@code null} if it no longer exists
+     */
+    @Transactional
+    public WebhookDelivery markFailed(UUID id, Exception error) {
+        WebhookDelivery delivery = deliveryRepository.findById(id).orElse(null);
+        if (delivery == null) {
+            return null;
+        }
+        delivery.setLockedBy(null);
+        delivery.setLockedUntil(null);
+        delivery.setLastError(truncate(error.getClass().getSimpleName() + ": " + error.getMessage()));
+
+        if (delivery.getAttempts() >= ingestion().getMaxAttempts()) {
+            delivery.setStatus(WebhookDelivery.DeliveryStatus.DEAD_LETTER);
+            deadLetterRepository.save(WebhookDeadLetter.builder()
+                    .webhookDeliveryId(delivery.getId())
+                    .deliveryId(delivery.getDeliveryId())
+                    .eventType(delivery.getEventType())
+                    .repositoryFullName(delivery.getRepositoryFullName())
+                    .attempts(delivery.getAttempts())
+                    .lastError(delivery.getLastError())
+                    .build());
+            log.error("☠️ Webhook delivery {} ({} on {}) dead-lettered after {} attempts: {}", delivery.getDeliveryId(),
+                    delivery.getEventType(), delivery.getRepositoryFullName(), delivery.getAttempts(), error.getMessage());
+        } else {
+            long backoff = Math.min(ingestion().getMaxRetryBackoff(),
+                    ingestion().getRetryBackoff() << Math.min(delivery.getAttempts() - 1, 20));
+            delivery.setStatus(WebhookDelivery.DeliveryStatus.RETRYING);
+            delivery.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+            log.warn("🔁 Webhook delivery {} failed (attempt {}/{}), retrying in {}s: {}", delivery.getDeliveryId(),
+                    delivery.getAttempts(), ingestion().getMaxAttempts(), backoff / 1000, error.getMessage());
+        }
+        return deliveryRepository.save(delivery);
+    }
+
+    /**
+     * Deliveries due for the poller: retries, overflow and deliveries left behind by another node, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<WebhookDelivery> findDue(int limit) {
+        return deliveryRepository.findDue(PENDING_STATUSES, LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public WebhookDelivery getDelivery(UUID id) {
+        return deliveryRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Webhook delivery not found: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<WebhookDeadLetter> getDeadLetters() {
+        return deadLetterRepository.findTop100ByOrderByCreatedAtDesc();
+    }
+
+    /**
+     * Put a dead-lettered delivery back in the queue with a fresh set of attempts
+     */
+    @Transactional
+    public WebhookDelivery requeueDeadLetter(UUID deadLetterId) {
+        WebhookDeadLetter deadLetter = deadLetterRepository.findById(deadLetterId)
+                .orElseThrow(() -> new BusinessException("Dead letter not found: " + deadLetterId));
+        WebhookDelivery delivery = getDelivery(deadLetter.getWebhookDeliveryId());
+        delivery.setStatus(WebhookDelivery.DeliveryStatus.RETRYING);
+        delivery.setAttempts(0);
+        delivery.setNextAttemptAt(LocalDateTime.now());
+        deadLetterRepository.delete(deadLetter);
+        log.info("♻️ Requeued dead-lettered webhook delivery {}", delivery.getDeliveryId());
+        return deliveryRepository.save(delivery);
+    }
+
+    @Transactional(readOnly = true)
+    public WebhookDelivery getDeliveryByGitHubId(String deliveryId) {
+        return deliveryRepository.findByDeliveryId(deliveryId)
+                .orElseThrow(() -> new BusinessException("Webhook delivery not found: " + deliveryId));
+    }
+
+    /**
+     * Process a stored delivery again, whatever its outcome was; a dead letter for it is dropped
+     */
+    @Transactional
+    public WebhookDelivery replay(String deliveryId) {
+        WebhookDelivery delivery = getDeliveryByGitHubId(deliveryId);
+        if (delivery.getStatus() == WebhookDelivery.DeliveryStatus.PROCESSING) {
+            throw new BusinessException("Webhook delivery " + deliveryId + " is being processed");
+        }
+        delivery.setStatus(WebhookDelivery.DeliveryStatus.RETRYING);
+        delivery.setAttempts(0);
+        delivery.setNextAttemptAt(LocalDateTime.now());
+        delivery.setProcessedAt(null);
+        delivery.setLastError(null);
+        delivery.setReplayCount(delivery.getReplayCount() + 1);
+        deadLetterRepository.deleteByWebhookDeliveryId(delivery.getId());
+        log.info("♻️ Replaying webhook delivery {} ({} on {})", deliveryId, delivery.getEventType(), delivery.getRepositoryFullName());
+        return deliveryRepository.save(delivery);
+    }
+
+    @Transactional
+    public int deleteProcessedDeliveries() {
+        return deliveryRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(ingestion().getRetentionDays()));
+    }
+
+    /**
+     * Delivery counts per status
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Object[] row : deliveryRepository.countByStatus()) {
+            stats.put(row[0].toString(), row[1]);
+        }
+        stats.put("deadLetters", deadLetterRepository.count());
+        return stats;
+    }
+
+    /**
+     * Add a delivery id to the LRU once the transaction storing it commits, so a rolled-back receipt
+     * is not answered as a duplicate when GitHub redelivers it
+     */
+    private void rememberAfterCommit(String deliveryId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentDeliveries.put(deliveryId, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentDeliveries.put(deliveryId, Boolean.TRUE);
+        }
+    }
+
+    private WebhookProperties.Ingestion ingestion() {
+        return webhookProperties.getIngestion();
+    }
+
+    private String hash(String payload) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String truncate(String value) {
+        return value != null && value.length() > 2000 ? value.substring(0, 2000) : value;
+    }
+}
@@ -0,0 +1,252 @@
+package tn.esprithub.server.github.webhook;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.common.entity.BackgroundJob;
+import tn.esprithub.server.common.job.BackgroundJobService;
+import tn.esprithub.server.config.properties.WebhookProperties;
+import tn.esprithub.server.github.job.RepositorySyncJobHandler;
+import tn.esprithub.server.github.service.RepositoryDataSyncService;
+import tn.esprithub.server.github.service.RepositoryDataSyncService.PushedRef;
+import tn.esprithub.server.github.service.RepositoryDataSyncService.RefChange;
+import tn.esprithub.server.github.service.RepositoryDataSyncService.RefEvents;
+import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debounces push/create/delete events per repository: events arriving within the coalescing window are
+ * merged (pushes to a ref joined into one before...after range with its commits unioned by SHA, last change
+ * per ref kept) and synced once the repository has been quiet for the window, or once the first event has
+ * waited the maximum delay. A repository has at most one sync
+ * running; events arriving meanwhile form the next burst. Deliveries are acknowledged once buffered, so each
+ * burst starts by queueing a deferred full repository sync job, cancelled when the burst's sync succeeds: a
+ * node that dies with events buffered leaves that job behind, and nothing is lost. When a merged sync fails,
+ * or events are still buffered at shutdown, a full repository sync job is queued right away.
+ */
+@Component
+@Slf4j
+public class WebhookSyncCoalescer {
+
+    private static final Set<String> COALESCED_EVENTS = Set.of("push", "create", "delete");
+
+    private final RepositoryDataSyncService repositoryDataSyncService;
+    private final RepositoryEntityRepository repositoryRepository;
+    private final BackgroundJobService jobService;
+    private final WebhookProperties.Coalescing properties;
+    private final Map<String, Burst> bursts = new ConcurrentHashMap<>();
+    private final Set<String> syncing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    private final AtomicLong mergedEvents = new AtomicLong();
+    private final AtomicLong flushedSyncs = new AtomicLong();
+
+    public WebhookSyncCoalescer(RepositoryDataSyncService repositoryDataSyncService,
+                                RepositoryEntityRepository repositoryRepository,
+                                BackgroundJobService jobService,
+                                WebhookProperties webhookProperties) {
+        this.repositoryDataSyncService = repositoryDataSyncService;
+        this.repositoryRepository = repositoryRepository;
+        this.jobService = jobService;
+        this.properties = webhookProperties.getCoalescing();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getFlushThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "webhook-sync-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Whether the sync of this event type is deferred to a coalesced burst
+     */
+    public boolean handles(String eventType) {
+        return properties.isEnabled() && COALESCED_EVENTS.contains(eventType);
+    }
+
+    /**
+     * Add an event to its repository's current burst
+     */
+    public void submit(String repositoryFullName, String eventType, Map<String, Object> payload) {
+        Burst burst = bursts.compute(repositoryFullName, (name, existing) -> {
+            Burst current = existing != null ? existing : new Burst();
+            current.add(eventType, payload);
+            return current;
+        });
+        mergedEvents.incrementAndGet();
+        if (burst.fallbackRequested.compareAndSet(false, true)) {
+            burst.fallbackJobId = queueFallbackSync(repositoryFullName);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void flushDueBursts() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Burst> entry : bursts.entrySet()) {
+            String repositoryFullName = entry.getKey();
+            Burst burst = entry.getValue();
+            boolean quiet = now - burst.lastEventAt >= properties.getWindow();
+            boolean waitedTooLong = now - burst.firstEventAt >= properties.getMaxDelay();
+            if ((quiet || waitedTooLong) && syncing.add(repositoryFullName)) {
+                // Events submitted from here on start a new burst
+                bursts.remove(repositoryFullName, burst);
+                executor.execute(() -> flush(repositoryFullName, burst));
+            }
+        }
+    }
+
+    private void flush(String repositoryFullName, Burst burst) {
+        try {
+            repositoryDataSyncService.syncRefEvents(repositoryFullName, burst.toRefEvents());
+            flushedSyncs.incrementAndGet();
+            cancelFallbackSync(burst);
+        } catch (Exception e) {
+            log.warn("Coalesced sync failed for {}, queueing a full repository sync: {}", repositoryFullName, e.getMessage());
+            cancelFallbackSync(burst);
+            enqueueRepositorySync(repositoryFullName);
+        } finally {
+            syncing.remove(repositoryFullName);
+        }
+    }
+
+    /**
+     * Queue the deferred full sync standing in for a burst until it is synced
+     *
+     * @return the job id, or {@code null} when a sync of the repository is already queued (which covers the burst)
+     */
+    private UUID queueFallbackSync(String repositoryFullName) {
+        try {
+            return repositoryRepository.findByFullNameWithOwner(repositoryFullName)
+                    .map(repository -> jobService.enqueueDeferred(BackgroundJob.JobType.REPOSITORY_SYNC,
+                            RepositorySyncJobHandler.dedupKey(repository.getId()),
+                            Map.of("repositoryId", repository.getId().toString(), "userId", repository.getOwner().getId().toString()),
+                            10, Duration.ofMillis(properties.getFallbackDelay())))
+                    .orElse(null);
+        } catch (Exception e) {
+            log.error("Could not queue fallback sync for: {}", repositoryFullName, e);
+            return null;
+        }
+    }
+
+    private void cancelFallbackSync(Burst burst) {
+        UUID jobId = burst.fallbackJobId;
+        if (jobId == null) {
+            return;
+        }
+        try {
+            jobService.cancelPending(jobId);
+        } catch (Exception e) {
+            log.debug("Could not cancel fallback sync job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void enqueueRepositorySync(String repositoryFullName) {
+        try {
+            repositoryRepository.findByFullNameWithOwner(repositoryFullName).ifPresent(repository ->
+                    jobService.enqueue(BackgroundJob.JobType.REPOSITORY_SYNC, RepositorySyncJobHandler.dedupKey(repository.getId()),
+                            Map.of("repositoryId", repository.getId().toString(), "userId", repository.getOwner().getId().toString()),
+                            10));
+        } catch (Exception e) {
+            log.error("Could not queue repository sync for: {}", repositoryFullName, e);
+        }
+    }
+
+    /**
+     * Buffered bursts and counters of this node
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("bufferedRepositories", bursts.size());
+        stats.put("syncingRepositories", syncing.size());
+        stats.put("mergedEvents", mergedEvents.get());
+        stats.put("syncs", flushedSyncs.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        List.copyOf(bursts.keySet()).forEach(this::enqueueRepositorySync);
+    }
+
+    /**
+     * Events of one repository waiting to be synced together
+     */
+    private static class Burst {
+        private final long firstEventAt = System.currentTimeMillis();
+        private volatile long lastEventAt = firstEventAt;
+        private final Map<String, PushRange> pushes = new LinkedHashMap<>();
+        private final Map<String, RefChange> refChanges = new LinkedHashMap<>();
+        private int eventCount;
+        private final AtomicBoolean fallbackRequested = new AtomicBoolean();
+        private volatile UUID fallbackJobId;
+
+        // Only called inside ConcurrentHashMap.compute, one event at a time per repository
+        @SuppressWarnings("unchecked")
+        void add(String eventType, Map<String, Object> payload) {
+            lastEventAt = System.currentTimeMillis();
+            eventCount++;
+            String ref = (String) payload.get("ref");
+            if (ref == null) {
+                return;
+            }
+
+            if ("push".equals(eventType)) {
+                PushRange push = pushes.computeIfAbsent(ref, key -> new PushRange((String) payload.get("before")));
+                push.after = (String) payload.get("after");
+                if (payload.get("commits") instanceof List<?> commits) {
+                    for (Object commit : commits) {
+                        if (commit instanceof Map<?, ?> commitData && commitData.get("id") instanceof String sha) {
+                            push.commits.putIfAbsent(sha, (Map<String, Object>) commitData);
+                        }
+                    }
+                }
+                return;
+            }
+
+            boolean tag = "tag".equals(payload.get("ref_type"));
+            RefChange change = "create".equals(eventType)
+                    ? (tag ? RefChange.TAG_CREATED : RefChange.BRANCH_CREATED)
+                    : (tag ? RefChange.TAG_DELETED : RefChange.BRANCH_DELETED);
+            refChanges.remove(ref); // keep the last change, in arrival order
+            refChanges.put(ref, change);
+        }
+
+        RefEvents toRefEvents() {
+            Map<String, PushedRef> pushedRefs = new LinkedHashMap<>();
+            pushes.forEach((ref, push) -> pushedRefs.put(ref, new PushedRef(push.before, push.after, List.copyOf(push.commits.values()))));
+            return new RefEvents(Collections.unmodifiableMap(pushedRefs), Collections.unmodifiableMap(new LinkedHashMap<>(refChanges)),
+                    eventCount);
+        }
+    }
+
+    /**
+     * Pushes to one ref: first "before", last "after" and the commits of all of them, unique by SHA
+     */
+    private static class PushRange {
+        private final String before;
+        private String after;
+        private final Map<String, Map<String, Object>> commits = new LinkedHashMap<>();
+
+        PushRange(String before) {
+            this.before = before;
+        }
+    }
+}
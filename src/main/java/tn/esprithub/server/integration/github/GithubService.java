@@ -1,5 +1,6 @@
 package tn.esprithub.server.integration.github;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.*;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GithubService {
 
@@ -18,7 +20,7 @@ public class GithubService {
     @Value("${github.organization.name:esprithub}")
     private String organizationName;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
    public String createRepositoryForUser(String repoName, String githubToken, boolean isPrivate, String gitignoreTemplate) {
@@ -0,0 +1,75 @@
+package tn.esprithub.server.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores the same in-app {@link tn.esprithub.server.notification.entity.Notification} for many users at once:
+ * recipients are resolved and rows inserted by one {@code INSERT ... SELECT} per chunk, in a single transaction,
+ * instead of a user lookup and a save per recipient. Used by every notifier that fans out to a list of users.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkNotificationService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Store a notification for every user with one of these emails; unknown emails are skipped
+     *
+     * @return the number of notifications stored
+     */
+    @Transactional
+    public int storeForEmails(Collection<String> emails, String title, String message, String type) {
+        return store("email", emails.stream().distinct().toList(), title, message, type);
+    }
+
+    /**
+     * Store a notification for each of these users
+     *
+     * @return the number of notifications stored
+     */
+    @Transactional
+    public int storeForUsers(Collection<UUID> userIds, String title, String message, String type) {
+        return store("id", userIds.stream().distinct().toList(), title, message, type);
+    }
+
+    private int store(String column, List<?> keys, String title, String message, String type) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int stored = 0;
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            List<?> chunk = keys.subList(from, Math.min(keys.size(), from + CHUNK_SIZE));
+            List<Object> args = new ArrayList<>(List.of(truncate(title), truncate(message), type, now));
+            args.addAll(chunk);
+            stored += jdbcTemplate.update(
+                    "INSERT INTO notification (title, message, type, timestamp, is_read, student_id) "
+                            + "SELECT ?, ?, ?, ?, false, u.id FROM users u WHERE u." + column + " IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    args.toArray());
+        }
+        log.debug("Stored {} notifications for {} recipients", stored, keys.size());
+        return stored;
+    }
+
+    private String truncate(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH ? value.substring(0, MAX_TEXT_LENGTH) : value;
+    }
+}
@@ -5,7 +5,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import tn.esprithub.server.ai.CodeReviewService;
 import tn.esprithub.server.ai.dto.CodeReviewResult;
-import tn.esprithub.server.email.EmailService;
 import tn.esprithub.server.user.entity.User;
 
 import java.time.LocalDateTime;
@@ -19,8 +18,8 @@ import java.util.HashMap;
 public class CodeReviewNotificationService {
 
     private final CodeReviewService codeReviewService;
-    private final EmailService emailService;
-    private final TeamsNotificationService teamsNotificationService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final BulkNotificationService bulkNotificationService;
 
     /**
      * Analyse le code et envoie une notification avec les résultats
@@ -38,6 +37,13 @@ public class CodeReviewNotificationService {
         result.setAnalyzedLanguage(language);
         result.setAnalyzedFile(fileName);
         
+        notifyCodeReview(result, recipients, repositoryName, fileName);
+    }
+
+    /**
+     * Envoie la notification d'une analyse de code déjà effectuée
+     */
+    public void notifyCodeReview(CodeReviewResult result, List<User> recipients, String repositoryName, String fileName) {
         if (result.isSuccess()) {
             sendCodeReviewNotification(result, recipients, repositoryName, fileName);
         } else {
@@ -60,6 +66,13 @@ public class CodeReviewNotificationService {
         result.setAnalysisTimeMs(analysisTime);
         result.setAnalyzedLanguage(language);
         
+        notifyDiffReview(result, recipients, repositoryName, pullRequestTitle);
+    }
+
+    /**
+     * Envoie la notification d'une analyse de diff déjà effectuée
+     */
+    public void notifyDiffReview(CodeReviewResult result, List<User> recipients, String repositoryName, String pullRequestTitle) {
         if (result.isSuccess()) {
             sendDiffReviewNotification(result, recipients, repositoryName, pullRequestTitle);
         } else {
@@ -78,23 +91,12 @@ public class CodeReviewNotificationService {
         String emailContent = buildCodeReviewEmailContent(result, repositoryName, fileName);
         String teamsContent = buildCodeReviewTeamsContent(result, repositoryName, fileName);
         
-        // Envoi par email
-        for (User recipient : recipients) {
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), subject, emailContent);
-                log.info("Code review notification sent to: {}", recipient.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send code review email to: {}", recipient.getEmail(), e);
-            }
-        }
-        
-        // Envoi par Teams
-        try {
-            teamsNotificationService.sendNotification(teamsContent);
-            log.info("Code review notification sent to Teams");
-        } catch (Exception e) {
-            log.error("Failed to send code review notification to Teams", e);
-        }
+        // Envoi par email et Teams via l'outbox
+        int queued = notificationOutboxService.enqueueEmails(
+                recipients.stream().map(User::getEmail).toList(), subject, emailContent);
+        notificationOutboxService.enqueueTeams(teamsContent);
+        log.info("Code review notification queued for {} recipients and Teams", queued);
+        storeInAppNotifications(recipients, subject, String.format("Score %d/10 - %s", result.getOverallScore(), result.getSummary()), "INFO");
     }
 
     /**
@@ -108,23 +110,12 @@ public class CodeReviewNotificationService {
         String emailContent = buildDiffReviewEmailContent(result, repositoryName, pullRequestTitle);
         String teamsContent = buildDiffReviewTeamsContent(result, repositoryName, pullRequestTitle);
         
-        // Envoi par email
-        for (User recipient : recipients) {
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), subject, emailContent);
-                log.info("Diff review notification sent to: {}", recipient.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send diff review email to: {}", recipient.getEmail(), e);
-            }
-        }
-        
-        // Envoi par Teams
-        try {
-            teamsNotificationService.sendNotification(teamsContent);
-            log.info("Diff review notification sent to Teams");
-        } catch (Exception e) {
-            log.error("Failed to send diff review notification to Teams", e);
-        }
+        // Envoi par email et Teams via l'outbox
+        int queued = notificationOutboxService.enqueueEmails(
+                recipients.stream().map(User::getEmail).toList(), subject, emailContent);
+        notificationOutboxService.enqueueTeams(teamsContent);
+        log.info("Diff review notification queued for {} recipients and Teams", queued);
+        storeInAppNotifications(recipients, subject, String.format("Score %d/10 - %s", result.getOverallScore(), result.getSummary()), "INFO");
     }
 
     /**
@@ -137,23 +128,22 @@ public class CodeReviewNotificationService {
         String message = String.format("AI analysis failed for %s in %s: %s", 
                                      fileName, repositoryName, result.getMessage());
         
-        // Envoi par email
-        for (User recipient : recipients) {
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), subject, 
-                    buildErrorEmailContent(message));
-                log.info("Analysis error notification sent to: {}", recipient.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send analysis error email to: {}", recipient.getEmail(), e);
-            }
-        }
-        
-        // Envoi par Teams
+        // Envoi par email et Teams via l'outbox
+        int queued = notificationOutboxService.enqueueEmails(
+                recipients.stream().map(User::getEmail).toList(), subject, buildErrorEmailContent(message));
+        notificationOutboxService.enqueueTeams(message);
+        log.info("Analysis error notification queued for {} recipients and Teams", queued);
+        storeInAppNotifications(recipients, subject, message, "ERROR");
+    }
+
+    /**
+     * Stocke la notification in-app de tous les destinataires en une seule requête
+     */
+    private void storeInAppNotifications(List<User> recipients, String title, String message, String type) {
         try {
-            teamsNotificationService.sendSimpleNotification(message);
-            log.info("Analysis error notification sent to Teams");
+            bulkNotificationService.storeForUsers(recipients.stream().map(User::getId).toList(), title, message, type);
         } catch (Exception e) {
-            log.error("Failed to send analysis error notification to Teams", e);
+            log.error("Failed to store code review notifications for {} recipients", recipients.size(), e);
         }
     }
 
@@ -0,0 +1,225 @@
+package tn.esprithub.server.notification;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tn.esprithub.server.config.properties.NotificationDigestProperties;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers GitHub event notifications per recipient and channel and sends one combined message per buffer:
+ * one email per recipient and one Teams post per window instead of one per commit. A buffer is sent when
+ * its window is over, when it reaches the event limit, or right away when an urgent event joins it.
+ * Sent digests are handed to the notification outbox.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDigestService {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String TEAMS_RECIPIENT = "teams";
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationDigestProperties properties;
+    private final Map<DigestKey, Digest> digests = new ConcurrentHashMap<>();
+
+    private final AtomicLong bufferedEvents = new AtomicLong();
+    private final AtomicLong queuedEmails = new AtomicLong();
+    private final AtomicLong queuedTeamsPosts = new AtomicLong();
+
+    /**
+     * Add an event to the email digest of every recipient and to the Teams digest
+     */
+    public void add(GitHubEvent event, List<String> recipientEmails) {
+        boolean urgent = !properties.isEnabled() || properties.getUrgentEventTypes().contains(event.eventType());
+        for (String email : recipientEmails) {
+            add(new DigestKey(Channel.EMAIL, email), event, urgent);
+        }
+        add(new DigestKey(Channel.TEAMS, TEAMS_RECIPIENT), event, urgent);
+    }
+
+    private void add(DigestKey key, GitHubEvent event, boolean urgent) {
+        AtomicBoolean full = new AtomicBoolean();
+        digests.compute(key, (digestKey, digest) -> {
+            Digest current = digest != null ? digest : new Digest();
+            current.events.add(event);
+            full.set(current.events.size() >= Math.max(1, properties.getMaxEvents()));
+            return current;
+        });
+        bufferedEvents.incrementAndGet();
+        if (urgent || full.get()) {
+            flush(key);
+        }
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void flushDueDigests() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(properties.getWindow() * 1_000_000);
+        for (Map.Entry<DigestKey, Digest> entry : digests.entrySet()) {
+            if (entry.getValue().startedAt.isBefore(cutoff)) {
+                flush(entry.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        List.copyOf(digests.keySet()).forEach(this::flush);
+    }
+
+    /**
+     * Buffered digests and counters of this node
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("pendingDigests", digests.size());
+        stats.put("bufferedEvents", bufferedEvents.get());
+        stats.put("queuedEmails", queuedEmails.get());
+        stats.put("queuedTeamsPosts", queuedTeamsPosts.get());
+        return stats;
+    }
+
+    private void flush(DigestKey key) {
+        Digest digest = digests.remove(key);
+        if (digest == null || digest.events.isEmpty()) {
+            return;
+        }
+        List<GitHubEvent> events = digest.events;
+        try {
+            if (key.channel() == Channel.EMAIL) {
+                notificationOutboxService.enqueueEmail(key.recipient(), buildSubject(events), buildEmailContent(events));
+                queuedEmails.incrementAndGet();
+                log.info("GitHub event digest ({} events) queued for: {}", events.size(), key.recipient());
+            } else {
+                notificationOutboxService.enqueueTeams(buildTeamsContent(events));
+                queuedTeamsPosts.incrementAndGet();
+                log.info("GitHub event digest ({} events) queued for Teams", events.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to queue GitHub event digest for: {}", key.recipient(), e);
+        }
+    }
+
+    private String buildSubject(List<GitHubEvent> events) {
+        if (events.size() == 1) {
+            GitHubEvent event = events.get(0);
+            return String.format("GitHub %s - %s", event.eventType().toUpperCase(), event.repositoryName());
+        }
+        List<String> repositories = events.stream().map(GitHubEvent::repositoryName).distinct().toList();
+        return String.format("GitHub - %d événements sur %s", events.size(),
+                repositories.size() == 1 ? repositories.get(0) : repositories.size() + " dépôts");
+    }
+
+    private String buildEmailContent(List<GitHubEvent> events) {
+        if (events.size() == 1) {
+            return buildSingleEventEmailContent(events.get(0));
+        }
+        StringBuilder rows = new StringBuilder();
+        for (GitHubEvent event : events) {
+            rows.append(String.format(
+                "<tr><td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\">%s</td>" +
+                "<td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\">%s</td>" +
+                "<td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\">%s</td>" +
+                "<td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\">%s</td>" +
+                "<td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\">%s</td>" +
+                "<td style=\"padding: 6px; border-bottom: 1px solid #e1e4e8;\"><i>%s</i></td></tr>",
+                event.occurredAt().format(TIME_FORMAT), event.eventType(), event.repositoryName(), event.branch(),
+                event.authorName(), event.message()));
+        }
+        return String.format(
+            "<div style=\"font-family: Arial, sans-serif; max-width: 800px; margin: 0 auto;\">" +
+            "<h2 style=\"color: #0366d6;\">GitHub Activity Digest</h2>" +
+            "<p>%d nouveaux événements <b>GitHub</b> ont été détectés sur vos dépôts.</p>" +
+            "<table style=\"border-collapse: collapse; width: 100%%; font-size: 13px;\">" +
+            "<tr style=\"background-color: #f6f8fa; text-align: left;\">" +
+            "<th style=\"padding: 6px;\">Date</th><th style=\"padding: 6px;\">Type</th><th style=\"padding: 6px;\">Dépôt</th>" +
+            "<th style=\"padding: 6px;\">Branche</th><th style=\"padding: 6px;\">Auteur</th><th style=\"padding: 6px;\">Message</th></tr>" +
+            "%s</table>" +
+            "<p style=\"color: #888; font-size: 12px;\">Ceci est une notification automatique envoyée par espriHUb.</p>" +
+            "</div>",
+            events.size(), rows);
+    }
+
+    private String buildSingleEventEmailContent(GitHubEvent event) {
+        String time = event.occurredAt().format(TIME_FORMAT);
+        return String.format(
+            "<div style=\"font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;\">" +
+            "<h2 style=\"color: #0366d6;\">GitHub Event Notification</h2>" +
+            "<div style=\"background-color: #f6f8fa; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
+            "<p><strong>Type d'événement :</strong> %s</p>" +
+            "<p><strong>Nom du dépôt :</strong> %s</p>" +
+            "<p><strong>Branche concernée :</strong> %s</p>" +
+            "<p><strong>Auteur du push :</strong> %s</p>" +
+            "<p><strong>Date et heure du push :</strong> %s</p>" +
+            "<p><strong>Message du commit :</strong> %s</p>" +
+            "</div>" +
+            "<div style=\"margin-top: 20px; color: #333;\">" +
+            "<p>Un nouvel événement <b>GitHub</b> a été détecté sur le dépôt <b>%s</b>.<br>" +
+            "<b>%s</b> a effectué un push sur la branche <b>%s</b> à la date <b>%s</b>.</p>" +
+            "<p>Détail du commit : <i>%s</i></p>" +
+            "</div>" +
+            "<p style=\"color: #888; font-size: 12px;\">Ceci est une notification automatique envoyée par espriHUb.</p>" +
+            "</div>",
+            event.eventType(), event.repositoryName(), event.branch(), event.authorName(), time, event.message(),
+            event.repositoryName(), event.authorName(), event.branch(), time, event.message()
+        );
+    }
+
+    private String buildTeamsContent(List<GitHubEvent> events) {
+        if (events.size() == 1) {
+            GitHubEvent event = events.get(0);
+            // Placeholder pour le nom de la tâche (à remplacer si tu as le mapping commit/tâche)
+            String taskName = "[Nom de la tâche]";
+            return String.format(
+                "🔔 Nouveau push GitHub !\n" +
+                "- Auteur : %s\n" +
+                "- Date : %s\n" +
+                "- Tâche : %s\n" +
+                "- Repo : %s\n" +
+                "- Branche : %s\n" +
+                "- Message : \"%s\"",
+                event.authorName(), event.occurredAt().format(TIME_FORMAT), taskName, event.repositoryName(),
+                event.branch(), event.message()
+            );
+        }
+        StringBuilder content = new StringBuilder(String.format("🔔 %d nouveaux événements GitHub !", events.size()));
+        for (GitHubEvent event : events) {
+            content.append(String.format("\n- %s · %s · %s (%s) par %s : \"%s\"", event.occurredAt().format(TIME_FORMAT),
+                    event.eventType(), event.repositoryName(), event.branch(), event.authorName(), event.message()));
+        }
+        return content.toString();
+    }
+
+    /**
+     * One GitHub event as shown in a notification
+     */
+    public record GitHubEvent(String eventType, String repositoryName, String branch, String message,
+                              String authorName, LocalDateTime occurredAt) {
+    }
+
+    private enum Channel {
+        EMAIL,
+        TEAMS
+    }
+
+    private record DigestKey(Channel channel, String recipient) {
+    }
+
+    private static class Digest {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final List<GitHubEvent> events = new ArrayList<>();
+    }
+}
@@ -0,0 +1,228 @@
+package tn.esprithub.server.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.config.properties.NotificationOutboxProperties;
+import tn.esprithub.server.email.EmailService;
+import tn.esprithub.server.notification.entity.NotificationOutbox;
+import tn.esprithub.server.notification.repository.NotificationOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactional outbox for email and Teams notifications. Messages are inserted in the caller's
+ * transaction, so they are only sent once the event that produced them is committed, and they are
+ * leased by {@link NotificationOutboxWorker} with {@code FOR UPDATE SKIP LOCKED}, retried with
+ * exponential backoff, and marked FAILED once their attempts are used up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxService {
+
+    private static final String INSERT_SQL = "INSERT INTO notification_outbox (id, created_at, updated_at, channel, "
+            + "recipient, subject, content, status, attempts, next_attempt_at) VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING', 0, ?)";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EmailService emailService;
+    private final TeamsNotificationService teamsNotificationService;
+    private final NotificationOutboxProperties properties;
+
+    /**
+     * Queue the same email for every recipient, in one batched insert
+     *
+     * @return number of queued emails
+     */
+    @Transactional
+    public int enqueueEmails(Collection<String> recipients, String subject, String htmlContent) {
+        if (!emailService.canSendEmails()) {
+            log.warn("Skipping notification email for {} recipients because SMTP is disabled or not configured", recipients.size());
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (String recipient : new LinkedHashSet<>(recipients)) {
+            if (StringUtils.hasText(recipient)) {
+                rows.add(new Object[]{UUID.randomUUID(), now, now, NotificationOutbox.Channel.EMAIL.name(),
+                        recipient, truncate(subject, 500), htmlContent, now});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            log.debug("📥 Queued {} notification emails: {}", rows.size(), subject);
+        }
+        return rows.size();
+    }
+
+    @Transactional
+    public int enqueueEmail(String recipient, String subject, String htmlContent) {
+        return enqueueEmails(List.of(recipient), subject, htmlContent);
+    }
+
+    /**
+     * Queue a Teams post; {@code content} is either a JSON payload or plain text
+     */
+    @Transactional
+    public boolean enqueueTeams(String content) {
+        if (!teamsNotificationService.isConfigured()) {
+            log.warn("Teams webhook URL not configured, skipping Teams notification");
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(INSERT_SQL, UUID.randomUUID(), now, now, NotificationOutbox.Channel.TEAMS.name(),
+                null, null, content, now);
+        log.debug("📥 Queued Teams notification");
+        return true;
+    }
+
+    /**
+     * Queue the same email for every recipient and one Teams post, in one transaction
+     *
+     * @return number of queued emails
+     */
+    @Transactional
+    public int enqueueEmailsAndTeams(Collection<String> recipients, String subject, String htmlContent, String teamsContent) {
+        int queued = enqueueEmails(recipients, subject, htmlContent);
+        enqueueTeams(teamsContent);
+        return queued;
+    }
+
+    /**
+     * Lease up to {@code limit} due messages of one channel for {@code workerId}, oldest first
+     */
+    @Transactional
+    public List<NotificationOutbox> lease(NotificationOutbox.Channel channel, String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> ids = jdbcTemplate.queryForList(
+                "UPDATE notification_outbox SET status = 'SENDING', locked_by = ?, locked_until = ?, updated_at = ?, "
+                        + "attempts = attempts + 1 "
+                        + "WHERE id IN (SELECT id FROM notification_outbox WHERE channel = ? AND status = 'PENDING' "
+                        + "AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id",
+                UUID.class,
+                workerId, now.plus(Duration.ofMillis(properties.getLeaseDuration())), now, channel.name(), now, limit);
+        return ids.isEmpty() ? List.of() : outboxRepository.findAllById(ids);
+    }
+
+    /**
+     * Put back messages whose lease ran out (their node died while sending) so another node picks them up
+     */
+    @Transactional
+    public int reclaimExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        int reclaimed = jdbcTemplate.update(
+                "UPDATE notification_outbox SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'PENDING' END, "
+                        + "last_error = 'Lease expired on ' || locked_by, locked_by = NULL, locked_until = NULL, updated_at = ? "
+                        + "WHERE status = 'SENDING' AND locked_until < ?",
+                properties.getMaxAttempts(), now, now);
+        if (reclaimed > 0) {
+            log.warn("♻️ Reclaimed {} outbox messages with an expired lease", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Hand the messages of a stopping node back to the outbox without waiting for their lease to expire
+     */
+    @Transactional
+    public void releaseLeases(String workerId) {
+        jdbcTemplate.update("UPDATE notification_outbox SET status = 'PENDING', attempts = GREATEST(attempts - 1, 0), "
+                + "locked_by = NULL, locked_until = NULL, updated_at = ? WHERE status = 'SENDING' AND locked_by = ?",
+                LocalDateTime.now(), workerId);
+    }
+
+    @Transactional
+    public int markSent(Collection<UUID> messageIds, String workerId) {
+        return messageIds.isEmpty() ? 0 : outboxRepository.markSent(messageIds, workerId, LocalDateTime.now());
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or mark the message FAILED once its attempts are used up
+     */
+    @Transactional
+    public void markFailed(UUID messageId, String workerId, Exception error) {
+        outboxRepository.findById(messageId)
+                .filter(message -> workerId.equals(message.getLockedBy()))
+                .ifPresent(message -> {
+                    message.setLockedBy(null);
+                    message.setLockedUntil(null);
+                    message.setLastError(truncate(error.getClass().getSimpleName() + ": " + error.getMessage(), 2000));
+
+                    if (message.getAttempts() >= properties.getMaxAttempts()) {
+                        message.setStatus(NotificationOutbox.OutboxStatus.FAILED);
+                        log.error("❌ {} notification {} to {} failed after {} attempts: {}", message.getChannel(), messageId,
+                                describeRecipient(message), message.getAttempts(), error.getMessage());
+                    } else {
+                        long backoff = Math.min(properties.getMaxRetryBackoff(),
+                                properties.getRetryBackoff() << Math.min(message.getAttempts() - 1, 20));
+                        message.setStatus(NotificationOutbox.OutboxStatus.PENDING);
+                        message.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+                        log.warn("🔁 {} notification {} to {} failed (attempt {}/{}), retrying in {}s: {}", message.getChannel(),
+                                messageId, describeRecipient(message), message.getAttempts(), properties.getMaxAttempts(),
+                                backoff / 1000, error.getMessage());
+                    }
+                    outboxRepository.save(message);
+                });
+    }
+
+    /**
+     * Queue a FAILED message again with a fresh set of attempts
+     */
+    @Transactional
+    public NotificationOutbox retry(UUID messageId) {
+        NotificationOutbox message = outboxRepository.findById(messageId)
+                .orElseThrow(() -> new BusinessException("Outbox message not found: " + messageId));
+        if (message.getStatus() != NotificationOutbox.OutboxStatus.FAILED) {
+            throw new BusinessException("Only failed messages can be retried");
+        }
+        message.setStatus(NotificationOutbox.OutboxStatus.PENDING);
+        message.setAttempts(0);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return outboxRepository.save(message);
+    }
+
+    @Transactional
+    public int deleteSentMessages() {
+        return outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(properties.getRetentionDays()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<NotificationOutbox> getFailedMessages() {
+        return outboxRepository.findTop50ByStatusOrderByUpdatedAtDesc(NotificationOutbox.OutboxStatus.FAILED);
+    }
+
+    /**
+     * Message counts per channel and status
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Object[] row : outboxRepository.countByChannelAndStatus()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> byStatus = (Map<String, Object>) stats.computeIfAbsent(row[0].toString(), channel -> new HashMap<>());
+            byStatus.put(row[1].toString(), row[2]);
+        }
+        return stats;
+    }
+
+    private String describeRecipient(NotificationOutbox message) {
+        return message.getRecipient() != null ? message.getRecipient() : "Teams";
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
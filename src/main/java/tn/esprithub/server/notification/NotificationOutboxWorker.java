@@ -0,0 +1,246 @@
+package tn.esprithub.server.notification;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.NotificationOutboxProperties;
+import tn.esprithub.server.email.EmailService;
+import tn.esprithub.server.notification.entity.NotificationOutbox;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the messages of the notification outbox. Each channel has its own lane: a small pool that
+ * sends leased batches, and a per-minute limit on what this node leases. Messages are only leased
+ * when a lane has a free thread and budget left, so a burst of alerts waits in the table instead of
+ * piling up in memory, and request threads never wait on SMTP or Teams.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxWorker {
+
+    private final NotificationOutboxService outboxService;
+    private final EmailService emailService;
+    private final TeamsNotificationService teamsNotificationService;
+    private final NotificationOutboxProperties properties;
+    private final Map<NotificationOutbox.Channel, Lane> lanes = new EnumMap<>(NotificationOutbox.Channel.class);
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName(); // pid@hostname
+
+    public NotificationOutboxWorker(NotificationOutboxService outboxService,
+                                    EmailService emailService,
+                                    TeamsNotificationService teamsNotificationService,
+                                    NotificationOutboxProperties properties) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.teamsNotificationService = teamsNotificationService;
+        this.properties = properties;
+        lanes.put(NotificationOutbox.Channel.EMAIL, new Lane("outbox-email-", properties.getEmail()));
+        lanes.put(NotificationOutbox.Channel.TEAMS, new Lane("outbox-teams-", properties.getTeams()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval:2000}")
+    public void poll() {
+        if (!properties.isWorkerEnabled()) {
+            return;
+        }
+        try {
+            outboxService.reclaimExpiredLeases();
+            if (emailService.canSendEmails()) {
+                fillLane(NotificationOutbox.Channel.EMAIL);
+            }
+            if (teamsNotificationService.isConfigured()) {
+                fillLane(NotificationOutbox.Channel.TEAMS);
+            }
+        } catch (Exception e) {
+            log.warn("Notification outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void fillLane(NotificationOutbox.Channel channel) {
+        Lane lane = lanes.get(channel);
+        while (lane.busyThreads.get() < lane.threads) {
+            int permits = lane.acquire(lane.batchSize);
+            if (permits == 0) {
+                return;
+            }
+            List<NotificationOutbox> batch = outboxService.lease(channel, workerId, permits);
+            lane.release(permits - batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+            lane.busyThreads.incrementAndGet();
+            lane.executor.execute(() -> {
+                try {
+                    send(channel, batch);
+                } finally {
+                    lane.busyThreads.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void send(NotificationOutbox.Channel channel, List<NotificationOutbox> batch) {
+        Map<Integer, Exception> failures;
+        try {
+            failures = channel == NotificationOutbox.Channel.EMAIL ? sendEmails(batch) : sendTeamsPosts(batch);
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                failures.put(i, e);
+            }
+        }
+
+        List<UUID> sent = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            UUID messageId = batch.get(i).getId();
+            Exception error = failures.get(i);
+            try {
+                if (error == null) {
+                    sent.add(messageId);
+                } else {
+                    outboxService.markFailed(messageId, workerId, error);
+                }
+            } catch (Exception e) {
+                log.warn("Could not record failure of outbox message {}: {}", messageId, e.getMessage());
+            }
+        }
+        try {
+            outboxService.markSent(sent, workerId);
+        } catch (Exception e) {
+            // The lease runs out and the messages are sent again: at-least-once delivery
+            log.warn("Could not mark {} outbox messages as sent: {}", sent.size(), e.getMessage());
+        }
+
+        Lane lane = lanes.get(channel);
+        lane.sent.addAndGet(sent.size());
+        lane.failed.addAndGet(failures.size());
+    }
+
+    private Map<Integer, Exception> sendEmails(List<NotificationOutbox> batch) {
+        return emailService.deliverNotificationEmails(batch.stream()
+                .map(message -> new EmailService.NotificationEmail(message.getRecipient(), message.getSubject(), message.getContent()))
+                .toList());
+    }
+
+    private Map<Integer, Exception> sendTeamsPosts(List<NotificationOutbox> batch) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                teamsNotificationService.deliver(batch.get(i).getContent());
+            } catch (Exception e) {
+                failures.put(i, e);
+            }
+        }
+        log.info("Teams notifications sent: {}/{}", batch.size() - failures.size(), batch.size());
+        return failures;
+    }
+
+    /**
+     * Purge sent messages past their retention, daily at 3:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void purgeSentMessages() {
+        int deleted = outboxService.deleteSentMessages();
+        if (deleted > 0) {
+            log.info("🧹 Purged {} sent outbox messages", deleted);
+        }
+    }
+
+    /**
+     * Lane usage and counters of this node
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("workerEnabled", properties.isWorkerEnabled());
+        lanes.forEach((channel, lane) -> {
+            Map<String, Object> laneStats = new HashMap<>();
+            laneStats.put("threads", lane.threads);
+            laneStats.put("busyThreads", lane.busyThreads.get());
+            laneStats.put("perMinute", lane.perMinute);
+            laneStats.put("sent", lane.sent.get());
+            laneStats.put("failed", lane.failed.get());
+            stats.put(channel.name(), laneStats);
+        });
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdown());
+        try {
+            for (Lane lane : lanes.values()) {
+                if (!lane.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    lane.executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            lanes.values().forEach(lane -> lane.executor.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+        try {
+            outboxService.releaseLeases(workerId);
+        } catch (Exception e) {
+            log.warn("Could not release outbox leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sending pool and throughput budget of one channel. The budget refills continuously up to one
+     * minute's worth of messages.
+     */
+    private static class Lane {
+
+        private final int threads;
+        private final int batchSize;
+        private final int perMinute;
+        private final ExecutorService executor;
+        private final AtomicInteger busyThreads = new AtomicInteger();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private double budget;
+        private long refilledAt = System.nanoTime();
+
+        Lane(String threadPrefix, NotificationOutboxProperties.Lane settings) {
+            this.threads = Math.max(1, settings.getThreads());
+            this.batchSize = Math.max(1, settings.getBatchSize());
+            this.perMinute = Math.max(1, settings.getPerMinute());
+            this.budget = Math.min(batchSize, perMinute);
+
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        /**
+         * Take up to {@code wanted} messages from the budget
+         */
+        synchronized int acquire(int wanted) {
+            long now = System.nanoTime();
+            budget = Math.min(perMinute, budget + (now - refilledAt) * perMinute / 60_000_000_000.0);
+            refilledAt = now;
+            int granted = (int) Math.min(wanted, Math.floor(budget));
+            budget -= granted;
+            return granted;
+        }
+
+        synchronized void release(int unused) {
+            budget = Math.min(perMinute, budget + unused);
+        }
+    }
+}
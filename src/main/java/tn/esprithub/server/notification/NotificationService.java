@@ -4,16 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import tn.esprithub.server.email.EmailService;
 import tn.esprithub.server.project.entity.Task;
 import tn.esprithub.server.project.entity.Project;
 import tn.esprithub.server.project.repository.TaskRepository;
 import tn.esprithub.server.project.repository.ProjectRepository;
 import tn.esprithub.server.user.entity.User;
-import tn.esprithub.server.user.repository.UserRepository;
 import tn.esprithub.server.project.enums.TaskStatus;
-import tn.esprithub.server.notification.entity.Notification;
-import tn.esprithub.server.notification.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDateTime;
@@ -21,19 +17,17 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.time.format.DateTimeFormatter;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-    private final EmailService emailService;
-    private final TeamsNotificationService teamsNotificationService;
+    private final NotificationOutboxService notificationOutboxService;
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    private final NotificationDigestService notificationDigestService;
+    private final BulkNotificationService bulkNotificationService;
 
     // Configuration des seuils d'alerte (en jours)
     private static final int CRITICAL_DEADLINE_DAYS = 1;
@@ -41,49 +35,29 @@ public class NotificationService {
     private static final int INFO_DEADLINE_DAYS = 7;
 
     /**
-     * Envoie une notification pour un événement GitHub (push/pull)
+     * Envoie une notification pour un événement GitHub (push/pull).
+     * Email and Teams messages go through the digest; the in-app notification is stored right away.
      */
     public void sendGitHubEventNotification(String eventType, String repositoryName, 
                                           String branch, String commitMessage, 
                                           String authorName, List<String> recipientEmails) {
         
         String subject = String.format("GitHub %s - %s", eventType.toUpperCase(), repositoryName);
+
+        notificationDigestService.add(new NotificationDigestService.GitHubEvent(
+                eventType, repositoryName, branch, commitMessage, authorName, LocalDateTime.now()), recipientEmails);
         
-        String emailContent = buildGitHubEventEmailContent(eventType, repositoryName, branch, commitMessage, authorName);
-        String teamsContent = buildGitHubEventTeamsContent(eventType, repositoryName, branch, commitMessage, authorName);
-        
-        // Envoi par email
-        for (String email : recipientEmails) {
-            try {
-                emailService.sendNotificationEmail(email, subject, emailContent);
-                log.info("GitHub event notification sent to: {}", email);
-                // --- Add: Persist notification for student ---
-                userRepository.findByEmail(email).ifPresent(student -> {
-                    Notification notif = new Notification();
-                    notif.setTitle(subject);
-                    notif.setMessage(commitMessage);
-                    notif.setType("INFO");
-                    notif.setTimestamp(LocalDateTime.now());
-                    notif.setRead(false);
-                    notif.setStudent(student);
-                    notificationRepository.save(notif);
-                });
-            } catch (Exception e) {
-                log.error("Failed to send GitHub event email to: {}", email, e);
-            }
-        }
-        
-        // Envoi par Teams
+        // --- Add: Persist notification for students (one statement for all recipients) ---
         try {
-            teamsNotificationService.sendNotification(teamsContent);
-            log.info("GitHub event notification sent to Teams");
+            bulkNotificationService.storeForEmails(recipientEmails, subject, commitMessage, "INFO");
         } catch (Exception e) {
-            log.error("Failed to send GitHub event notification to Teams", e);
+            log.error("Failed to store GitHub event notifications for {} recipients", recipientEmails.size(), e);
         }
     }
 
     /**
-     * Envoie une alerte de deadline pour une tâche
+     * Envoie une alerte de deadline pour une tâche.
+     * Email and Teams messages are queued in the outbox in one transaction; the in-app notifications are stored right away.
      */
     public void sendTaskDeadlineAlert(Task task, List<User> recipients, int daysUntilDeadline) {
         String urgency = getUrgencyLevel(daysUntilDeadline);
@@ -92,23 +66,12 @@ public class NotificationService {
         String emailContent = buildTaskDeadlineEmailContent(task, daysUntilDeadline, urgency);
         String teamsContent = buildTaskDeadlineTeamsContent(task, daysUntilDeadline, urgency);
         
-        // Envoi par email
-        for (User recipient : recipients) {
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), subject, emailContent);
-                log.info("Task deadline alert sent to: {}", recipient.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send task deadline email to: {}", recipient.getEmail(), e);
-            }
-        }
-        
-        // Envoi par Teams
-        try {
-            teamsNotificationService.sendNotification(teamsContent);
-            log.info("Task deadline alert sent to Teams");
-        } catch (Exception e) {
-            log.error("Failed to send task deadline notification to Teams", e);
-        }
+        // Envoi par email et Teams via l'outbox
+        int queued = notificationOutboxService.enqueueEmailsAndTeams(
+                recipients.stream().map(User::getEmail).toList(), subject, emailContent, teamsContent);
+        log.info("Task deadline alert queued for {} recipients and Teams", queued);
+        storeDeadlineNotifications(recipients, subject,
+                String.format("Task \"%s\" is due in %d day(s)", task.getTitle(), daysUntilDeadline), urgency);
     }
 
     /**
@@ -121,22 +84,23 @@ public class NotificationService {
         String emailContent = buildProjectDeadlineEmailContent(project, daysUntilDeadline, urgency);
         String teamsContent = buildProjectDeadlineTeamsContent(project, daysUntilDeadline, urgency);
         
-        // Envoi par email
-        for (User recipient : recipients) {
-            try {
-                emailService.sendNotificationEmail(recipient.getEmail(), subject, emailContent);
-                log.info("Project deadline alert sent to: {}", recipient.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send project deadline email to: {}", recipient.getEmail(), e);
-            }
-        }
-        
-        // Envoi par Teams
+        // Envoi par email et Teams via l'outbox
+        int queued = notificationOutboxService.enqueueEmailsAndTeams(
+                recipients.stream().map(User::getEmail).toList(), subject, emailContent, teamsContent);
+        log.info("Project deadline alert queued for {} recipients and Teams", queued);
+        storeDeadlineNotifications(recipients, subject,
+                String.format("Project \"%s\" is due in %d day(s)", project.getName(), daysUntilDeadline), urgency);
+    }
+
+    /**
+     * Stocke la notification in-app de tous les destinataires en une seule requête
+     */
+    private void storeDeadlineNotifications(List<User> recipients, String title, String message, String urgency) {
         try {
-            teamsNotificationService.sendNotification(teamsContent);
-            log.info("Project deadline alert sent to Teams");
+            bulkNotificationService.storeForUsers(recipients.stream().map(User::getId).toList(), title, message,
+                    "INFO".equals(urgency) ? "INFO" : "WARNING");
         } catch (Exception e) {
-            log.error("Failed to send project deadline notification to Teams", e);
+            log.error("Failed to store deadline notifications for {} recipients", recipients.size(), e);
         }
     }
 
@@ -173,7 +137,11 @@ public class NotificationService {
                 
                 List<User> recipients = getTaskRecipients(task);
                 if (!recipients.isEmpty()) {
-                    sendTaskDeadlineAlert(task, recipients, (int) daysUntilDeadline);
+                    try {
+                        sendTaskDeadlineAlert(task, recipients, (int) daysUntilDeadline);
+                    } catch (Exception e) {
+                        log.error("Failed to queue deadline alert for task: {}", task.getId(), e);
+                    }
                 }
             }
         }
@@ -194,7 +162,11 @@ public class NotificationService {
                 
                 List<User> recipients = getProjectRecipients(project);
                 if (!recipients.isEmpty()) {
-                    sendProjectDeadlineAlert(project, recipients, (int) daysUntilDeadline);
+                    try {
+                        sendProjectDeadlineAlert(project, recipients, (int) daysUntilDeadline);
+                    } catch (Exception e) {
+                        log.error("Failed to queue deadline alert for project: {}", project.getId(), e);
+                    }
                 }
             }
         }
@@ -259,51 +231,6 @@ public class NotificationService {
     }
 
     // Méthodes de construction du contenu des emails et Teams
-    private String buildGitHubEventEmailContent(String eventType, String repositoryName, 
-                                              String branch, String commitMessage, String authorName) {
-        String now = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-        return String.format(
-            "<div style=\"font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;\">" +
-            "<h2 style=\"color: #0366d6;\">GitHub Event Notification</h2>" +
-            "<div style=\"background-color: #f6f8fa; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
-            "<p><strong>Type d'événement :</strong> %s</p>" +
-            "<p><strong>Nom du dépôt :</strong> %s</p>" +
-            "<p><strong>Branche concernée :</strong> %s</p>" +
-            "<p><strong>Auteur du push :</strong> %s</p>" +
-            "<p><strong>Date et heure du push :</strong> %s</p>" +
-            "<p><strong>Message du commit :</strong> %s</p>" +
-            "</div>" +
-            "<div style=\"margin-top: 20px; color: #333;\">" +
-            "<p>Un nouvel événement <b>GitHub</b> a été détecté sur le dépôt <b>%s</b>.<br>" +
-            "<b>%s</b> a effectué un push sur la branche <b>%s</b> à la date <b>%s</b>.</p>" +
-            "<p>Détail du commit : <i>%s</i></p>" +
-            "</div>" +
-            "<p style=\"color: #888; font-size: 12px;\">Ceci est une notification automatique envoyée par espriHUb.</p>" +
-            "</div>",
-            eventType, repositoryName, branch, authorName, now, commitMessage, repositoryName, authorName, branch, now, commitMessage
-        );
-    }
-
-    private String buildGitHubEventTeamsContent(String eventType, String repositoryName, 
-                                              String branch, String commitMessage, String authorName) {
-        // Format de date/heure
-        String now = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-        // Placeholder pour le nom de la tâche (à remplacer si tu as le mapping commit/tâche)
-        String taskName = "[Nom de la tâche]";
-        // Message markdown simple pour Teams
-        String content = String.format(
-            "🔔 Nouveau push GitHub !\n" +
-            "- Auteur : %s\n" +
-            "- Date : %s\n" +
-            "- Tâche : %s\n" +
-            "- Repo : %s\n" +
-            "- Branche : %s\n" +
-            "- Message : \"%s\"",
-            authorName, now, taskName, repositoryName, branch, commitMessage
-        );
-        return content;
-    }
-
     private String buildTaskDeadlineEmailContent(Task task, int daysUntilDeadline, String urgency) {
         String urgencyColor = urgency.equals("CRITICAL") ? "#dc3545" : 
                              urgency.equals("WARNING") ? "#ffc107" : "#17a2b8";
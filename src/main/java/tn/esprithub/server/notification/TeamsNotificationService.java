@@ -6,8 +6,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
@@ -15,6 +17,8 @@ import java.util.Map;
 @Slf4j
 public class TeamsNotificationService {
 
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(30);
+
     @Value("${app.teams.webhook.url:}")
     private String teamsWebhookUrl;
 
@@ -25,27 +29,16 @@ public class TeamsNotificationService {
      * Envoie une notification vers Microsoft Teams
      */
     public void sendNotification(String content) {
-        if (teamsWebhookUrl == null || teamsWebhookUrl.trim().isEmpty()) {
+        if (!isConfigured()) {
             log.warn("Teams webhook URL not configured, skipping Teams notification");
             return;
         }
 
         try {
-            // Convertir le contenu JSON en Map si c'est une chaîne JSON
-            Map<String, Object> payload;
-            if (content.startsWith("{")) {
-                payload = objectMapper.readValue(content, Map.class);
-            } else {
-                // Créer un payload simple avec le texte
-                payload = Map.of(
-                    "text", content
-                );
-            }
-
             webClient.post()
                     .uri(teamsWebhookUrl)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(payload)
+                    .bodyValue(buildPayload(content))
                     .retrieve()
                     .bodyToMono(String.class)
                     .subscribe(
@@ -58,6 +51,37 @@ public class TeamsNotificationService {
         }
     }
 
+    /**
+     * Envoie une notification vers Microsoft Teams et attend la réponse.
+     * Used by the notification outbox: throws when the post fails, so it can be retried.
+     */
+    public void deliver(String content) throws JsonProcessingException {
+        if (!isConfigured()) {
+            throw new IllegalStateException("Teams webhook URL not configured");
+        }
+        webClient.post()
+                .uri(teamsWebhookUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildPayload(content))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(DELIVERY_TIMEOUT);
+    }
+
+    public boolean isConfigured() {
+        return teamsWebhookUrl != null && !teamsWebhookUrl.trim().isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> buildPayload(String content) throws JsonProcessingException {
+        // Convertir le contenu JSON en Map si c'est une chaîne JSON
+        if (content.startsWith("{")) {
+            return objectMapper.readValue(content, Map.class);
+        }
+        // Créer un payload simple avec le texte
+        return Map.of("text", content);
+    }
+
     /**
      * Envoie une notification simple avec du texte
      */
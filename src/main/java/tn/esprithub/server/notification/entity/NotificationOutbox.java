@@ -0,0 +1,73 @@
+package tn.esprithub.server.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import tn.esprithub.server.common.entity.BaseEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email or Teams message waiting to be sent. Rows are written in the transaction of the event that
+ * produced them and sent afterwards by {@code NotificationOutboxWorker}, so queued messages survive
+ * restarts and failed sends are retried.
+ */
+@Entity
+@Table(name = "notification_outbox",
+       indexes = @Index(name = "idx_notification_outbox_poll", columnList = "channel, status, next_attempt_at"))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 20)
+    private Channel channel;
+
+    @Column(name = "recipient")
+    private String recipient; // Email address, null for Teams posts
+
+    @Column(name = "subject", length = 500)
+    private String subject;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    public enum Channel {
+        EMAIL,
+        TEAMS
+    }
+
+    public enum OutboxStatus {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+}
@@ -0,0 +1,32 @@
+package tn.esprithub.server.notification.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprithub.server.notification.entity.NotificationOutbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    List<NotificationOutbox> findTop50ByStatusOrderByUpdatedAtDesc(NotificationOutbox.OutboxStatus status);
+
+    @Query("SELECT m.channel, m.status, COUNT(m) FROM NotificationOutbox m GROUP BY m.channel, m.status")
+    List<Object[]> countByChannelAndStatus();
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox m SET m.status = tn.esprithub.server.notification.entity.NotificationOutbox.OutboxStatus.SENT, "
+            + "m.sentAt = :now, m.updatedAt = :now, m.lockedBy = NULL, m.lockedUntil = NULL, m.lastError = NULL "
+            + "WHERE m.id IN :ids AND m.lockedBy = :workerId")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("workerId") String workerId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox m WHERE m.status = 'SENT' AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
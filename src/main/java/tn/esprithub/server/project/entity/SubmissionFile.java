@@ -42,7 +42,10 @@ public class SubmissionFile extends BaseEntity {
 
     @Lob
     @Column(name = "content", columnDefinition = "TEXT")
-    private String content;
+    private String content; // Legacy inline content, moved to the blob store by ContentBlobCollector
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Content blob key
 
     @Builder.Default
     @Column(name = "is_active", nullable = false)
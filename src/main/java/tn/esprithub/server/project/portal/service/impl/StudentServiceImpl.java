@@ -16,6 +16,7 @@ import tn.esprithub.server.github.exception.GitHubApiException;
 import tn.esprithub.server.github.service.GitHubRestClient;
 import tn.esprithub.server.github.dto.GitHubRepositoryDetailsDto;
 import tn.esprithub.server.github.service.GitHubRepositoryService;
+import tn.esprithub.server.github.mirror.GitMirrorService;
 import tn.esprithub.server.notification.entity.Notification;
 import tn.esprithub.server.notification.repository.NotificationRepository;
 import tn.esprithub.server.project.entity.Group;
@@ -60,6 +61,7 @@ public class StudentServiceImpl implements StudentService {
     private final RepositoryCommitRepository repositoryCommitRepository;
     private final SubmissionRepository submissionRepository;
     private final NotificationRepository notificationRepository;
+    private final GitMirrorService gitMirrorService;
 
     @Override
     public StudentDashboardDto getStudentDashboard(String studentEmail) {
@@ -2580,8 +2582,13 @@ public class StudentServiceImpl implements StudentService {
                 apiPath += "?ref=" + branch;
             }
 
-            log.debug("Making GitHub API call to: {}", apiPath);
-            Object responseBody = gitHubRestClient.get(student, apiPath, Object.class);
+            final String contentsPath = apiPath;
+            Object responseBody = gitMirrorService.readContents(owner + "/" + repo, branch, path, student.getGithubToken())
+                    .<Object>map(contents -> contents)
+                    .orElseGet(() -> {
+                        log.debug("Making GitHub API call to: {}", contentsPath);
+                        return gitHubRestClient.get(student, contentsPath, Object.class);
+                    });
 
             if (responseBody instanceof Map) {
                 @SuppressWarnings("unchecked")
@@ -3448,8 +3455,12 @@ public class StudentServiceImpl implements StudentService {
         try {
             String apiPath = String.format("/repos/%s/%s/git/trees/%s?recursive=1", owner, repo, branch);
 
-            log.debug("Getting file tree from: {}", apiPath);
-            Object treeResponse = gitHubRestClient.get(student, apiPath, Object.class);
+            Object treeResponse = gitMirrorService.readGitTree(owner + "/" + repo, branch, student.getGithubToken())
+                    .<Object>map(tree -> tree)
+                    .orElseGet(() -> {
+                        log.debug("Getting file tree from: {}", apiPath);
+                        return gitHubRestClient.get(student, apiPath, Object.class);
+                    });
 
             Map<String, Object> result = new HashMap<>();
             if (treeResponse instanceof Map) {
@@ -3460,8 +3471,7 @@ public class StudentServiceImpl implements StudentService {
                 result.put("url", treeData.get("url"));
                 result.put("truncated", treeData.get("truncated"));
 
-                if (treeData.get("tree") instanceof Object[]) {
-                    Object[] treeItems = (Object[]) treeData.get("tree");
+                if (treeData.get("tree") instanceof List<?> treeItems) {
                     List<Map<String, Object>> files = new ArrayList<>();
 
                     for (Object item : treeItems) {
@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tn.esprithub.server.admin.service.AdminUserDataService;
+import tn.esprithub.server.common.blob.ContentBlobService;
 import tn.esprithub.server.common.exception.BusinessException;
 import tn.esprithub.server.project.dto.*;
 import tn.esprithub.server.project.entity.*;
@@ -36,6 +37,7 @@ public class SubmissionService {
     private final RepositoryCommitRepository commitRepository;
     private final AdminUserDataService adminUserDataService;
     private final StudentService studentService;
+    private final ContentBlobService contentBlobService;
 
     /**
      * Create a new submission for a task
@@ -468,7 +470,7 @@ public class SubmissionService {
                     .filePath(path != null ? path : fileName)
                     .fileSize((long) content.length())
                     .contentType(getContentType(extension))
-                    .content(content)
+                    .contentHash(contentBlobService.store(content))
                     .isActive(true)
                     .build();
                 
@@ -537,7 +539,7 @@ public class SubmissionService {
         fileMap.put("path", file.getFilePath());
         fileMap.put("size", file.getFileSize());
         fileMap.put("contentType", file.getContentType());
-        fileMap.put("content", file.getContent());
+        fileMap.put("content", contentBlobService.resolve(file.getContentHash(), file.getContent()));
         fileMap.put("extension", file.getFileExtension());
         fileMap.put("displaySize", file.getDisplaySize());
         fileMap.put("createdAt", file.getCreatedAt());
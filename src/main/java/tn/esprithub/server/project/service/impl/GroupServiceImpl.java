@@ -28,6 +28,7 @@ import tn.esprithub.server.integration.github.GithubService;
 import tn.esprithub.server.user.entity.User;
 import tn.esprithub.server.repository.service.RepositoryEntityService;
 import tn.esprithub.server.repository.service.RepositoryService;
+import tn.esprithub.server.github.webhook.RepositoryRecipientIndex;
 
 @Service
 public class GroupServiceImpl implements GroupService {
@@ -39,8 +40,9 @@ public class GroupServiceImpl implements GroupService {
     private final GithubService githubService;
     private final RepositoryEntityService repositoryEntityService;
     private final RepositoryService repositoryService;
+    private final RepositoryRecipientIndex recipientIndex;
 
-    public GroupServiceImpl(GroupRepository groupRepository, ClasseRepository classeRepository, ProjectRepository projectRepository, UserRepository userRepository, GithubService githubService, RepositoryEntityService repositoryEntityService, RepositoryService repositoryService) {
+    public GroupServiceImpl(GroupRepository groupRepository, ClasseRepository classeRepository, ProjectRepository projectRepository, UserRepository userRepository, GithubService githubService, RepositoryEntityService repositoryEntityService, RepositoryService repositoryService, RepositoryRecipientIndex recipientIndex) {
         this.groupRepository = groupRepository;
         this.classeRepository = classeRepository;
         this.projectRepository = projectRepository;
@@ -48,6 +50,7 @@ public class GroupServiceImpl implements GroupService {
         this.githubService = githubService;
         this.repositoryEntityService = repositoryEntityService;
         this.repositoryService = repositoryService;
+        this.recipientIndex = recipientIndex;
     }
 
     @Override
@@ -72,7 +75,9 @@ public class GroupServiceImpl implements GroupService {
         group.setStudents(group.getStudents().stream()
             .map(s -> userRepository.findById(s.getId()).orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + s.getId())))
             .collect(java.util.stream.Collectors.toCollection(java.util.ArrayList::new)));
-        return groupRepository.save(group);
+        Group savedGroup = groupRepository.save(group);
+        refreshRecipients(savedGroup.getRepository());
+        return savedGroup;
     }
 
     @Override
@@ -222,6 +227,8 @@ public class GroupServiceImpl implements GroupService {
             }
         }
         
+        refreshRecipients(savedGroup.getRepository());
+
         // Attach repo info to group for controller (not persisted)
         savedGroup.setRepoCreated(repoCreated);
         savedGroup.setRepoUrl(repoUrl);
@@ -280,6 +287,7 @@ public class GroupServiceImpl implements GroupService {
 
         // Save the updated group
         Group savedGroup = groupRepository.save(group);
+        refreshRecipients(savedGroup.getRepository());
 
         // Add new students as repository collaborators if group has an associated repository
         if (!addedStudentIds.isEmpty() && group.getRepository() != null) {
@@ -338,6 +346,7 @@ public class GroupServiceImpl implements GroupService {
         
         // Delete the group first
         groupRepository.deleteById(id);
+        refreshRecipients(repository);
         
         // If repository exists and deleteRepository is true, delete it
         if (repository != null && deleteRepository) {
@@ -356,6 +365,15 @@ public class GroupServiceImpl implements GroupService {
         logger.info("Group deleted successfully: {}", group.getName());
     }
 
+    /**
+     * Keep the webhook recipient index in line with the group's members
+     */
+    private void refreshRecipients(tn.esprithub.server.repository.entity.Repository repository) {
+        if (repository != null) {
+            recipientIndex.refreshAfterCommit(List.of(repository.getFullName()));
+        }
+    }
+
     @Override
     public Group getGroupById(UUID id) {
         Optional<Group> group = groupRepository.findById(id);
@@ -14,6 +14,7 @@ import tn.esprithub.server.academic.entity.CourseAssignment;
 import tn.esprithub.server.project.dto.ProjectUpdateDto;
 import tn.esprithub.server.project.dto.ProjectDto;
 import tn.esprithub.server.project.mapper.ProjectMapper;
+import tn.esprithub.server.github.webhook.RepositoryRecipientIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,12 +27,14 @@ public class ProjectServiceImpl implements ProjectService {
     private final UserRepository userRepository;
     private final ClasseRepository classeRepository;
     private final CourseAssignmentRepository courseAssignmentRepository;
+    private final RepositoryRecipientIndex recipientIndex;
 
-    public ProjectServiceImpl(ProjectRepository projectRepository, UserRepository userRepository, ClasseRepository classeRepository, CourseAssignmentRepository courseAssignmentRepository) {
+    public ProjectServiceImpl(ProjectRepository projectRepository, UserRepository userRepository, ClasseRepository classeRepository, CourseAssignmentRepository courseAssignmentRepository, RepositoryRecipientIndex recipientIndex) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.classeRepository = classeRepository;
         this.courseAssignmentRepository = courseAssignmentRepository;
+        this.recipientIndex = recipientIndex;
     }
 
     @Override
@@ -58,7 +61,9 @@ public class ProjectServiceImpl implements ProjectService {
         if (dto.getCollaboratorIds() != null) {
             existing.setCollaborators(userRepository.findAllById(dto.getCollaboratorIds()));
         }
-        return projectRepository.save(existing);
+        Project saved = projectRepository.save(existing);
+        recipientIndex.refreshAfterCommit(recipientIndex.getProjectRepositories(id));
+        return saved;
     }
 
     @Override
@@ -68,7 +73,9 @@ public class ProjectServiceImpl implements ProjectService {
 
     @Override
     public void deleteProject(UUID id) {
+        List<String> repositories = recipientIndex.getProjectRepositories(id);
         projectRepository.deleteById(id);
+        recipientIndex.refreshAfterCommit(repositories);
     }
 
     @Override
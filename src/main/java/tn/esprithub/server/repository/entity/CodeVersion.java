@@ -31,7 +31,10 @@ public class CodeVersion extends BaseEntity {
     private String filePath;
     
     @Column(columnDefinition = "TEXT")
-    private String fileContent;
+    private String fileContent; // Legacy inline content, moved to the blob store by ContentBlobCollector
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Content blob key
     
     @Column(name = "file_size")
     private Long fileSize;
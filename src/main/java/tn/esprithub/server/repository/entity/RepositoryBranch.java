@@ -49,6 +49,15 @@ public class RepositoryBranch extends BaseEntity {
     @Column(name = "commits_count")
     private Integer commitsCount;
     
+    @Column(name = "last_synced_commit_sha", length = 40)
+    private String lastSyncedCommitSha; // High-water mark of the incremental commit sync
+    
+    @Column(name = "last_synced_commit_date")
+    private LocalDateTime lastSyncedCommitDate;
+    
+    @Column(name = "last_synced_tree_sha", length = 40)
+    private String lastSyncedTreeSha; // Root tree of the last file sync, unchanged tree means nothing to fetch
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "repository_id", nullable = false, foreignKey = @ForeignKey(name = "fk_branch_repository"))
     private Repository repository;
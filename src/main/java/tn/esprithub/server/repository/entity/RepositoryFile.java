@@ -45,8 +45,12 @@ public class RepositoryFile extends BaseEntity {
     private String sha;
     
     @Lob
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "content", columnDefinition = "TEXT")
-    private String content; // Base64 encoded content for binary files, plain text for text files
+    private String content; // Legacy inline content, moved to the blob store by ContentBlobCollector
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Content blob key: base64 text for binary files, plain text for text files
     
     @Column(name = "encoding", length = 20)
     private String encoding; // "base64" or "utf-8"
@@ -0,0 +1,40 @@
+package tn.esprithub.server.repository.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import tn.esprithub.server.common.entity.BaseEntity;
+
+import java.util.UUID;
+
+/**
+ * Webhook delivery that used up its processing attempts, kept until an admin requeues it.
+ * The raw payload stays on the {@link WebhookDelivery} row.
+ */
+@Entity
+@Table(name = "webhook_dead_letters")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeadLetter extends BaseEntity {
+
+    @Column(name = "webhook_delivery_id", nullable = false, unique = true)
+    private UUID webhookDeliveryId;
+
+    @Column(name = "delivery_id", nullable = false, length = 100)
+    private String deliveryId; // X-GitHub-Delivery
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "repository_full_name")
+    private String repositoryFullName;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+}
@@ -0,0 +1,82 @@
+package tn.esprithub.server.repository.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import tn.esprithub.server.common.entity.BaseEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raw GitHub webhook delivery, stored before the request is acknowledged and processed
+ * afterwards by {@code WebhookDeliveryDispatcher}. The GitHub delivery id is unique, so a
+ * redelivery of the same event is recognized and not processed twice.
+ */
+@Entity
+@Table(name = "webhook_deliveries",
+       uniqueConstraints = @UniqueConstraint(name = "uk_webhook_deliveries_delivery_id", columnNames = "delivery_id"),
+       indexes = @Index(name = "idx_webhook_deliveries_poll", columnList = "status, next_attempt_at"))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDelivery extends BaseEntity {
+
+    @Column(name = "delivery_id", nullable = false, length = 100)
+    private String deliveryId; // X-GitHub-Delivery
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType; // X-GitHub-Event
+
+    @Column(name = "hook_id", length = 50)
+    private String hookId;
+
+    @Column(name = "repository_full_name")
+    private String repositoryFullName;
+
+    @Column(name = "repository_github_id")
+    private Long repositoryGithubId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "payload_hash", length = 64)
+    private String payloadHash; // SHA-256 hex of the raw payload
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private DeliveryStatus status = DeliveryStatus.RECEIVED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt; // Picked up by the poller from this time on
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    @Column(name = "replay_count", nullable = false, columnDefinition = "integer default 0") // Default fills existing rows when the column is added
+    @Builder.Default
+    private Integer replayCount = 0;
+
+    public enum DeliveryStatus {
+        RECEIVED,
+        PROCESSING,
+        RETRYING,
+        PROCESSED,
+        DEAD_LETTER
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import tn.esprithub.server.repository.entity.CodeVersion;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -68,4 +69,8 @@ public interface CodeVersionRepository extends JpaRepository<CodeVersion, UUID>
 
     // Check if a specific commit SHA exists (across all repositories)
     boolean existsByCommitSha(String commitSha);
+
+    // Which of these commit SHAs already exist (across all repositories)
+    @Query("SELECT DISTINCT cv.commitSha FROM CodeVersion cv WHERE cv.commitSha IN :commitShas")
+    List<String> findExistingCommitShas(@Param("commitShas") Collection<String> commitShas);
 }
@@ -0,0 +1,212 @@
+package tn.esprithub.server.repository.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import tn.esprithub.server.config.properties.GitHubSyncProperties;
+import tn.esprithub.server.repository.entity.Repository;
+import tn.esprithub.server.repository.entity.RepositoryBranch;
+import tn.esprithub.server.repository.entity.RepositoryCollaborator;
+import tn.esprithub.server.repository.entity.RepositoryCommit;
+import tn.esprithub.server.repository.entity.RepositoryFile;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bulk persistence for data synced from GitHub. Rows are written with PostgreSQL
+ * {@code INSERT ... ON CONFLICT DO UPDATE} on their natural key, one multi-row statement per batch,
+ * instead of a lookup plus a save per row.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RepositoryBulkUpsertRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GitHubSyncProperties syncProperties;
+
+    /**
+     * Upsert repositories on {@code full_name}. Existing rows only get the fields GitHub owns refreshed.
+     */
+    public UpsertResult upsertRepositories(Collection<Repository> repositories) {
+        return upsert("repositories",
+                List.of("name", "full_name", "description", "url", "is_private", "default_branch", "clone_url", "ssh_url",
+                        "is_active", "star_count", "fork_count", "watchers_count", "open_issues_count",
+                        "archived", "disabled", "fork", "has_issues", "has_projects", "has_wiki", "has_pages",
+                        "has_downloads", "sync_status", "owner_id"),
+                List.of("full_name"),
+                List.of("description", "url", "is_private", "default_branch", "clone_url", "ssh_url"),
+                repositories, Repository::getFullName,
+                repository -> new Object[]{
+                        repository.getName(), repository.getFullName(), repository.getDescription(), repository.getUrl(),
+                        repository.getIsPrivate(), repository.getDefaultBranch(), repository.getCloneUrl(), repository.getSshUrl(),
+                        repository.getIsActive(), repository.getStarCount(), repository.getForkCount(),
+                        repository.getWatchersCount(), repository.getOpenIssuesCount(),
+                        repository.getArchived(), repository.getDisabled(), repository.getFork(), repository.getHasIssues(),
+                        repository.getHasProjects(), repository.getHasWiki(), repository.getHasPages(),
+                        repository.getHasDownloads(), repository.getSyncStatus(), repository.getOwner().getId()},
+                Repository::getCreatedAt, Repository::getUpdatedAt);
+    }
+
+    /**
+     * Upsert branches on {@code (repository_id, name)}. Sync cursors are left untouched on existing rows.
+     */
+    public UpsertResult upsertBranches(UUID repositoryId, Collection<RepositoryBranch> branches) {
+        return upsert("repository_branches",
+                List.of("repository_id", "name", "sha", "is_protected", "is_default",
+                        "last_commit_message", "last_commit_author", "last_commit_date"),
+                List.of("repository_id", "name"),
+                List.of("sha", "is_protected", "is_default", "last_commit_message", "last_commit_author", "last_commit_date"),
+                branches, RepositoryBranch::getName,
+                branch -> new Object[]{
+                        repositoryId, branch.getName(), branch.getSha(), branch.getIsProtected(), branch.getIsDefault(),
+                        branch.getLastCommitMessage(), branch.getLastCommitAuthor(), branch.getLastCommitDate()},
+                branch -> null, branch -> null);
+    }
+
+    /**
+     * Upsert commits on {@code (repository_id, sha)}. Commits are immutable, so only the stats are refreshed
+     * and a commit keeps the branch it was first seen on.
+     */
+    public UpsertResult upsertCommits(UUID repositoryId, Collection<RepositoryCommit> commits) {
+        return upsert("repository_commits",
+                List.of("repository_id", "branch_id", "sha", "message", "author_name", "author_email", "author_date",
+                        "committer_name", "committer_email", "committer_date", "parent_shas",
+                        "additions", "deletions", "total_changes", "files_changed", "github_url"),
+                List.of("repository_id", "sha"),
+                List.of("additions", "deletions", "total_changes", "files_changed"),
+                commits, RepositoryCommit::getSha,
+                commit -> new Object[]{
+                        repositoryId, commit.getBranch() != null ? commit.getBranch().getId() : null, commit.getSha(),
+                        commit.getMessage(), commit.getAuthorName(), commit.getAuthorEmail(), commit.getAuthorDate(),
+                        commit.getCommitterName(), commit.getCommitterEmail(), commit.getCommitterDate(), commit.getParentShas(),
+                        commit.getAdditions(), commit.getDeletions(), commit.getTotalChanges(), commit.getFilesChanged(),
+                        commit.getGithubUrl()},
+                commit -> null, commit -> null);
+    }
+
+    /**
+     * Upsert files on {@code (repository_id, branch_name, file_path)}
+     */
+    public UpsertResult upsertFiles(UUID repositoryId, Collection<RepositoryFile> files) {
+        List<String> columns = List.of("repository_id", "branch_name", "file_path", "file_name", "file_type",
+                "file_extension", "file_size", "sha", "content", "content_hash", "encoding", "is_binary", "is_truncated", "lines_count",
+                "language", "last_modified", "last_commit_sha", "last_commit_message", "github_url", "download_url");
+        return upsert("repository_files", columns,
+                List.of("repository_id", "branch_name", "file_path"),
+                columns.subList(3, columns.size()),
+                files, file -> file.getBranchName() + ":" + file.getFilePath(),
+                file -> new Object[]{
+                        repositoryId, file.getBranchName(), file.getFilePath(), file.getFileName(), file.getFileType(),
+                        file.getFileExtension(), file.getFileSize(), file.getSha(), file.getContent(), file.getContentHash(), file.getEncoding(),
+                        file.getIsBinary(), file.getIsTruncated(), file.getLinesCount(), file.getLanguage(),
+                        file.getLastModified(), file.getLastCommitSha(), file.getLastCommitMessage(),
+                        file.getGithubUrl(), file.getDownloadUrl()},
+                file -> null, file -> null);
+    }
+
+    /**
+     * Upsert collaborators on {@code (repository_id, github_username)}
+     */
+    public UpsertResult upsertCollaborators(UUID repositoryId, Collection<RepositoryCollaborator> collaborators) {
+        return upsert("repository_collaborators",
+                List.of("repository_id", "github_username", "github_user_id", "avatar_url", "permission_level",
+                        "is_active", "github_profile_url", "user_id"),
+                List.of("repository_id", "github_username"),
+                List.of("github_user_id", "avatar_url", "permission_level", "github_profile_url", "user_id"),
+                collaborators, RepositoryCollaborator::getGithubUsername,
+                collaborator -> new Object[]{
+                        repositoryId, collaborator.getGithubUsername(), collaborator.getGithubUserId(),
+                        collaborator.getAvatarUrl(), collaborator.getPermissionLevel(), collaborator.getIsActive(),
+                        collaborator.getGithubProfileUrl(), collaborator.getUser() != null ? collaborator.getUser().getId() : null},
+                collaborator -> null, collaborator -> null);
+    }
+
+    private <T> UpsertResult upsert(String table, List<String> columns, List<String> conflictColumns, List<String> updateColumns,
+                                    Collection<T> rows, Function<T, String> naturalKey, Function<T, Object[]> values,
+                                    Function<T, LocalDateTime> createdAt, Function<T, LocalDateTime> updatedAt) {
+        if (rows.isEmpty()) {
+            return UpsertResult.EMPTY;
+        }
+
+        // A statement may not touch the same row twice, so keep the last occurrence of each key
+        Map<String, T> uniqueRows = new LinkedHashMap<>();
+        for (T row : rows) {
+            uniqueRows.put(naturalKey.apply(row), row);
+        }
+
+        List<T> pending = new ArrayList<>(uniqueRows.values());
+        int batchSize = Math.max(1, syncProperties.getUpsertBatchSize());
+        UpsertResult result = UpsertResult.EMPTY;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<T> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            result = result.plus(upsertBatch(table, columns, conflictColumns, updateColumns, batch, values, createdAt, updatedAt));
+        }
+
+        log.debug("Upserted {} rows into {} ({} inserted, {} updated)", pending.size(), table, result.inserted(), result.updated());
+        return result;
+    }
+
+    private <T> UpsertResult upsertBatch(String table, List<String> columns, List<String> conflictColumns, List<String> updateColumns,
+                                         List<T> batch, Function<T, Object[]> values,
+                                         Function<T, LocalDateTime> createdAt, Function<T, LocalDateTime> updatedAt) {
+        LocalDateTime now = LocalDateTime.now();
+        String placeholders = "(" + String.join(", ", Collections.nCopies(columns.size() + 3, "?")) + ")";
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (id, created_at, updated_at, ").append(String.join(", ", columns)).append(") VALUES ");
+        List<Object> args = new ArrayList<>(batch.size() * (columns.size() + 3));
+        for (int i = 0; i < batch.size(); i++) {
+            T row = batch.get(i);
+            sql.append(i == 0 ? "" : ", ").append(placeholders);
+            args.add(UUID.randomUUID());
+            args.add(createdAt.apply(row) != null ? createdAt.apply(row) : now);
+            args.add(updatedAt.apply(row) != null ? updatedAt.apply(row) : now);
+            Object[] rowValues = values.apply(row);
+            if (rowValues.length != columns.size()) {
+                throw new IllegalStateException("Column/value count mismatch in upsert for " + table);
+            }
+            args.addAll(Arrays.asList(rowValues));
+        }
+
+        sql.append(" ON CONFLICT (").append(String.join(", ", conflictColumns)).append(") DO UPDATE SET ");
+        for (String column : updateColumns) {
+            sql.append(column).append(" = EXCLUDED.").append(column).append(", ");
+        }
+        sql.append("updated_at = EXCLUDED.updated_at");
+        // xmax is 0 only for rows created by this statement
+        sql.append(" RETURNING (xmax = 0) AS inserted");
+
+        int[] counts = new int[2];
+        jdbcTemplate.query(sql.toString(), rs -> {
+            counts[rs.getBoolean("inserted") ? 0 : 1]++;
+        }, args.toArray());
+        return new UpsertResult(counts[0], counts[1]);
+    }
+
+    /**
+     * Number of rows inserted and updated by an upsert
+     */
+    public record UpsertResult(int inserted, int updated) {
+
+        static final UpsertResult EMPTY = new UpsertResult(0, 0);
+
+        UpsertResult plus(UpsertResult other) {
+            return new UpsertResult(inserted + other.inserted, updated + other.updated);
+        }
+
+        public int total() {
+            return inserted + updated;
+        }
+    }
+}
@@ -9,8 +9,10 @@ import org.springframework.stereotype.Repository;
 import tn.esprithub.server.repository.entity.RepositoryCommit;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -45,6 +47,12 @@ public interface RepositoryCommitRepository extends JpaRepository<RepositoryComm
     
     boolean existsByRepositoryIdAndSha(UUID repositoryId, String sha);
     
+    @Query("SELECT c.sha FROM RepositoryCommit c WHERE c.repository.id = :repositoryId")
+    Set<String> findShasByRepositoryId(@Param("repositoryId") UUID repositoryId);
+
+    @Query("SELECT c.sha FROM RepositoryCommit c WHERE c.repository.id = :repositoryId AND c.sha IN :shas")
+    Set<String> findExistingShas(@Param("repositoryId") UUID repositoryId, @Param("shas") Collection<String> shas);
+    
     void deleteByRepositoryIdAndSha(UUID repositoryId, String sha);
     
     @Query("SELECT DISTINCT c.authorEmail FROM RepositoryCommit c WHERE c.repository.id = :repositoryId")
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +17,8 @@ public interface RepositoryEntityRepository extends JpaRepository<tn.esprithub.s
     
     Optional<tn.esprithub.server.repository.entity.Repository> findByFullName(String fullName);
     
+    List<tn.esprithub.server.repository.entity.Repository> findByFullNameIn(Collection<String> fullNames);
+    
     List<tn.esprithub.server.repository.entity.Repository> findByOwnerId(UUID ownerId);
     
     List<tn.esprithub.server.repository.entity.Repository> findByOwnerIdAndIsActiveTrue(UUID ownerId);
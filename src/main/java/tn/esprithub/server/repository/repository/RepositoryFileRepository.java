@@ -1,11 +1,13 @@
 package tn.esprithub.server.repository.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.esprithub.server.repository.entity.RepositoryFile;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -58,6 +60,16 @@ public interface RepositoryFileRepository extends JpaRepository<RepositoryFile,
     
     void deleteByRepositoryIdAndBranchName(UUID repositoryId, String branchName);
 
+    @Query("SELECT f.filePath, f.sha FROM RepositoryFile f WHERE f.repository.id = :repositoryId AND f.branchName = :branchName")
+    List<Object[]> findPathAndShaByRepositoryIdAndBranchName(@Param("repositoryId") UUID repositoryId,
+                                                            @Param("branchName") String branchName);
+
+    @Modifying
+    @Query("DELETE FROM RepositoryFile f WHERE f.repository.id = :repositoryId AND f.branchName = :branchName AND f.filePath IN :filePaths")
+    int deleteByRepositoryIdAndBranchNameAndFilePathIn(@Param("repositoryId") UUID repositoryId,
+                                                       @Param("branchName") String branchName,
+                                                       @Param("filePaths") Collection<String> filePaths);
+
     // Methods needed by AdminUserDataService
     @Query("SELECT COUNT(f) FROM RepositoryFile f WHERE f.repository.id = :repositoryId")
     long countByRepositoryId(@Param("repositoryId") UUID repositoryId);
@@ -65,4 +77,9 @@ public interface RepositoryFileRepository extends JpaRepository<RepositoryFile,
     List<RepositoryFile> findByRepositoryIdAndBranchNameOrderByFilePathAsc(UUID repositoryId, String branchName);
 
     List<RepositoryFile> findByRepositoryIdOrderByFilePathAsc(UUID repositoryId);
+
+    // Listings: metadata only, no content columns
+    List<RepositoryFileSummary> findSummariesByRepositoryIdAndBranchNameOrderByFilePathAsc(UUID repositoryId, String branchName);
+
+    List<RepositoryFileSummary> findSummariesByRepositoryIdOrderByFilePathAsc(UUID repositoryId);
 }
@@ -0,0 +1,33 @@
+package tn.esprithub.server.repository.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * File metadata used by listings. Queries returning this projection only select these columns,
+ * so file content is never read for a listing.
+ */
+public interface RepositoryFileSummary {
+
+    UUID getId();
+
+    String getFilePath();
+
+    String getFileName();
+
+    String getBranchName();
+
+    String getFileType();
+
+    String getFileExtension();
+
+    Long getFileSize();
+
+    String getLanguage();
+
+    Boolean getIsBinary();
+
+    Integer getLinesCount();
+
+    LocalDateTime getLastModified();
+}
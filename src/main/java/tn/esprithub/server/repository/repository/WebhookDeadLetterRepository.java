@@ -0,0 +1,16 @@
+package tn.esprithub.server.repository.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import tn.esprithub.server.repository.entity.WebhookDeadLetter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, UUID> {
+
+    List<WebhookDeadLetter> findTop100ByOrderByCreatedAtDesc();
+
+    void deleteByWebhookDeliveryId(UUID webhookDeliveryId);
+}
@@ -0,0 +1,33 @@
+package tn.esprithub.server.repository.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprithub.server.repository.entity.WebhookDelivery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, UUID> {
+
+    Optional<WebhookDelivery> findByDeliveryId(String deliveryId);
+
+    @Query("SELECT d FROM WebhookDelivery d WHERE (d.status IN :statuses AND d.nextAttemptAt <= :now) "
+            + "OR (d.status = 'PROCESSING' AND d.lockedUntil < :now) ORDER BY d.createdAt")
+    List<WebhookDelivery> findDue(@Param("statuses") List<WebhookDelivery.DeliveryStatus> statuses,
+                                  @Param("now") LocalDateTime now,
+                                  Pageable pageable);
+
+    @Query("SELECT d.status, COUNT(d) FROM WebhookDelivery d GROUP BY d.status")
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Query("DELETE FROM WebhookDelivery d WHERE d.status = 'PROCESSED' AND d.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -7,9 +7,11 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tn.esprithub.server.common.blob.ContentBlobService;
 import tn.esprithub.server.repository.dto.CodeVersionDto;
 import tn.esprithub.server.repository.dto.CodeVersionComparisonDto;
 import tn.esprithub.server.repository.dto.CodeVersionStatsDto;
+import tn.esprithub.server.repository.repository.CodeVersionRepository;
 import tn.esprithub.server.repository.service.CodeVersionService;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,9 @@ import java.util.UUID;
 @Transactional
 public class CodeVersionServiceImpl implements CodeVersionService {
 
+    private final CodeVersionRepository codeVersionRepository;
+    private final ContentBlobService contentBlobService;
+
     @Override
     public CodeVersionDto saveCodeVersion(String repositoryFullName, String commitSha, String filePath, 
                                          String fileContent, String commitMessage, String branchName, 
@@ -142,7 +147,9 @@ public class CodeVersionServiceImpl implements CodeVersionService {
     @Override
     public String getFileContentAtVersion(UUID versionId) {
         log.info("Getting file content at version: {}", versionId);
-        return null;
+        return codeVersionRepository.findById(versionId)
+                .map(version -> contentBlobService.resolve(version.getContentHash(), version.getFileContent()))
+                .orElse(null);
     }
 
     @Override
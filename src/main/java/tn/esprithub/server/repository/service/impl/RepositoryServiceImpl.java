@@ -3,29 +3,40 @@ package tn.esprithub.server.repository.service.impl;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.reactive.function.client.ClientResponse;
-import org.springframework.web.reactive.function.client.WebClient;
 import tn.esprithub.server.common.exception.BusinessException;
+import tn.esprithub.server.common.exception.DependencyUnavailableException;
+import tn.esprithub.server.github.dto.GitHubRepositoryMetadataDto;
+import tn.esprithub.server.github.mirror.GitMirrorService;
+import tn.esprithub.server.github.service.GitHubFanOut;
+import tn.esprithub.server.github.service.GitHubGraphQLService;
+import tn.esprithub.server.github.service.GitHubPaginator;
+import tn.esprithub.server.github.service.GitHubRepositoryAccessCache;
 import tn.esprithub.server.integration.github.GithubService;
 import tn.esprithub.server.repository.dto.FileUploadDto;
 import tn.esprithub.server.repository.dto.RepositoryDto;
 import tn.esprithub.server.repository.dto.RepositoryStatsDto;
 import tn.esprithub.server.repository.service.RepositoryService;
+import tn.esprithub.server.repository.repository.RepositoryBranchRepository;
+import tn.esprithub.server.repository.repository.RepositoryCommitRepository;
 import tn.esprithub.server.repository.repository.RepositoryEntityRepository;
 import tn.esprithub.server.user.entity.User;
 import tn.esprithub.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
@@ -39,7 +50,14 @@ public class RepositoryServiceImpl implements RepositoryService {
     private final UserRepository userRepository;
     private final RepositoryEntityRepository repositoryEntityRepository;
     private final GithubService githubService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final GitHubFanOut gitHubFanOut;
+    private final GitHubPaginator gitHubPaginator;
+    private final GitHubGraphQLService gitHubGraphQLService;
+    private final RepositoryCommitRepository commitRepository;
+    private final RepositoryBranchRepository branchRepository;
+    private final GitMirrorService gitMirrorService;
+    private final GitHubRepositoryAccessCache accessCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -95,27 +113,18 @@ public class RepositoryServiceImpl implements RepositoryService {
         User teacher = getTeacherWithGitHubToken(teacherEmail);
 
         try {
-            // Get repositories from GitHub API
+            // Get repositories from GitHub API, following every page
             String url = GITHUB_API_BASE + "/user/repos?per_page=100";
             HttpHeaders headers = createHeaders(teacher.getGithubToken());
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JsonNode repos = objectMapper.readTree(response.getBody());
-                List<RepositoryDto> repositories = new ArrayList<>();
-
-                for (JsonNode repo : repos) {
-                    RepositoryDto dto = mapToRepositoryDto(repo, teacher.getGithubToken());
-                    repositories.add(dto);
-                }
 
-                log.info("Found {} repositories for teacher: {}", repositories.size(), teacherEmail);
-                return repositories;
-            } else {
-                throw new BusinessException("Failed to fetch repositories from GitHub");
+            List<RepositoryDto> repositories = new ArrayList<>();
+            for (JsonNode repo : gitHubPaginator.fetchAll(url, headers)) {
+                RepositoryDto dto = mapToRepositoryDto(repo, teacher.getGithubToken());
+                repositories.add(dto);
             }
+
+            log.info("Found {} repositories for teacher: {}", repositories.size(), teacherEmail);
+            return repositories;
         } catch (Exception e) {
             log.error("Error fetching repositories for teacher {}: {}", teacherEmail, e.getMessage());
             throw new BusinessException("Failed to fetch repositories: " + e.getMessage());
@@ -131,26 +140,52 @@ public class RepositoryServiceImpl implements RepositoryService {
             HttpHeaders headers = createHeaders(teacher.getGithubToken());
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
-            // Get basic repository info
-            ResponseEntity<String> repoResponse = restTemplate.exchange(repoUrl, HttpMethod.GET, entity, String.class);
-            JsonNode repoData = objectMapper.readTree(repoResponse.getBody());
-
-            // Get commits
-            List<RepositoryStatsDto.CommitDto> recentCommits = getRecentCommits(repoFullName, headers);
-
-            // Get branches
-            List<RepositoryStatsDto.BranchActivityDto> branchActivity = getBranchActivity(repoFullName, headers);
-
-            // Get language stats
-            Map<String, Integer> languageStats = getLanguageStats(repoFullName, headers);
-
-            // Get collaborators count
-            int collaboratorCount = getCollaboratorCount(repoFullName, headers);
+            // Fan out the independent calls; only the repository itself is required
+            CompletableFuture<JsonNode> repoFuture = gitHubFanOut.fork("repository", () -> {
+                ResponseEntity<String> repoResponse = restTemplate.exchange(repoUrl, HttpMethod.GET, entity, String.class);
+                try {
+                    return objectMapper.readTree(repoResponse.getBody());
+                } catch (JsonProcessingException e) {
+                    throw new BusinessException("Failed to parse repository data: " + e.getMessage());
+                }
+            });
+            CompletableFuture<List<RepositoryStatsDto.CommitDto>> commitsFuture =
+                    gitHubFanOut.fork("commits", () -> getRecentCommits(repoFullName, headers), Collections.emptyList());
+            // With the batch query enabled, branches, languages, collaborators and the commit total
+            // come from one GraphQL call instead of three REST calls; REST stays as the fallback
+            CompletableFuture<GitHubRepositoryMetadataDto> metadataFuture = gitHubGraphQLService.isEnabled()
+                    ? gitHubFanOut.fork("metadata", () -> gitHubGraphQLService.fetchRepositoryMetadata(teacher.getGithubToken(), repoFullName), null)
+                    : CompletableFuture.completedFuture(null);
+
+            JsonNode repoData = gitHubFanOut.join(repoFuture);
+            GitHubRepositoryMetadataDto metadata = metadataFuture.join();
+
+            List<RepositoryStatsDto.BranchActivityDto> branchActivity;
+            Map<String, Integer> languageStats;
+            int collaboratorCount;
+            Integer totalCommits = null;
+            if (metadata != null) {
+                branchActivity = toBranchActivity(metadata);
+                languageStats = toLanguageStats(metadata);
+                collaboratorCount = metadata.getCollaboratorCount() != null ? metadata.getCollaboratorCount() : 0;
+                totalCommits = metadata.getTotalCommits();
+            } else {
+                CompletableFuture<List<RepositoryStatsDto.BranchActivityDto>> branchesFuture =
+                        gitHubFanOut.fork("branches", () -> getBranchActivity(repoFullName, headers), Collections.emptyList());
+                CompletableFuture<Map<String, Integer>> languagesFuture =
+                        gitHubFanOut.fork("languages", () -> getLanguageStats(repoFullName, headers), Collections.emptyMap());
+                CompletableFuture<Integer> collaboratorsFuture =
+                        gitHubFanOut.fork("collaborators", () -> getCollaboratorCount(repoFullName, headers), 0);
+                branchActivity = branchesFuture.join();
+                languageStats = languagesFuture.join();
+                collaboratorCount = collaboratorsFuture.join();
+            }
+            List<RepositoryStatsDto.CommitDto> recentCommits = commitsFuture.join();
 
             RepositoryStatsDto stats = RepositoryStatsDto.builder()
                     .repositoryName(repoData.get("name").asText())
                     .fullName(repoData.get("full_name").asText())
-                    .totalCommits(recentCommits.size())
+                    .totalCommits(totalCommits != null ? totalCommits : recentCommits.size())
                     .totalBranches(branchActivity.size())
                     .totalCollaborators(collaboratorCount)
                     .totalSize(repoData.get("size").asLong())
@@ -164,6 +199,12 @@ public class RepositoryServiceImpl implements RepositoryService {
             log.info("Generated stats for repository: {}", repoFullName);
             return stats;
 
+        } catch (DependencyUnavailableException e) {
+            if (!accessCache.maySeeSyncedCopy(teacher, repoFullName)) {
+                throw e;
+            }
+            log.warn("GitHub unavailable, serving synced stats for {}: {}", repoFullName, e.getMessage());
+            return buildStatsFromSyncedData(repoFullName).orElseThrow(() -> e);
         } catch (Exception e) {
             log.error("Error fetching repository stats for {}: {}", repoFullName, e.getMessage());
             throw new BusinessException("Failed to fetch repository stats: " + e.getMessage());
@@ -209,6 +250,11 @@ public class RepositoryServiceImpl implements RepositoryService {
     public List<Map<String, Object>> getRepositoryFiles(String repoFullName, String branch, String teacherEmail) {
         User teacher = getTeacherWithGitHubToken(teacherEmail);
 
+        Optional<List<Map<String, Object>>> mirrored = getRepositoryFilesFromMirror(repoFullName, branch, teacher.getGithubToken());
+        if (mirrored.isPresent()) {
+            return mirrored.get();
+        }
+
         try {
             // Get repository contents
             String url = String.format("%s/repos/%s/contents?ref=%s", GITHUB_API_BASE, repoFullName, branch);
@@ -249,6 +295,37 @@ public class RepositoryServiceImpl implements RepositoryService {
         }
     }
 
+    /**
+     * Root listing with the last commit of every entry, from the local git mirror in one history walk
+     * instead of one commits API call per file
+     */
+    private Optional<List<Map<String, Object>>> getRepositoryFilesFromMirror(String repoFullName, String branch, String token) {
+        return gitMirrorService.listTree(repoFullName, branch, "", false, token).flatMap(entries ->
+                gitMirrorService.lastCommits(repoFullName, branch,
+                        entries.stream().map(GitMirrorService.MirrorTreeEntry::path).toList(), token).map(lastCommits -> {
+                    List<Map<String, Object>> fileList = new ArrayList<>();
+                    for (GitMirrorService.MirrorTreeEntry entry : entries) {
+                        Map<String, Object> fileInfo = new HashMap<>();
+                        fileInfo.put("fileName", entry.name());
+                        fileInfo.put("filePath", entry.path());
+                        fileInfo.put("type", "tree".equals(entry.type()) ? "dir"
+                                : "commit".equals(entry.type()) ? "submodule"
+                                : "120000".equals(entry.mode()) ? "symlink" : "file");
+                        fileInfo.put("size", entry.size() != null ? entry.size() : 0);
+
+                        GitMirrorService.MirrorCommit lastCommit = lastCommits.get(entry.path());
+                        fileInfo.put("lastCommitMessage", lastCommit != null ? lastCommit.message().trim() : "No commit message");
+                        fileInfo.put("lastModified", lastCommit != null ? lastCommit.authorDate().toInstant(ZoneOffset.UTC).toString() : null);
+                        fileInfo.put("lastCommitAuthor", lastCommit != null ? lastCommit.authorName() : "Unknown");
+                        if (lastCommit != null) {
+                            fileInfo.put("lastCommitSha", lastCommit.sha());
+                        }
+                        fileList.add(fileInfo);
+                    }
+                    return fileList;
+                }));
+    }
+
     private Map<String, Object> getLastCommitForFile(String repoFullName, String filePath, String branch, String token) {
         Map<String, Object> commitInfo = new HashMap<>();
 
@@ -413,6 +490,58 @@ public class RepositoryServiceImpl implements RepositoryService {
         }
     }
 
+    /**
+     * Fallback used while GitHub is short-circuited: compute the stats from the last synced copy.
+     */
+    private Optional<RepositoryStatsDto> buildStatsFromSyncedData(String repoFullName) {
+        return repositoryEntityRepository.findByFullName(repoFullName).map(repository -> {
+            List<RepositoryStatsDto.CommitDto> recentCommits = commitRepository
+                    .findByRepositoryIdOrderByDateDesc(repository.getId(), PageRequest.of(0, 10)).stream()
+                    .map(commit -> RepositoryStatsDto.CommitDto.builder()
+                            .sha(commit.getSha())
+                            .message(commit.getMessage())
+                            .author(commit.getAuthorName())
+                            .date(commit.getAuthorDate())
+                            .url(commit.getGithubUrl())
+                            .build())
+                    .toList();
+
+            List<RepositoryStatsDto.BranchActivityDto> branchActivity = branchRepository
+                    .findByRepositoryIdOrderByDefaultAndName(repository.getId()).stream()
+                    .map(branch -> RepositoryStatsDto.BranchActivityDto.builder()
+                            .branchName(branch.getName())
+                            .commitCount(branch.getCommitsCount() != null ? branch.getCommitsCount() : 0)
+                            .lastCommit(branch.getLastCommitDate())
+                            .lastCommitAuthor(branch.getLastCommitAuthor())
+                            .isProtected(Boolean.TRUE.equals(branch.getIsProtected()))
+                            .build())
+                    .toList();
+
+            Map<String, Integer> languageStats = new HashMap<>();
+            try {
+                if (repository.getLanguagesJson() != null) {
+                    objectMapper.readTree(repository.getLanguagesJson())
+                            .fields().forEachRemaining(entry -> languageStats.put(entry.getKey(), entry.getValue().asInt()));
+                }
+            } catch (Exception ex) {
+                log.debug("Could not parse synced languages for {}", repoFullName);
+            }
+
+            return RepositoryStatsDto.builder()
+                    .repositoryName(repository.getName())
+                    .fullName(repository.getFullName())
+                    .totalCommits((int) commitRepository.countByRepositoryId(repository.getId()))
+                    .totalBranches(branchActivity.size())
+                    .totalSize(repository.getSizeKb() != null ? repository.getSizeKb() : 0)
+                    .lastActivity(repository.getPushedAt())
+                    .languageStats(languageStats)
+                    .recentCommits(recentCommits)
+                    .branchActivity(branchActivity)
+                    .openIssues(repository.getOpenIssuesCount() != null ? repository.getOpenIssuesCount() : 0)
+                    .build();
+        });
+    }
+
     private List<RepositoryStatsDto.CommitDto> getRecentCommits(String repoFullName, HttpHeaders headers) {
         try {
             String url = GITHUB_API_BASE + "/repos/" + repoFullName + "/commits?per_page=10";
@@ -475,6 +604,26 @@ public class RepositoryServiceImpl implements RepositoryService {
         return Collections.emptyList();
     }
 
+    private List<RepositoryStatsDto.BranchActivityDto> toBranchActivity(GitHubRepositoryMetadataDto metadata) {
+        if (metadata.getBranches() == null) {
+            return Collections.emptyList();
+        }
+        return metadata.getBranches().stream()
+                .map(branch -> RepositoryStatsDto.BranchActivityDto.builder()
+                        .branchName(branch.getName())
+                        .isProtected(Boolean.TRUE.equals(branch.getIsProtected()))
+                        .build())
+                .toList();
+    }
+
+    private Map<String, Integer> toLanguageStats(GitHubRepositoryMetadataDto metadata) {
+        Map<String, Integer> languageMap = new HashMap<>();
+        if (metadata.getLanguages() != null) {
+            metadata.getLanguages().forEach((language, bytes) -> languageMap.put(language, bytes.intValue()));
+        }
+        return languageMap;
+    }
+
     private Map<String, Integer> getLanguageStats(String repoFullName, HttpHeaders headers) {
         try {
             String url = GITHUB_API_BASE + "/repos/" + repoFullName + "/languages";
@@ -779,6 +928,22 @@ public class RepositoryServiceImpl implements RepositoryService {
     public List<Map<String, Object>> getCommits(String repoFullName, String branch, int page, String teacherEmail) {
         User teacher = getTeacherWithGitHubToken(teacherEmail);
 
+        Optional<List<GitMirrorService.MirrorCommit>> mirrored =
+                gitMirrorService.listCommits(repoFullName, branch, Math.max(0, page - 1) * 30, 30, teacher.getGithubToken());
+        if (mirrored.isPresent()) {
+            List<Map<String, Object>> commitList = new ArrayList<>();
+            for (GitMirrorService.MirrorCommit commit : mirrored.get()) {
+                Map<String, Object> commitData = new HashMap<>();
+                commitData.put("sha", commit.sha());
+                commitData.put("message", commit.message());
+                commitData.put("author", commit.authorName());
+                commitData.put("date", commit.authorDate().toInstant(ZoneOffset.UTC).toString());
+                commitData.put("url", "https://github.com/" + repoFullName + "/commit/" + commit.sha());
+                commitList.add(commitData);
+            }
+            return commitList;
+        }
+
         try {
             String url = GITHUB_API_BASE + "/repos/" + repoFullName + "/commits?sha=" + branch + "&per_page=30&page=" + page;
             HttpHeaders headers = createHeaders(teacher.getGithubToken());
@@ -1059,8 +1224,20 @@ public class RepositoryServiceImpl implements RepositoryService {
     public int getCommitCount(String owner, String repo, String branch, String teacherEmail) {
         User teacher = getTeacherWithGitHubToken(teacherEmail);
 
+        if (gitHubGraphQLService.isEnabled()) {
+            try {
+                Integer total = gitHubGraphQLService.fetchCommitCount(teacher.getGithubToken(), owner, repo, branch);
+                if (total != null) {
+                    log.info("Commit count for {}/{} (branch: {}) from GraphQL: {}", owner, repo, branch, total);
+                    return total;
+                }
+            } catch (Exception e) {
+                log.warn("GraphQL commit count failed for {}/{}, falling back to REST: {}", owner, repo, e.getMessage());
+            }
+        }
+
         try {
-            String token = teacher.getGithubToken();
+            HttpEntity<String> entity = new HttpEntity<>(createGitHubJsonHeaders(teacher.getGithubToken()));
 
             // Step 1: Build GitHub API URL (without path filter)
             UriComponentsBuilder builder = UriComponentsBuilder
@@ -1071,25 +1248,10 @@ public class RepositoryServiceImpl implements RepositoryService {
             String countUrl = builder.build().encode().toUriString();
             log.info("GitHub API URL: {}", countUrl);
 
-            WebClient client = WebClient.create();
-
-            // Make the request and get the response
-            ClientResponse response = client.get()
-                    .uri(countUrl)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                    .header(HttpHeaders.ACCEPT, "application/vnd.github+json")
-                    .exchange()
-                    .block();
-
-            // Check if the response is successful
-            // Check if the response is successful
-            if (response.statusCode().isError()) {
-                String errorBody = response.bodyToMono(String.class).block();
-                log.error("GitHub API returned error: {} - Body: {}", response.statusCode(), errorBody);
-                throw new BusinessException("GitHub API error: " + response.statusCode() + " - " + errorBody);
-            }
+            // Make the request and get the response (errors surface as HttpClientErrorException)
+            ResponseEntity<String> response = restTemplate.exchange(countUrl, HttpMethod.GET, entity, String.class);
 
-            HttpHeaders headers = response.headers().asHttpHeaders();
+            HttpHeaders headers = response.getHeaders();
 
             // Debug: Print all headers
             log.info("Response headers: {}", headers);
@@ -1127,18 +1289,11 @@ public class RepositoryServiceImpl implements RepositoryService {
 
                 log.info("Fallback URL: {}", fallbackUrl);
 
-                String commitsJson = client.get()
-                        .uri(fallbackUrl)
-                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                        .header(HttpHeaders.ACCEPT, "application/vnd.github+json")
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .block();
+                String commitsJson = restTemplate.exchange(fallbackUrl, HttpMethod.GET, entity, String.class).getBody();
 
                 log.info("Commits JSON response length: {}", commitsJson != null ? commitsJson.length() : 0);
 
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode commitsArray = mapper.readTree(commitsJson);
+                JsonNode commitsArray = objectMapper.readTree(commitsJson);
                 commitCount = commitsArray.size();
 
                 log.info("Fallback commit count: {}", commitCount);
@@ -1166,49 +1321,33 @@ public class RepositoryServiceImpl implements RepositoryService {
         String repo = parts[1];
 
         try {
-            WebClient client = WebClient.create();
             String url = String.format("https://api.github.com/repos/%s/%s/languages", owner, repo);
+            HttpEntity<String> entity = new HttpEntity<>(createGitHubJsonHeaders(teacher.getGithubToken()));
 
             // General repo languages
-            String languagesJson = client.get()
-                    .uri(url)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + teacher.getGithubToken())
-                    .header(HttpHeaders.ACCEPT, "application/vnd.github+json")
-                    .header("X-GitHub-Api-Version", "2022-11-28")
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode languagesNode = mapper.readTree(languagesJson);
+            String languagesJson = restTemplate.exchange(url, HttpMethod.GET, entity, String.class).getBody();
+
+            JsonNode languagesNode = objectMapper.readTree(languagesJson);
 
             if (!branch.equals("main") && !branch.equals("master")) {
-                return getBranchSpecificLanguages(owner, repo, branch, teacher.getGithubToken(), client);
+                return getBranchSpecificLanguages(owner, repo, branch, teacher.getGithubToken());
             }
 
-            return mapper.convertValue(languagesNode, Map.class);
+            return objectMapper.convertValue(languagesNode, Map.class);
 
         } catch (Exception e) {
             log.error("Error fetching languages for {}: {}", repoFullName, e.getMessage());
             return new HashMap<>();
         }
     }
-    private Map<String, Object> getBranchSpecificLanguages(String owner, String repo, String branch, String teacherEmail, WebClient client) {
-        User teacher = getTeacherWithGitHubToken(teacherEmail);
+    private Map<String, Object> getBranchSpecificLanguages(String owner, String repo, String branch, String githubToken) {
         try {
             String treeUrl = String.format("https://api.github.com/repos/%s/%s/git/trees/%s?recursive=1", owner, repo, branch);
+            HttpEntity<String> entity = new HttpEntity<>(createGitHubJsonHeaders(githubToken));
+
+            String treeJson = restTemplate.exchange(treeUrl, HttpMethod.GET, entity, String.class).getBody();
 
-            String treeJson = client.get()
-                    .uri(treeUrl)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + teacher.getGithubToken())
-                    .header(HttpHeaders.ACCEPT, "application/vnd.github+json")
-                    .header("X-GitHub-Api-Version", "2022-11-28")
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode treeNode = mapper.readTree(treeJson);
+            JsonNode treeNode = objectMapper.readTree(treeJson);
             JsonNode treeArray = treeNode.get("tree");
 
             Map<String, Integer> extensionCounts = new HashMap<>();
@@ -1233,6 +1372,14 @@ public class RepositoryServiceImpl implements RepositoryService {
         }
 
     }
+
+    private HttpHeaders createGitHubJsonHeaders(String githubToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(githubToken);
+        headers.set(HttpHeaders.ACCEPT, "application/vnd.github+json");
+        headers.set("X-GitHub-Api-Version", "2022-11-28");
+        return headers;
+    }
     private String getFileExtension(String fileName) {
         if (fileName == null || fileName.isEmpty()) return "";
         int lastDotIndex = fileName.lastIndexOf('.');
@@ -8,6 +8,7 @@ import tn.esprithub.server.user.entity.User;
 import tn.esprithub.server.common.enums.UserRole;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +19,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Basic queries
     Optional<User> findByEmail(String email);
     Optional<User> findByGithubUsername(String githubUsername);
+    List<User> findByGithubUsernameIn(Collection<String> githubUsernames);
     boolean existsByEmail(String email);
     boolean existsByGithubUsername(String githubUsername);
 
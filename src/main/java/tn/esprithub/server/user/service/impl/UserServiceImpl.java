@@ -20,6 +20,7 @@ import tn.esprithub.server.academic.repository.ClasseRepository;
 import tn.esprithub.server.common.enums.UserRole;
 import tn.esprithub.server.common.exception.BusinessException;
 import tn.esprithub.server.email.EmailService;
+import tn.esprithub.server.github.webhook.RepositoryRecipientIndex;
 
 import java.util.List;
 import java.util.UUID;
@@ -39,6 +40,7 @@ public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final RepositoryRecipientIndex recipientIndex;
 
     // ========== CRUD OPERATIONS ==========
 
@@ -103,6 +105,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("Un utilisateur avec cet email existe déjà: " + updateUserDto.getEmail());
         }
         
+        boolean emailChanged = updateUserDto.getEmail() != null && !updateUserDto.getEmail().equals(existingUser.getEmail());
+
         // Update user fields
         userMapper.updateUserFromDto(existingUser, updateUserDto);
         
@@ -110,6 +114,10 @@ public class UserServiceImpl implements UserService {
         handleAcademicAssignments(existingUser, updateUserDto.getDepartementId(), updateUserDto.getClasseId());
         
         User updatedUser = userRepository.save(existingUser);
+        if (emailChanged) {
+            // Webhook notifications go to the recipient index's copy of the email
+            recipientIndex.refreshAfterCommit(recipientIndex.getUserRepositories(id));
+        }
         log.info("Successfully updated user ID: {}", id);
         
         return userMapper.toUserDto(updatedUser);
@@ -132,6 +140,8 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("Impossible de supprimer un enseignant assigné à des classes. Veuillez d'abord réassigner les classes.");
         }
         
+        // Looked up before the delete removes the user's memberships
+        recipientIndex.refreshAfterCommit(recipientIndex.getUserRepositories(id));
         userRepository.delete(user);
         log.info("Successfully deleted user ID: {}", id);
     }
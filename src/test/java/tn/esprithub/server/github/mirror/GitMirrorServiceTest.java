@@ -0,0 +1,148 @@
+package tn.esprithub.server.github.mirror;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tn.esprithub.server.config.properties.GitMirrorProperties;
+import tn.esprithub.server.github.service.GitHubRepositoryAccessCache;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mirrors cloned and fetched from local bare repositories through a file:// remote, without network
+ */
+class GitMirrorServiceTest {
+
+    private static final String REPOSITORY = "acme/demo";
+    private static final String TOKEN = "token";
+
+    @TempDir
+    Path temp;
+
+    private Git work;
+    private GitHubRepositoryAccessCache accessCache;
+    private GitMirrorService mirrorService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path remotes = temp.resolve("remotes");
+        Path upstream = remotes.resolve("acme").resolve("demo.git");
+        Git.init().setBare(true).setInitialBranch("main").setDirectory(upstream.toFile()).call().close();
+
+        work = Git.init().setInitialBranch("main").setDirectory(temp.resolve("work").toFile()).call();
+        work.remoteAdd().setName("origin").setUri(new URIish(upstream.toUri().toString())).call();
+
+        GitMirrorProperties properties = new GitMirrorProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(temp.resolve("mirrors").toString());
+        properties.setRemoteBaseUrl(remotes.toUri().toString().replaceAll("/$", ""));
+
+        accessCache = mock(GitHubRepositoryAccessCache.class);
+        when(accessCache.hasAccess(any(), any())).thenReturn(true);
+        mirrorService = new GitMirrorService(properties, accessCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mirrorService.shutdown();
+        work.close();
+    }
+
+    @Test
+    void clonesAndServesTreeFilesAndHistory() throws Exception {
+        RevCommit first = commit(Map.of("README.md", "hello", "src/App.java", "class App {}"), "Initial commit");
+        RevCommit second = commit(Map.of("src/App.java", "class App { void run() {} }"), "Add run");
+        push();
+
+        mirrorService.refresh(REPOSITORY, TOKEN);
+
+        List<GitMirrorService.MirrorTreeEntry> root = mirrorService.listTree(REPOSITORY, null, "", false, TOKEN).orElseThrow();
+        assertThat(root).extracting(GitMirrorService.MirrorTreeEntry::path).containsExactlyInAnyOrder("README.md", "src");
+        assertThat(root).filteredOn(entry -> entry.path().equals("src")).extracting(GitMirrorService.MirrorTreeEntry::type)
+                .containsExactly("tree");
+
+        List<GitMirrorService.MirrorTreeEntry> recursive = mirrorService.listTree(REPOSITORY, "main", "", true, TOKEN).orElseThrow();
+        assertThat(recursive).extracting(GitMirrorService.MirrorTreeEntry::path).contains("src/App.java");
+        assertThat(mirrorService.listTree(REPOSITORY, "main", "src", false, TOKEN).orElseThrow())
+                .extracting(GitMirrorService.MirrorTreeEntry::path).containsExactly("src/App.java");
+
+        GitMirrorService.MirrorBlob readme = mirrorService.readFile(REPOSITORY, "main", "README.md", TOKEN).orElseThrow();
+        assertThat(new String(readme.content(), StandardCharsets.UTF_8)).isEqualTo("hello");
+        assertThat(mirrorService.readFile(REPOSITORY, "main", "missing.txt", TOKEN)).isEmpty();
+        assertThat(mirrorService.readFile(REPOSITORY, "main", "src", TOKEN)).isEmpty();
+
+        Map<String, GitMirrorService.MirrorCommit> lastCommits =
+                mirrorService.lastCommits(REPOSITORY, "main", List.of("README.md", "src"), TOKEN).orElseThrow();
+        assertThat(lastCommits.get("README.md").sha()).isEqualTo(first.name());
+        assertThat(lastCommits.get("src").sha()).isEqualTo(second.name());
+
+        assertThat(mirrorService.listCommits(REPOSITORY, "main", 0, 10, TOKEN).orElseThrow())
+                .extracting(GitMirrorService.MirrorCommit::sha).containsExactly(second.name(), first.name());
+    }
+
+    @Test
+    void fetchesNewCommitsIncrementally() throws Exception {
+        RevCommit first = commit(Map.of("README.md", "v1"), "Initial commit");
+        push();
+        mirrorService.refresh(REPOSITORY, TOKEN);
+        assertThat(readString("README.md")).isEqualTo("v1");
+
+        RevCommit second = commit(Map.of("README.md", "v2", "docs/guide.md", "guide"), "Update docs");
+        push();
+        assertThat(readString("README.md")).isEqualTo("v1"); // not fetched yet
+
+        mirrorService.refresh(REPOSITORY, TOKEN);
+
+        assertThat(readString("README.md")).isEqualTo("v2");
+        assertThat(readString("docs/guide.md")).isEqualTo("guide");
+        assertThat(mirrorService.readFile(REPOSITORY, first.name(), "README.md", TOKEN).orElseThrow().content())
+                .isEqualTo("v1".getBytes(StandardCharsets.UTF_8));
+        assertThat(mirrorService.listCommits(REPOSITORY, "main", 0, 10, TOKEN).orElseThrow())
+                .extracting(GitMirrorService.MirrorCommit::sha).containsExactly(second.name(), first.name());
+    }
+
+    @Test
+    void servesNothingWithoutAccessOrMirror() throws Exception {
+        commit(Map.of("README.md", "hello"), "Initial commit");
+        push();
+
+        assertThat(mirrorService.readFile("acme/unknown", "main", "README.md", TOKEN)).isEmpty();
+
+        mirrorService.refresh(REPOSITORY, TOKEN);
+        when(accessCache.hasAccess(any(), any())).thenReturn(false);
+        assertThat(mirrorService.readFile(REPOSITORY, "main", "README.md", TOKEN)).isEmpty();
+    }
+
+    private String readString(String path) {
+        return new String(mirrorService.readFile(REPOSITORY, "main", path, TOKEN).orElseThrow().content(), StandardCharsets.UTF_8);
+    }
+
+    private RevCommit commit(Map<String, String> files, String message) throws Exception {
+        Path root = work.getRepository().getWorkTree().toPath();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            Path path = root.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, file.getValue());
+        }
+        work.add().addFilepattern(".").call();
+        return work.commit().setMessage(message).setAuthor("Student", "student@example.com")
+                .setCommitter("Student", "student@example.com").call();
+    }
+
+    private void push() throws Exception {
+        work.push().setRemote("origin").add("main").call();
+    }
+}